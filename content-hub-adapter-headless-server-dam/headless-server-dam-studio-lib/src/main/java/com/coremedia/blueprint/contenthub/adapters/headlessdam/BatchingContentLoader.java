@@ -0,0 +1,117 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnector;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses content requests which arrive within a short window into one batched request.
+ * <p>
+ * The first caller of a batch waits for the window to pass or the batch to fill up and then fetches
+ * all collected ids with {@link HeadlessServerConnector#getContents}. Later callers of the same batch
+ * wait for its result. Requests for different field sets are batched separately.
+ */
+class BatchingContentLoader {
+  private final HeadlessServerConnector connector;
+  private final int batchSize;
+  private final long windowMillis;
+  private final Map<Set<ContentField>, Batch> openBatches = new HashMap<>();
+
+  BatchingContentLoader(@NonNull HeadlessServerConnector connector, int batchSize, long windowMillis) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size " + batchSize);
+    }
+    this.connector = connector;
+    this.batchSize = batchSize;
+    this.windowMillis = windowMillis;
+  }
+
+  @Nullable
+  CMTeaseableDocument load(@NonNull String id, @NonNull Set<ContentField> fields) {
+    if (windowMillis <= 0) {
+      return connector.getContents(Collections.singleton(id), fields, batchSize).get(id);
+    }
+
+    Batch batch;
+    boolean leader = false;
+    synchronized (openBatches) {
+      Set<ContentField> key = EnumSet.copyOf(fields);
+      batch = openBatches.get(key);
+      if (batch == null) {
+        batch = new Batch(fields);
+        openBatches.put(key, batch);
+        leader = true;
+      }
+      batch.ids.add(id);
+      if (batch.ids.size() >= batchSize) {
+        openBatches.remove(key);
+        batch.full.countDown();
+      }
+    }
+
+    if (leader) {
+      dispatch(batch);
+    }
+    return await(batch).get(id);
+  }
+
+  private void dispatch(@NonNull Batch batch) {
+    try {
+      batch.full.await(windowMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    Set<String> ids;
+    synchronized (openBatches) {
+      openBatches.remove(EnumSet.copyOf(batch.fields), batch);
+      ids = new LinkedHashSet<>(batch.ids);
+    }
+
+    try {
+      batch.result.complete(connector.getContents(ids, batch.fields, batchSize));
+    } catch (RuntimeException e) {
+      batch.result.completeExceptionally(e);
+    }
+  }
+
+  @NonNull
+  private static Map<String, CMTeaseableDocument> await(@NonNull Batch batch) {
+    try {
+      return batch.result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for batched content request", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Batched content request failed: " + cause.getMessage(), cause);
+    }
+  }
+
+  private static class Batch {
+    private final Set<ContentField> fields;
+    private final Set<String> ids = new LinkedHashSet<>();
+    private final CountDownLatch full = new CountDownLatch(1);
+    private final CompletableFuture<Map<String, CMTeaseableDocument>> result = new CompletableFuture<>();
+
+    private Batch(Set<ContentField> fields) {
+      this.fields = fields;
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessTransportSettings;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * The validated settings of a content hub connection, with the defaults applied to all optional values.
+ * Instances are immutable.
+ *
+ * @see HeadlessDAMContentHubConfiguration
+ */
+final class ConnectionSettings {
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int DEFAULT_ITEM_CACHE_SIZE = 1000;
+  private static final int DEFAULT_ITEM_CACHE_TIME_TO_LIVE = 60000;
+  private static final int DEFAULT_BATCH_SIZE = 50;
+  private static final int DEFAULT_BATCH_WINDOW = 5;
+  private static final int DEFAULT_IMAGE_CACHE_SIZE = 0;
+  private static final int DEFAULT_IMAGE_CACHE_TIME_TO_LIVE = 3600000;
+  private static final String DEFAULT_PARTITION_DATE_FIELD = "creationdate";
+
+  private final String connectionId;
+  private final String headlessServerUrl;
+  private final String siteId;
+  private final int pageSize;
+  private final int itemCacheSize;
+  private final int itemCacheTimeToLive;
+  private final boolean itemCacheStaleWhileRevalidate;
+  private final int batchSize;
+  private final int batchWindow;
+  private final boolean persistedQueries;
+  private final boolean deltaSync;
+  private final boolean localSearch;
+  private final Path snapshotDirectory;
+  private final boolean warmUp;
+  private final int warmUpRefreshInterval;
+  private final int imageCacheSize;
+  private final Path imageCacheDirectory;
+  private final int imageCacheTimeToLive;
+  private final boolean prefetchThumbnails;
+  private final int partitionThreshold;
+  private final String partitionDateField;
+  private final HeadlessTransportSettings transportSettings;
+
+  /**
+   * @throws IllegalArgumentException if a required value is missing or a value is invalid
+   */
+  ConnectionSettings(@NonNull HeadlessDAMContentHubConfiguration configuration, @NonNull String connectionId) {
+    this.connectionId = connectionId;
+
+    String url = configuration.getHeadlessServerUrl();
+    if (url == null) {
+      throw invalid("No headlessServerUrl set");
+    }
+    headlessServerUrl = url.endsWith("/") ? url : url + "/";
+
+    siteId = configuration.getSiteId();
+    if (siteId == null) {
+      throw invalid("No siteId set");
+    }
+
+    pageSize = valueOf(configuration.getPageSize(), DEFAULT_PAGE_SIZE);
+    if (pageSize <= 0) {
+      throw invalid("Invalid pageSize " + pageSize);
+    }
+
+    itemCacheSize = valueOf(configuration.getItemCacheSize(), DEFAULT_ITEM_CACHE_SIZE);
+    if (itemCacheSize <= 0) {
+      throw invalid("Invalid itemCacheSize " + itemCacheSize);
+    }
+    itemCacheTimeToLive = valueOf(configuration.getItemCacheTimeToLive(), DEFAULT_ITEM_CACHE_TIME_TO_LIVE);
+    itemCacheStaleWhileRevalidate = Boolean.TRUE.equals(configuration.getItemCacheStaleWhileRevalidate());
+
+    batchSize = valueOf(configuration.getBatchSize(), DEFAULT_BATCH_SIZE);
+    if (batchSize <= 0) {
+      throw invalid("Invalid batchSize " + batchSize);
+    }
+    batchWindow = valueOf(configuration.getBatchWindow(), DEFAULT_BATCH_WINDOW);
+    if (batchWindow < 0) {
+      throw invalid("Invalid batchWindow " + batchWindow);
+    }
+    persistedQueries = Boolean.TRUE.equals(configuration.getPersistedQueries());
+
+    deltaSync = Boolean.TRUE.equals(configuration.getDeltaSync());
+    localSearch = Boolean.TRUE.equals(configuration.getLocalSearch());
+    snapshotDirectory = configuration.getSnapshotDirectory() == null ? null : Paths.get(configuration.getSnapshotDirectory());
+
+    warmUp = Boolean.TRUE.equals(configuration.getWarmUp());
+    warmUpRefreshInterval = valueOf(configuration.getWarmUpRefreshInterval(), 0);
+
+    imageCacheSize = valueOf(configuration.getImageCacheSize(), DEFAULT_IMAGE_CACHE_SIZE);
+    if (imageCacheSize < 0) {
+      throw invalid("Invalid imageCacheSize " + imageCacheSize);
+    }
+    imageCacheDirectory = Paths.get(configuration.getImageCacheDirectory() == null
+            ? System.getProperty("java.io.tmpdir")
+            : configuration.getImageCacheDirectory());
+    imageCacheTimeToLive = valueOf(configuration.getImageCacheTimeToLive(), DEFAULT_IMAGE_CACHE_TIME_TO_LIVE);
+    prefetchThumbnails = Boolean.TRUE.equals(configuration.getPrefetchThumbnails());
+
+    partitionThreshold = valueOf(configuration.getPartitionThreshold(), 0);
+    if (partitionThreshold < 0) {
+      throw invalid("Invalid partitionThreshold " + partitionThreshold);
+    }
+    partitionDateField = configuration.getPartitionDateField() == null
+            ? DEFAULT_PARTITION_DATE_FIELD
+            : configuration.getPartitionDateField();
+
+    transportSettings = transportSettings(configuration);
+  }
+
+  @NonNull
+  String getConnectionId() {
+    return connectionId;
+  }
+
+  /**
+   * Returns the URL of the headless server, which always ends with a slash.
+   */
+  @NonNull
+  String getHeadlessServerUrl() {
+    return headlessServerUrl;
+  }
+
+  @NonNull
+  String getSiteId() {
+    return siteId;
+  }
+
+  int getPageSize() {
+    return pageSize;
+  }
+
+  int getItemCacheSize() {
+    return itemCacheSize;
+  }
+
+  int getItemCacheTimeToLive() {
+    return itemCacheTimeToLive;
+  }
+
+  boolean isItemCacheStaleWhileRevalidate() {
+    return itemCacheStaleWhileRevalidate;
+  }
+
+  int getBatchSize() {
+    return batchSize;
+  }
+
+  int getBatchWindow() {
+    return batchWindow;
+  }
+
+  boolean isPersistedQueries() {
+    return persistedQueries;
+  }
+
+  boolean isDeltaSync() {
+    return deltaSync;
+  }
+
+  boolean isLocalSearch() {
+    return localSearch;
+  }
+
+  @Nullable
+  Path getSnapshotDirectory() {
+    return snapshotDirectory;
+  }
+
+  boolean isWarmUp() {
+    return warmUp;
+  }
+
+  int getWarmUpRefreshInterval() {
+    return warmUpRefreshInterval;
+  }
+
+  /**
+   * Returns the maximum size of the image cache in megabytes, 0 if the cache is disabled.
+   */
+  int getImageCacheSize() {
+    return imageCacheSize;
+  }
+
+  @NonNull
+  Path getImageCacheDirectory() {
+    return imageCacheDirectory;
+  }
+
+  int getImageCacheTimeToLive() {
+    return imageCacheTimeToLive;
+  }
+
+  boolean isPrefetchThumbnails() {
+    return prefetchThumbnails;
+  }
+
+  /**
+   * Returns the number of items above which a type folder is partitioned, 0 if folders are never partitioned.
+   */
+  int getPartitionThreshold() {
+    return partitionThreshold;
+  }
+
+  @NonNull
+  String getPartitionDateField() {
+    return partitionDateField;
+  }
+
+  /**
+   * Returns the transport settings of the connector. They are shared with the connector registry and must not be modified.
+   */
+  @NonNull
+  HeadlessTransportSettings getTransportSettings() {
+    return transportSettings;
+  }
+
+  @NonNull
+  private IllegalArgumentException invalid(@NonNull String message) {
+    return new IllegalArgumentException(message + " for content hub adapter connection '" + connectionId + "'");
+  }
+
+  private static int valueOf(@Nullable Integer value, int defaultValue) {
+    return value == null ? defaultValue : value;
+  }
+
+  /**
+   * Copies the configured transport values, the transport settings keep their defaults for all others.
+   */
+  @NonNull
+  private static HeadlessTransportSettings transportSettings(@NonNull HeadlessDAMContentHubConfiguration configuration) {
+    HeadlessTransportSettings settings = new HeadlessTransportSettings();
+    setIfPresent(configuration.getTransport(), settings::setTransport);
+    setIfPresent(configuration.getConnectTimeout(), settings::setConnectTimeout);
+    setIfPresent(configuration.getReadTimeout(), settings::setReadTimeout);
+    setIfPresent(configuration.getConnectionRequestTimeout(), settings::setConnectionRequestTimeout);
+    setIfPresent(configuration.getMaxConnections(), settings::setMaxConnections);
+    setIfPresent(configuration.getMaxConnectionsPerRoute(), settings::setMaxConnectionsPerRoute);
+    setIfPresent(configuration.getIdleConnectionTimeout(), settings::setIdleConnectionTimeout);
+    setIfPresent(configuration.getCoalescingTimeout(), settings::setCoalescingTimeout);
+    setIfPresent(configuration.getConditionalRequestCacheSize(), settings::setConditionalRequestCacheSize);
+    setIfPresent(configuration.getCompression(), settings::setCompression);
+    setIfPresent(configuration.getRequestCompressionThreshold(), settings::setRequestCompressionThreshold);
+    setIfPresent(configuration.getAsyncThreads(), settings::setAsyncThreads);
+    setIfPresent(configuration.getAsyncQueueCapacity(), settings::setAsyncQueueCapacity);
+    setIfPresent(configuration.getCircuitBreakerFailureThreshold(), settings::setCircuitBreakerFailureThreshold);
+    setIfPresent(configuration.getCircuitBreakerOpenDuration(), settings::setCircuitBreakerOpenDuration);
+    setIfPresent(configuration.getMaxConcurrentRequests(), settings::setMaxConcurrentRequests);
+    setIfPresent(configuration.getConcurrencyLatencyThreshold(), settings::setConcurrencyLatencyThreshold);
+    setIfPresent(configuration.getConcurrencyWaitTimeout(), settings::setConcurrencyWaitTimeout);
+    return settings;
+  }
+
+  private static <T> void setIfPresent(@Nullable T value, @NonNull Consumer<T> setter) {
+    if (value != null) {
+      setter.accept(value);
+    }
+  }
+}
@@ -0,0 +1,311 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchQuery;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits large type folders into virtual subfolders by creation year and month.
+ * <p>
+ * A type folder with more items than the threshold is split into one folder per year, a year with more
+ * items than the threshold into one folder per month. The partitions are encoded in the external id of
+ * their folder, e.g. <code>pictures/2023</code> and <code>pictures/2023-05</code>, so that the parent of
+ * a partition is known without a request. Each partition is listed with a date range query on the
+ * creation date. The partitions of a folder are counted with one request and kept for a short time,
+ * empty partitions are hidden. Documents without a creation date, or older than the partitioned years,
+ * are in no partition, they remain in the type folder itself.
+ */
+class DatePartitions {
+  private static final Logger LOG = LoggerFactory.getLogger(DatePartitions.class);
+  private static final Pattern PARTITION_ID = Pattern.compile("([a-z]+)/(\\d{4})(?:-(\\d{2}))?");
+  private static final DateTimeFormatter RANGE_BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+  /**
+   * Only the most recent years are partitioned, in case of bogus creation dates.
+   */
+  static final int MAX_YEARS = 100;
+
+  /**
+   * Searches the headless server for the partitions. Partitions are counted and listed with the same filter
+   * queries, so that a counted partition also lists its documents.
+   */
+  interface Searcher {
+
+    /**
+     * Returns the creation date of the first document of the type matching the filter query in the given sort order.
+     */
+    @Nullable
+    ZonedDateTime firstCreationDate(@NonNull String docType, @NonNull String filterQuery, @NonNull String sortField);
+
+    /**
+     * Returns the number of documents of the type matching each filter query, null if a filter query could not be counted.
+     */
+    @NonNull
+    List<Integer> count(@NonNull String docType, @NonNull List<String> filterQueries);
+  }
+
+  private final String dateField;
+  private final int threshold;
+  private final Searcher searcher;
+  private final ExpiringLruCache<String, List<Partition>> cache;
+
+  DatePartitions(@NonNull String dateField,
+                 int threshold,
+                 @NonNull Searcher searcher,
+                 @NonNull ExpiringLruCache<String, List<Partition>> cache) {
+    this.dateField = dateField;
+    this.threshold = threshold;
+    this.searcher = searcher;
+    this.cache = cache;
+  }
+
+  /**
+   * Returns whether a folder with the given number of items is split into partitions.
+   */
+  boolean isPartitioned(int itemCount) {
+    return itemCount > threshold;
+  }
+
+  /**
+   * Returns the non-empty year partitions of a type folder, most recent first.
+   */
+  @NonNull
+  List<Partition> years(@NonNull String folderId, @NonNull String docType) {
+    List<Partition> years = cache.get(folderId, key -> countYears(folderId, docType));
+    return years == null ? List.of() : years;
+  }
+
+  /**
+   * Returns the non-empty month partitions of a year partition, most recent first.
+   */
+  @NonNull
+  List<Partition> months(@NonNull Partition year, @NonNull String docType) {
+    List<Partition> months = cache.get(year.getExternalId(), key -> countMonths(year, docType));
+    return months == null ? List.of() : months;
+  }
+
+  /**
+   * Returns the partition with its count, counting it together with its siblings if necessary.
+   *
+   * @return null if the partition is empty or could not be counted
+   */
+  @Nullable
+  Partition counted(@NonNull Partition partition, @NonNull String docType) {
+    List<Partition> siblings = partition.isMonth() ? months(partition.getYear(), docType) : years(partition.getFolderId(), docType);
+    return siblings.stream().filter(partition::equals).findFirst().orElse(null);
+  }
+
+  /**
+   * Returns the partition with its count if its siblings have been counted before, without a request.
+   */
+  @Nullable
+  Partition getIfPresent(@NonNull Partition partition) {
+    List<Partition> siblings = cache.getIfPresent(partition.getParentId());
+    if (siblings == null) {
+      return null;
+    }
+    return siblings.stream().filter(partition::equals).findFirst().orElse(null);
+  }
+
+  /**
+   * Returns the filter query matching the documents created within the partition.
+   */
+  @NonNull
+  String filterQuery(@NonNull Partition partition) {
+    YearMonth from = YearMonth.of(partition.year, partition.month == null ? 1 : partition.month);
+    YearMonth to = partition.month == null ? from.plusYears(1) : from.plusMonths(1);
+    return dateField + ":[" + bound(from) + " TO " + bound(to) + "}";
+  }
+
+  /**
+   * Returns the filter query matching the documents of a type folder which are in none of its year partitions,
+   * or null if there are no partitions, so that all documents remain in the type folder.
+   */
+  @Nullable
+  String remainderQuery(@NonNull String folderId, @NonNull String docType) {
+    List<Partition> years = years(folderId, docType);
+    if (years.isEmpty()) {
+      return null;
+    }
+    YearMonth from = YearMonth.of(years.get(years.size() - 1).year, 1);
+    YearMonth to = YearMonth.of(years.get(0).year + 1, 1);
+    return "-" + dateField + ":[" + bound(from) + " TO " + bound(to) + "}";
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[threshold=" + threshold + ", cache=" + cache + "]";
+  }
+
+  @Nullable
+  private List<Partition> countYears(@NonNull String folderId, @NonNull String docType) {
+    // documents without a creation date are sorted first or last, depending on the index
+    String dated = dateField + ":[* TO *]";
+    ZonedDateTime first = searcher.firstCreationDate(docType, dated, SearchQuery.CREATION_DATE_ASC);
+    ZonedDateTime last = searcher.firstCreationDate(docType, dated, SearchQuery.CREATION_DATE_DESC);
+    if (first == null || last == null) {
+      return null;
+    }
+    int lastYear = last.withZoneSameInstant(ZoneOffset.UTC).getYear();
+    int firstYear = Math.max(first.withZoneSameInstant(ZoneOffset.UTC).getYear(), lastYear - MAX_YEARS + 1);
+    List<Partition> years = new ArrayList<>();
+    for (int year = lastYear; year >= firstYear; year--) {
+      years.add(new Partition(folderId, year, null, 0));
+    }
+    return counted(years, docType);
+  }
+
+  @Nullable
+  private List<Partition> countMonths(@NonNull Partition year, @NonNull String docType) {
+    List<Partition> months = new ArrayList<>();
+    for (int month = 12; month >= 1; month--) {
+      months.add(new Partition(year.folderId, year.year, month, 0));
+    }
+    return counted(months, docType);
+  }
+
+  /**
+   * Counts the partitions with one request and returns the non-empty ones, or null if they could not be counted.
+   */
+  @Nullable
+  private List<Partition> counted(@NonNull List<Partition> partitions, @NonNull String docType) {
+    List<String> filterQueries = new ArrayList<>();
+    for (Partition partition : partitions) {
+      filterQueries.add(filterQuery(partition));
+    }
+    List<Integer> counts = searcher.count(docType, filterQueries);
+    List<Partition> result = new ArrayList<>();
+    for (int i = 0; i < partitions.size(); i++) {
+      Integer count = counts.get(i);
+      if (count == null) {
+        LOG.warn("Failed to count partition {} of {}", partitions.get(i).getExternalId(), docType);
+        return null;
+      }
+      if (count > 0) {
+        Partition partition = partitions.get(i);
+        result.add(new Partition(partition.folderId, partition.year, partition.month, count));
+      }
+    }
+    return result;
+  }
+
+  @NonNull
+  private static String bound(@NonNull YearMonth month) {
+    return RANGE_BOUND.format(month.atDay(1).atStartOfDay());
+  }
+
+  /**
+   * Returns the partition encoded in the external id, or null if it is no partition id.
+   */
+  @Nullable
+  static Partition parse(@NonNull String externalId) {
+    Matcher matcher = PARTITION_ID.matcher(externalId);
+    if (!matcher.matches()) {
+      return null;
+    }
+    Integer month = matcher.group(3) == null ? null : Integer.valueOf(matcher.group(3));
+    if (month != null && (month < 1 || month > 12)) {
+      return null;
+    }
+    return new Partition(matcher.group(1), Integer.parseInt(matcher.group(2)), month, 0);
+  }
+
+  /**
+   * A year or a month of a type folder. Partitions are equal if they cover the same range, regardless of their count.
+   */
+  static final class Partition {
+    private final String folderId;
+    private final int year;
+    private final Integer month;
+    private final int count;
+
+    private Partition(String folderId, int year, Integer month, int count) {
+      this.folderId = folderId;
+      this.year = year;
+      this.month = month;
+      this.count = count;
+    }
+
+    /**
+     * Returns the id of the type folder the partition belongs to.
+     */
+    @NonNull
+    String getFolderId() {
+      return folderId;
+    }
+
+    @NonNull
+    String getExternalId() {
+      return month == null ? folderId + "/" + year : folderId + "/" + year + "-" + String.format("%02d", month);
+    }
+
+    /**
+     * Returns the external id of the parent folder, the type folder of a year or the year of a month.
+     */
+    @NonNull
+    String getParentId() {
+      return month == null ? folderId : folderId + "/" + year;
+    }
+
+    /**
+     * Returns the year of a month partition.
+     */
+    @NonNull
+    Partition getYear() {
+      return month == null ? this : new Partition(folderId, year, null, 0);
+    }
+
+    boolean isMonth() {
+      return month != null;
+    }
+
+    /**
+     * Returns the display name, the year or the month, e.g. "2023-05".
+     */
+    @NonNull
+    String getName() {
+      return month == null ? String.valueOf(year) : year + "-" + String.format("%02d", month);
+    }
+
+    /**
+     * Returns the number of items, 0 if the partition has not been counted.
+     */
+    int getCount() {
+      return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Partition partition = (Partition) o;
+      return year == partition.year && folderId.equals(partition.folderId) && Objects.equals(month, partition.month);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(folderId, year, month);
+    }
+
+    @Override
+    public String toString() {
+      return getExternalId() + "(" + count + ")";
+    }
+  }
+}
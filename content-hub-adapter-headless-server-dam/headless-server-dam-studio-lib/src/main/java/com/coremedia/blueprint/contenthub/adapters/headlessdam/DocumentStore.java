@@ -0,0 +1,116 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Keeps the documents of an adapter together with the fields that have been loaded for them.
+ * <p>
+ * Folder listings and search results seed the store with partial documents. When a document is read with
+ * fields that it does not contain yet, only the missing fields are fetched and merged into a new document.
+ */
+class DocumentStore {
+
+  /**
+   * Fetches the given fields of a document from the headless server.
+   */
+  @FunctionalInterface
+  interface Fetcher {
+    @Nullable
+    CMTeaseableDocument fetch(@NonNull String id, @NonNull Set<ContentField> fields);
+  }
+
+  private final ExpiringLruCache<String, StoredDocument> cache;
+  private final Fetcher fetcher;
+
+  DocumentStore(@NonNull ExpiringLruCache<String, StoredDocument> cache, @NonNull Fetcher fetcher) {
+    this.cache = cache;
+    this.fetcher = fetcher;
+  }
+
+  /**
+   * Adds a document that contains the given fields, merging it with the fields already known.
+   */
+  void seed(@NonNull String id, @NonNull CMTeaseableDocument document, @NonNull Set<ContentField> fields) {
+    StoredDocument existing = cache.getIfPresent(id);
+    cache.put(id, existing == null ? new StoredDocument(document, fields) : existing.merge(document, fields));
+  }
+
+  /**
+   * Returns the document with at least the required fields, fetching whatever is missing.
+   */
+  @Nullable
+  CMTeaseableDocument get(@NonNull String id, @NonNull Set<ContentField> requiredFields) {
+    StoredDocument stored = cache.get(id, key -> load(key, ContentField.ALL));
+    if (stored == null) {
+      return null;
+    }
+
+    Set<ContentField> missingFields = stored.missing(requiredFields);
+    if (missingFields.isEmpty()) {
+      return stored.document;
+    }
+
+    CMTeaseableDocument missing = fetcher.fetch(id, missingFields);
+    if (missing == null) {
+      return stored.document;
+    }
+    StoredDocument merged = stored.merge(missing, missingFields);
+    cache.put(id, merged);
+    return merged.document;
+  }
+
+  @NonNull
+  ExpiringLruCache<String, StoredDocument> getCache() {
+    return cache;
+  }
+
+  @Nullable
+  private StoredDocument load(@NonNull String id, @NonNull Set<ContentField> fields) {
+    CMTeaseableDocument document = fetcher.fetch(id, fields);
+    return document == null ? null : new StoredDocument(document, fields);
+  }
+
+  /**
+   * An immutable document together with the fields which have been loaded for it.
+   */
+  static class StoredDocument {
+    private final CMTeaseableDocument document;
+    private final Set<ContentField> fields;
+
+    private StoredDocument(@NonNull CMTeaseableDocument document, @NonNull Set<ContentField> fields) {
+      this.document = document;
+      this.fields = fields.isEmpty() ? EnumSet.noneOf(ContentField.class) : EnumSet.copyOf(fields);
+    }
+
+    @NonNull
+    private Set<ContentField> missing(@NonNull Set<ContentField> requiredFields) {
+      Set<ContentField> missing = requiredFields.isEmpty() ? EnumSet.noneOf(ContentField.class) : EnumSet.copyOf(requiredFields);
+      missing.removeAll(fields);
+      return missing;
+    }
+
+    /**
+     * Returns a new stored document with the given fields taken from the other document.
+     */
+    @NonNull
+    private StoredDocument merge(@NonNull CMTeaseableDocument other, @NonNull Set<ContentField> otherFields) {
+      CMTeaseableDocument merged = new CMTeaseableDocument();
+      for (ContentField field : fields) {
+        field.copy(document, merged);
+      }
+      for (ContentField field : otherFields) {
+        field.copy(other, merged);
+      }
+      Set<ContentField> mergedFields = EnumSet.noneOf(ContentField.class);
+      mergedFields.addAll(fields);
+      mergedFields.addAll(otherFields);
+      return new StoredDocument(merged, mergedFields);
+    }
+  }
+}
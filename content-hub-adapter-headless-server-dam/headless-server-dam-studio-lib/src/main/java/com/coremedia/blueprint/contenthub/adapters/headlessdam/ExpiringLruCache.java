@@ -0,0 +1,176 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A size bounded LRU cache whose entries expire after a fixed time to live.
+ * <p>
+ * In stale-while-revalidate mode an expired entry is still returned, while a fresh value is loaded
+ * by the refresh executor. Otherwise expired entries are loaded again by the calling thread.
+ * <code>null</code> values are never cached.
+ */
+class ExpiringLruCache<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(ExpiringLruCache.class);
+
+  private final long timeToLiveMillis;
+  private final boolean staleWhileRevalidate;
+  private final Executor refreshExecutor;
+  private final Map<K, CacheEntry<V>> entries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder staleHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  ExpiringLruCache(int maxSize, long timeToLiveMillis, boolean staleWhileRevalidate, @NonNull Executor refreshExecutor) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Invalid cache size " + maxSize);
+    }
+    this.timeToLiveMillis = timeToLiveMillis;
+    this.staleWhileRevalidate = staleWhileRevalidate;
+    this.refreshExecutor = refreshExecutor;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+        if (size() > maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached value for the key, or loads and caches it if it is missing or expired.
+   */
+  @Nullable
+  V get(@NonNull K key, @NonNull Function<K, V> loader) {
+    CacheEntry<V> entry;
+    boolean refresh = false;
+    synchronized (entries) {
+      entry = entries.get(key);
+      if (entry != null && isExpired(entry) && staleWhileRevalidate && !entry.refreshing) {
+        entry.refreshing = true;
+        refresh = true;
+      }
+    }
+
+    if (entry != null && !isExpired(entry)) {
+      hits.increment();
+      return entry.value;
+    }
+
+    if (entry != null && staleWhileRevalidate) {
+      staleHits.increment();
+      if (refresh) {
+        refreshInBackground(key, entry, loader);
+      }
+      return entry.value;
+    }
+
+    misses.increment();
+    V value = loader.apply(key);
+    put(key, value);
+    return value;
+  }
+
+  /**
+   * Returns the cached value for the key, regardless of its age, without loading it.
+   */
+  @Nullable
+  V getIfPresent(@NonNull K key) {
+    synchronized (entries) {
+      CacheEntry<V> entry = entries.get(key);
+      return entry == null ? null : entry.value;
+    }
+  }
+
+  void put(@NonNull K key, @Nullable V value) {
+    if (value == null) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new CacheEntry<>(value, System.currentTimeMillis() + timeToLiveMillis));
+    }
+  }
+
+  void invalidate(@NonNull K key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getStaleHitCount() {
+    return staleHits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() +
+            ", hits=" + getHitCount() +
+            ", staleHits=" + getStaleHitCount() +
+            ", misses=" + getMissCount() +
+            ", evictions=" + getEvictionCount() + "]";
+  }
+
+  private boolean isExpired(@NonNull CacheEntry<V> entry) {
+    return System.currentTimeMillis() > entry.expiresAt;
+  }
+
+  private void refreshInBackground(@NonNull K key, @NonNull CacheEntry<V> entry, @NonNull Function<K, V> loader) {
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          put(key, loader.apply(key));
+        } catch (RuntimeException e) {
+          LOG.warn("Failed to refresh cache entry '{}': {}", key, e.getMessage());
+        } finally {
+          entry.refreshing = false;
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      LOG.debug("Skipped refresh of cache entry '{}': {}", key, e.getMessage());
+      entry.refreshing = false;
+    }
+  }
+
+  private static class CacheEntry<V> {
+    private final V value;
+    private final long expiresAt;
+    private volatile boolean refreshing;
+
+    private CacheEntry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
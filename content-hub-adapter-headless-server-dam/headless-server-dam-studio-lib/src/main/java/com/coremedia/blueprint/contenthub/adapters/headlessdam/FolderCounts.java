@@ -0,0 +1,132 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The number of documents per type, counted with one request and kept for a short time.
+ * <p>
+ * The counts label the folders and hide empty ones, so that neither expanding the root folder nor opening
+ * an empty folder downloads any documents. Expired counts are refreshed by one caller, concurrent callers
+ * wait for its result instead of counting again.
+ */
+class FolderCounts {
+  private static final Logger LOG = LoggerFactory.getLogger(FolderCounts.class);
+
+  /**
+   * Counts the documents of the given types.
+   */
+  @FunctionalInterface
+  interface Counter {
+    @NonNull
+    Map<String, Integer> count(@NonNull List<String> docTypes);
+  }
+
+  private final List<String> docTypes;
+  private final Counter counter;
+  private final long maxAgeMillis;
+
+  private volatile Counts counts;
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  /**
+   * The number of finished refreshes, so that callers which waited for a failed one do not repeat it.
+   */
+  private volatile long attempts;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  FolderCounts(@NonNull List<String> docTypes, @NonNull Counter counter, long maxAgeMillis) {
+    this.docTypes = List.copyOf(docTypes);
+    this.counter = counter;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /**
+   * Returns the counts per type, counting them again if they are older than the maximum age.
+   *
+   * @return null if the types could not be counted
+   */
+  @Nullable
+  Map<String, Integer> get() {
+    Counts current = counts;
+    if (isFresh(current)) {
+      return current.values;
+    }
+    long attemptsBefore = attempts;
+    refreshLock.lock();
+    try {
+      current = counts;
+      if (isFresh(current)) {
+        return current.values;
+      }
+      if (attempts != attemptsBefore) {
+        // a concurrent caller has just failed to count, it is not repeated for every waiting caller
+        return null;
+      }
+      try {
+        return count();
+      } finally {
+        attempts++;
+      }
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the count of the type if it has been counted recently, without a request.
+   */
+  @Nullable
+  Integer getIfPresent(@NonNull String docType) {
+    Counts current = counts;
+    return isFresh(current) ? current.values.get(docType) : null;
+  }
+
+  private boolean isFresh(@Nullable Counts current) {
+    return current != null && System.currentTimeMillis() - current.countedAt <= maxAgeMillis;
+  }
+
+  @Nullable
+  private Map<String, Integer> count() {
+    requests.increment();
+    try {
+      Map<String, Integer> values = counter.count(docTypes);
+      if (!values.keySet().containsAll(docTypes)) {
+        failures.increment();
+        LOG.warn("Failed to count {}, got counts {}", docTypes, values);
+        return null;
+      }
+      counts = new Counts(Map.copyOf(values), System.currentTimeMillis());
+      return values;
+    } catch (RuntimeException e) {
+      failures.increment();
+      LOG.warn("Failed to count {}: {}", docTypes, e.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    Counts current = counts;
+    return getClass().getSimpleName() + "[counts=" + (current == null ? "{}" : current.values) +
+            ", requests=" + requests.sum() +
+            ", failures=" + failures.sum() + "]";
+  }
+
+  private static class Counts {
+    private final Map<String, Integer> values;
+    private final long countedAt;
+
+    private Counts(Map<String, Integer> values, long countedAt) {
+      this.values = values;
+      this.countedAt = countedAt;
+    }
+  }
+}
@@ -0,0 +1,529 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchQuery;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchResultConsumer;
+import com.coremedia.contenthub.api.Item;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A local copy of the listing of one content type, kept current by delta synchronization.
+ * <p>
+ * The first sync loads the whole folder. Later syncs page through the documents by descending modification date
+ * and stop at the high-water mark, the latest modification date seen so far, so unchanged documents are not
+ * transferred again. Deletions are detected by comparing the size of the snapshot with <code>numFound</code>.
+ * Only if they differ, or every {@value #ID_CHECK_INTERVAL} syncs, the ids of the folder are listed to find the
+ * deleted documents, in pages of {@value #ID_PAGE_SIZE} links. A sync on the thread of a reader leaves that check to
+ * a sync in the background.
+ * <p>
+ * Readers never wait for a sync: every sync publishes an immutable listing, and the previous listing is served
+ * while a sync is running. Only one sync runs at a time.
+ */
+class FolderSnapshot {
+  private static final Logger LOG = LoggerFactory.getLogger(FolderSnapshot.class);
+  private static final int ID_CHECK_INTERVAL = 10;
+  private static final int ID_PAGE_SIZE = 1000;
+  private static final Set<ContentField> ID_FIELDS = Collections.unmodifiableSet(EnumSet.of(ContentField.LINK));
+  private static final Comparator<CMTeaseableDocument> LISTING_ORDER = Comparator
+          .comparing(FolderSnapshot::modificationDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+          .thenComparing(FolderSnapshot::id);
+
+  /**
+   * Streams one page of the folder's documents in the given order, with the given fields, to the consumer.
+   */
+  @FunctionalInterface
+  interface Searcher {
+    void search(@NonNull String sortField, @NonNull Set<ContentField> fields, int offset, int limit,
+                @NonNull SearchResultConsumer consumer);
+  }
+
+  /**
+   * Is notified of the documents added to, changed in and removed from the snapshot. The changes of a sync are
+   * passed after it has published its listing, in the order of the syncs, and not while the snapshot is locked.
+   */
+  interface Listener {
+    void updated(@NonNull CMTeaseableDocument document);
+
+    void removed(@NonNull String id);
+  }
+
+  /**
+   * Keeps the documents of a snapshot across restarts.
+   */
+  interface Persistence {
+    /**
+     * Returns the saved documents, or null if there is no valid saved snapshot.
+     */
+    @Nullable
+    Saved load();
+
+    void save(@NonNull Collection<CMTeaseableDocument> documents);
+  }
+
+  /**
+   * The documents of a snapshot and the time they have been saved at.
+   */
+  static final class Saved {
+    private final List<CMTeaseableDocument> documents;
+    private final long savedAt;
+
+    Saved(@NonNull List<CMTeaseableDocument> documents, long savedAt) {
+      this.documents = documents;
+      this.savedAt = savedAt;
+    }
+  }
+
+  private final String name;
+  private final Searcher searcher;
+  private final Set<ContentField> fields;
+  private final Function<CMTeaseableDocument, Item> itemFactory;
+  private final int pageSize;
+  private final Executor executor;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private volatile Persistence persistence;
+
+  /**
+   * The listing of the last sync, replaced as a whole, null until the first sync or restore.
+   */
+  private volatile Listing listing;
+  private final AtomicBoolean syncScheduled = new AtomicBoolean();
+
+  // the state of the sync, only modified while holding the sync lock
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private final ReentrantLock listenerLock = new ReentrantLock();
+  private final Map<String, CMTeaseableDocument> documents = new HashMap<>();
+  private final Map<String, Item> itemsById = new HashMap<>();
+  private final Queue<Consumer<Listener>> changes = new ConcurrentLinkedQueue<>();
+  private boolean restoreAttempted;
+  private volatile boolean idCheckDue;
+
+  private volatile Instant highWaterMark;
+  private volatile long syncs;
+  private volatile long idChecks;
+  private volatile long transferred;
+  private volatile long deletions;
+  private volatile long lastSyncMillis = -1;
+
+  FolderSnapshot(@NonNull String name,
+                 @NonNull Searcher searcher,
+                 @NonNull Set<ContentField> fields,
+                 @NonNull Function<CMTeaseableDocument, Item> itemFactory,
+                 int pageSize,
+                 @NonNull Executor executor) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Invalid page size " + pageSize);
+    }
+    this.name = name;
+    this.searcher = searcher;
+    this.fields = fields;
+    this.itemFactory = itemFactory;
+    this.pageSize = pageSize;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the items sorted by modification date. A snapshot older than the maximum age is synchronized first,
+   * unless a sync is running already, then the items of the last sync are returned. The same holds if the sync fails.
+   * A restored snapshot is returned right away and synchronized in the background, as are deletions.
+   *
+   * @return null if the snapshot has never been synchronized, its first sync is started in the background
+   */
+  @Nullable
+  List<Item> getItems(long maxAgeMillis) {
+    Listing current = listing;
+    if (current == null && persistence != null && syncLock.tryLock()) {
+      try {
+        restore();
+      } finally {
+        unlockAndNotify();
+      }
+      current = listing;
+    }
+    if (current == null) {
+      // the first sync loads the whole folder, which is not waited for
+      syncInBackground();
+      return null;
+    }
+    if (!current.isFresh(maxAgeMillis)) {
+      if (current.restored) {
+        syncInBackground();
+      } else {
+        try {
+          if (trySync(false)) {
+            current = listing;
+          }
+        } catch (RuntimeException e) {
+          LOG.warn("Failed to synchronize folder '{}', returning the last snapshot: {}", name, e.getMessage());
+        }
+        if (idCheckDue) {
+          syncInBackground();
+        }
+      }
+    }
+    return current.items;
+  }
+
+  /**
+   * Returns the items, synchronizing the snapshot first if it is older than the maximum age. Waits for a running sync.
+   */
+  @NonNull
+  List<Item> loadItems(long maxAgeMillis) {
+    syncLock.lock();
+    try {
+      restore();
+      Listing current = listing;
+      if (current == null || !current.isFresh(maxAgeMillis)) {
+        doSync(true);
+      }
+      return listing.items;
+    } finally {
+      unlockAndNotify();
+    }
+  }
+
+  void addListener(@NonNull Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Lets the snapshot start from its saved documents after a restart and save them after every change.
+   * Outdated restored documents are served while they are synchronized in the background.
+   */
+  void setPersistence(@NonNull Persistence persistence) {
+    this.persistence = persistence;
+  }
+
+  /**
+   * Returns whether the snapshot has been synchronized within the maximum age. Never waits for a running sync.
+   */
+  boolean isFresh(long maxAgeMillis) {
+    Listing current = listing;
+    return current != null && current.isFresh(maxAgeMillis);
+  }
+
+  /**
+   * Synchronizes the snapshot on the executor, unless a sync is running or scheduled already.
+   */
+  void syncInBackground() {
+    if (syncLock.isLocked() || !syncScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          trySync(true);
+        } catch (RuntimeException e) {
+          LOG.warn("Failed to synchronize folder '{}': {}", name, e.getMessage());
+        } finally {
+          syncScheduled.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      syncScheduled.set(false);
+      LOG.debug("Skipped synchronization of folder '{}': {}", name, e.getMessage());
+    }
+  }
+
+  /**
+   * Loads the whole folder on the first call, and only the changes since the previous call later on.
+   * Waits for a running sync to finish first.
+   */
+  void sync() {
+    syncLock.lock();
+    try {
+      doSync(true);
+    } finally {
+      unlockAndNotify();
+    }
+  }
+
+  @Override
+  public String toString() {
+    Listing current = listing;
+    return getClass().getSimpleName() + "[name=" + name +
+            ", size=" + (current == null ? 0 : current.items.size()) +
+            ", highWaterMark=" + highWaterMark +
+            ", syncs=" + syncs +
+            ", idChecks=" + idChecks +
+            ", transferred=" + transferred +
+            ", deletions=" + deletions +
+            ", lastSyncMillis=" + lastSyncMillis + "]";
+  }
+
+  /**
+   * Synchronizes the snapshot unless a sync is running.
+   *
+   * @param checkIds whether a due check for deleted documents is performed, or left to a later sync
+   * @return false if a sync is running
+   */
+  private boolean trySync(boolean checkIds) {
+    if (!syncLock.tryLock()) {
+      return false;
+    }
+    try {
+      doSync(checkIds);
+      return true;
+    } finally {
+      unlockAndNotify();
+    }
+  }
+
+  private void doSync(boolean checkIds) {
+    restore();
+    long start = System.currentTimeMillis();
+    boolean changed = listing == null ? fullSync() : deltaSync(checkIds);
+    if (changed && persistence != null) {
+      persistence.save(documents.values());
+    }
+    syncs++;
+    long syncedAt = System.currentTimeMillis();
+    Listing current = listing;
+    listing = new Listing(changed || current == null ? sortedItems() : current.items, syncedAt, false);
+    lastSyncMillis = syncedAt - start;
+    LOG.debug("Synchronized folder '{}' with {} documents in {} ms", name, documents.size(), lastSyncMillis);
+  }
+
+  /**
+   * Restores the saved documents, once, if the snapshot has not been synchronized yet.
+   */
+  private void restore() {
+    if (restoreAttempted || listing != null || persistence == null) {
+      return;
+    }
+    restoreAttempted = true;
+    Saved saved = persistence.load();
+    if (saved == null) {
+      return;
+    }
+    saved.documents.stream().filter(document -> document.getLink() != null && document.getLink().getId() != null)
+            .forEach(this::apply);
+    listing = new Listing(sortedItems(), saved.savedAt, true);
+    LOG.info("Restored folder '{}' with {} documents saved at {}", name, documents.size(), Instant.ofEpochMilli(saved.savedAt));
+  }
+
+  /**
+   * Releases the sync lock and passes the pending changes to the listeners, unless another thread is passing
+   * changes already, which then passes these changes as well. Changes are queued while holding the sync lock,
+   * so they are passed in the order of the syncs, and no thread waits for the listeners of another sync.
+   */
+  private void unlockAndNotify() {
+    syncLock.unlock();
+    while (!changes.isEmpty() && listenerLock.tryLock()) {
+      try {
+        Consumer<Listener> change;
+        while ((change = changes.poll()) != null) {
+          listeners.forEach(change);
+        }
+      } finally {
+        listenerLock.unlock();
+      }
+    }
+  }
+
+  @NonNull
+  private List<Item> sortedItems() {
+    List<Item> sorted = new ArrayList<>(documents.size());
+    documents.values().stream().sorted(LISTING_ORDER).forEach(document -> sorted.add(itemsById.get(id(document))));
+    return Collections.unmodifiableList(sorted);
+  }
+
+  private boolean fullSync() {
+    documents.keySet().forEach(this::removed);
+    documents.clear();
+    itemsById.clear();
+    highWaterMark = null;
+    idCheckDue = false;
+    for (int offset = 0; ; offset += pageSize) {
+      Page page = load(SearchQuery.MODIFICATION_DATE_ASC, fields, offset, pageSize);
+      page.documents.forEach(this::update);
+      if (page.documents.size() < pageSize) {
+        return true;
+      }
+    }
+  }
+
+  private boolean deltaSync(boolean checkIds) {
+    List<CMTeaseableDocument> changes = new ArrayList<>();
+    int numFound = 0;
+    for (int offset = 0; ; offset += pageSize) {
+      Page page = load(SearchQuery.MODIFICATION_DATE_DESC, fields, offset, pageSize);
+      numFound = page.numFound;
+      boolean reachedMark = false;
+      for (CMTeaseableDocument document : page.documents) {
+        Instant modificationDate = modificationDate(document);
+        if (modificationDate != null && highWaterMark != null && modificationDate.isBefore(highWaterMark)) {
+          reachedMark = true;
+          break;
+        }
+        changes.add(document);
+      }
+      if (reachedMark || page.documents.size() < pageSize) {
+        break;
+      }
+    }
+
+    boolean changed = false;
+    for (CMTeaseableDocument document : changes) {
+      // documents at the high-water mark itself are transferred again, they are only changes if they differ
+      if (!isSameVersion(documents.get(id(document)), document)) {
+        update(document);
+        changed = true;
+      }
+    }
+
+    if (documents.size() != numFound || (syncs + 1) % ID_CHECK_INTERVAL == 0) {
+      idCheckDue = true;
+    }
+    if (idCheckDue && checkIds) {
+      changed |= removeDeleted();
+    }
+    return changed;
+  }
+
+  /**
+   * Lists the ids of the folder and removes the documents which no longer exist.
+   */
+  private boolean removeDeleted() {
+    idChecks++;
+    Set<String> ids = new HashSet<>();
+    // the server may return fewer links than requested, so the listing ends with numFound or an empty page
+    for (int offset = 0; ; ) {
+      Page page = load(SearchQuery.MODIFICATION_DATE_ASC, ID_FIELDS, offset, ID_PAGE_SIZE);
+      page.documents.forEach(document -> ids.add(id(document)));
+      offset += page.received;
+      if (page.received == 0 || offset >= page.numFound) {
+        break;
+      }
+    }
+    idCheckDue = false;
+
+    int before = documents.size();
+    documents.keySet().stream().filter(id -> !ids.contains(id)).forEach(this::removed);
+    documents.keySet().retainAll(ids);
+    itemsById.keySet().retainAll(ids);
+    deletions += before - documents.size();
+
+    if (!documents.keySet().containsAll(ids)) {
+      // a document has been added with an older modification date than the high-water mark
+      LOG.debug("Folder '{}' contains documents missing from the snapshot, loading it again", name);
+      return fullSync();
+    }
+    return before != documents.size();
+  }
+
+  private void update(@NonNull CMTeaseableDocument document) {
+    apply(document);
+    transferred++;
+  }
+
+  private void apply(@NonNull CMTeaseableDocument document) {
+    String id = id(document);
+    documents.put(id, document);
+    itemsById.put(id, itemFactory.apply(document));
+    changes.add(listener -> listener.updated(document));
+    Instant modificationDate = modificationDate(document);
+    if (modificationDate != null && (highWaterMark == null || modificationDate.isAfter(highWaterMark))) {
+      highWaterMark = modificationDate;
+    }
+  }
+
+  private void removed(@NonNull String id) {
+    changes.add(listener -> listener.removed(id));
+  }
+
+  @NonNull
+  private Page load(@NonNull String sortField, @NonNull Set<ContentField> fields, int offset, int limit) {
+    Page page = new Page();
+    searcher.search(sortField, fields, offset, limit, new SearchResultConsumer() {
+      @Override
+      public void numFound(int numFound) {
+        page.numFound = numFound;
+      }
+
+      @Override
+      public void accept(@NonNull CMTeaseableDocument document) {
+        page.received++;
+        if (document.getLink() != null && document.getLink().getId() != null) {
+          page.documents.add(document);
+        }
+      }
+    });
+    return page;
+  }
+
+  /**
+   * Returns whether the document is stored already in its version. Documents without a modification date are
+   * transferred by every delta sync, they are only tracked by their id.
+   */
+  private static boolean isSameVersion(@Nullable CMTeaseableDocument stored, @NonNull CMTeaseableDocument document) {
+    if (stored == null) {
+      return false;
+    }
+    if (stored.getModificationDate() == null || document.getModificationDate() == null) {
+      return stored.getModificationDate() == null && document.getModificationDate() == null;
+    }
+    return stored.getModificationDate().isEqual(document.getModificationDate());
+  }
+
+  @NonNull
+  private static String id(@NonNull CMTeaseableDocument document) {
+    return document.getLink().getId();
+  }
+
+  @Nullable
+  private static Instant modificationDate(@NonNull CMTeaseableDocument document) {
+    ZonedDateTime modificationDate = document.getModificationDate();
+    return modificationDate == null ? null : modificationDate.toInstant();
+  }
+
+  /**
+   * The sorted items of a sync or restore. Instances are immutable.
+   */
+  private static final class Listing {
+    private final List<Item> items;
+    private final long syncedAt;
+    private final boolean restored;
+
+    private Listing(List<Item> items, long syncedAt, boolean restored) {
+      this.items = items;
+      this.syncedAt = syncedAt;
+      this.restored = restored;
+    }
+
+    private boolean isFresh(long maxAgeMillis) {
+      return System.currentTimeMillis() - syncedAt <= maxAgeMillis;
+    }
+  }
+
+  private static class Page {
+    private final List<CMTeaseableDocument> documents = new ArrayList<>();
+    private int numFound;
+    private int received;
+  }
+}
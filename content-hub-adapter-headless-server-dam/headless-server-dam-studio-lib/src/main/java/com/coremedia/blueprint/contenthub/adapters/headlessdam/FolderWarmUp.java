@@ -0,0 +1,152 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.contenthub.api.Item;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads the first page of the folder listings in the background, so that the first editor opening a folder
+ * does not wait for a cold search. Listings are kept until they are older than the maximum age.
+ * <p>
+ * A listing keeps every page which has been read from it, so listings are only held softly and are dropped
+ * before the Studio server runs out of memory. A dropped listing is loaded again on the next access.
+ * <p>
+ * A run loads all folders in parallel on the executor. A run is skipped while the previous one is still in progress.
+ */
+class FolderWarmUp {
+  private static final Logger LOG = LoggerFactory.getLogger(FolderWarmUp.class);
+
+  /**
+   * Loads the listing of a folder.
+   */
+  @FunctionalInterface
+  interface ListingLoader {
+    @NonNull
+    List<Item> load(@NonNull String folderId);
+  }
+
+  private final String connectionId;
+  private final List<String> folderIds;
+  private final ListingLoader loader;
+  private final long maxAgeMillis;
+  private final Executor executor;
+
+  private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final LongAdder runs = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder collected = new LongAdder();
+  private volatile long runStart;
+  private volatile long lastRunMillis = -1;
+
+  FolderWarmUp(@NonNull String connectionId,
+               @NonNull List<String> folderIds,
+               @NonNull ListingLoader loader,
+               long maxAgeMillis,
+               @NonNull Executor executor) {
+    this.connectionId = connectionId;
+    this.folderIds = List.copyOf(folderIds);
+    this.loader = loader;
+    this.maxAgeMillis = maxAgeMillis;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts loading all folders in the background and returns immediately.
+   */
+  void run() {
+    if (!pending.compareAndSet(0, folderIds.size())) {
+      LOG.debug("Skipping warm-up of connection '{}', the previous one is still running", connectionId);
+      return;
+    }
+    runs.increment();
+    runStart = System.currentTimeMillis();
+    LOG.info("Warming up {} folders of connection '{}'", folderIds.size(), connectionId);
+    for (String folderId : folderIds) {
+      try {
+        executor.execute(() -> warmUp(folderId));
+      } catch (RejectedExecutionException e) {
+        LOG.warn("Skipped warm-up of folder '{}' of connection '{}': {}", folderId, connectionId, e.getMessage());
+        failures.increment();
+        finished();
+      }
+    }
+  }
+
+  /**
+   * Returns the loaded listing of the folder, unless it is older than the maximum age.
+   */
+  @Nullable
+  List<Item> get(@NonNull String folderId) {
+    Listing listing = listings.get(folderId);
+    if (listing == null || System.currentTimeMillis() - listing.loadedAt > maxAgeMillis) {
+      return null;
+    }
+    List<Item> items = listing.items.get();
+    if (items == null) {
+      collected.increment();
+      listings.remove(folderId, listing);
+    }
+    return items;
+  }
+
+  /**
+   * Keeps a listing which has been loaded on demand.
+   */
+  void put(@NonNull String folderId, @NonNull List<Item> items) {
+    listings.put(folderId, new Listing(items, System.currentTimeMillis()));
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[runs=" + runs.sum() +
+            ", failures=" + failures.sum() +
+            ", collected=" + collected.sum() +
+            ", running=" + (pending.get() > 0) +
+            ", lastRunMillis=" + lastRunMillis +
+            ", listings=" + listings.size() + "]";
+  }
+
+  private void warmUp(@NonNull String folderId) {
+    long start = System.currentTimeMillis();
+    try {
+      List<Item> items = loader.load(folderId);
+      put(folderId, items);
+      LOG.info("Warmed up folder '{}' of connection '{}' with {} items in {} ms",
+              folderId, connectionId, items.size(), System.currentTimeMillis() - start);
+    } catch (RuntimeException e) {
+      failures.increment();
+      LOG.warn("Failed to warm up folder '{}' of connection '{}': {}", folderId, connectionId, e.getMessage());
+    } finally {
+      finished();
+    }
+  }
+
+  private void finished() {
+    if (pending.decrementAndGet() == 0) {
+      lastRunMillis = System.currentTimeMillis() - runStart;
+      LOG.info("Warm-up of connection '{}' finished in {} ms", connectionId, lastRunMillis);
+    }
+  }
+
+  private static class Listing {
+    private final SoftReference<List<Item>> items;
+    private final long loadedAt;
+
+    private Listing(List<Item> items, long loadedAt) {
+      this.items = new SoftReference<>(items);
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam;
 
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnectorRegistry;
 import com.coremedia.contenthub.api.ContentHubAdapterFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,8 +8,13 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class HeadlessDAMConfiguration {
 
-  @Bean
-  public ContentHubAdapterFactory coreMediaContentHubAdapterFactory() {
-    return new HeadlessDAMContentHubAdapterFactory();
+  @Bean(destroyMethod = "close")
+  public HeadlessServerConnectorRegistry headlessServerConnectorRegistry() {
+    return new HeadlessServerConnectorRegistry();
+  }
+
+  @Bean(destroyMethod = "close")
+  public ContentHubAdapterFactory coreMediaContentHubAdapterFactory(HeadlessServerConnectorRegistry headlessServerConnectorRegistry) {
+    return new HeadlessDAMContentHubAdapterFactory(headlessServerConnectorRegistry);
   }
 }
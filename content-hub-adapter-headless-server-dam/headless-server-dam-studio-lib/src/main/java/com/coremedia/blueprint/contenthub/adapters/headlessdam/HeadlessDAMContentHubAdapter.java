@@ -1,8 +1,12 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam;
 
-import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMContentDocument;
 import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CountQuery;
 import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnector;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnectorRegistry;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchQuery;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchResultConsumer;
 import com.coremedia.contenthub.api.ContentHubAdapter;
 import com.coremedia.contenthub.api.ContentHubContext;
 import com.coremedia.contenthub.api.ContentHubObject;
@@ -15,26 +19,72 @@ import com.coremedia.contenthub.api.exception.ContentHubException;
 import com.coremedia.contenthub.api.search.ContentHubSearchResult;
 import com.coremedia.contenthub.api.search.ContentHubSearchService;
 import com.coremedia.contenthub.api.search.Sort;
+import com.coremedia.contenthub.api.search.SortDirection;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.lang.ref.Cleaner;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
 
-class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearchService {
+class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearchService, Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final Cleaner CLEANER = Cleaner.create();
+  private static final int PARTITION_CACHE_SIZE = 500;
+  private static final long PREFETCH_TIMEOUT = 10000;
+
+  /**
+   * The fields read by {@link HeadlessDAMItem}, all of them are part of a folder listing.
+   */
+  private static final Set<ContentField> ITEM_FIELDS = EnumSet.of(ContentField.NAME, ContentField.TITLE,
+          ContentField.TYPE, ContentField.LINK, ContentField.PICTURE);
+
+  /**
+   * The fields of the synchronized documents for the local search index.
+   */
+  private static final Set<ContentField> INDEXED_FIELDS = Collections.unmodifiableSet(
+          EnumSet.of(ContentField.TEASER_TEXT, ContentField.LISTING.toArray(new ContentField[0])));
+
+  private static final Map<String, String> FOLDER_DOC_TYPES = Map.of(
+          HeadlessDAMFolder.AUDIO_FOLDER, "CMAudio",
+          HeadlessDAMFolder.VIDEO_FOLDER, "CMVideo",
+          HeadlessDAMFolder.PICTURES_FOLDER, "CMPicture");
+
+  private static final Map<String, String> SORT_FIELDS = Map.of(
+          "name", "NAME",
+          "title", "TITLE",
+          "type", "DOC_TYPE",
+          "id", "ID",
+          "creationDate", "CREATION_DATE",
+          "modificationDate", "MODIFICATION_DATE");
 
   private ContentHubObjectId rootId;
   private String connectionId;
   private String headlessServerUrl;
   private String siteId;
+  private int pageSize;
 
   private HeadlessDAMFolder rootFolder;
   private HeadlessDAMFolder audioFolder;
@@ -42,24 +92,37 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
   private HeadlessDAMFolder picturesFolder;
 
   private HeadlessServerConnector headlessServerConnector;
+  private BatchingContentLoader contentLoader;
+  private DocumentStore documentStore;
+  private ImageCache imageCache;
+  private FolderWarmUp folderWarmUp;
+  private FolderCounts folderCounts;
+  private DatePartitions datePartitions;
+  private Map<String, FolderSnapshot> folderSnapshots;
+  private Set<ContentField> snapshotFields = ContentField.LISTING;
+  private LocalSearchIndex searchIndex;
+  private Executor executor;
+  private long listingMaxAge;
+  private int warmUpRefreshInterval;
+  private TaskScheduler scheduler;
+  private boolean prefetchThumbnails;
+  private Cleaner.Cleanable connectorRelease;
+  private Cleaner.Cleanable warmUpRefreshCancel;
+  private Cleaner.Cleanable imageCacheClear;
 
-  HeadlessDAMContentHubAdapter(@NonNull HeadlessDAMContentHubConfiguration settings, String connectionId) {
+  HeadlessDAMContentHubAdapter(@NonNull HeadlessDAMContentHubConfiguration configuration,
+                               String connectionId,
+                               @NonNull HeadlessServerConnectorRegistry connectorRegistry,
+                               @NonNull Executor executor,
+                               @NonNull TaskScheduler scheduler) {
     try {
+      ConnectionSettings settings = new ConnectionSettings(configuration, connectionId);
       this.connectionId = connectionId;
       this.headlessServerUrl = settings.getHeadlessServerUrl();
       this.siteId = settings.getSiteId();
-
-      if(headlessServerUrl == null) {
-        throw new IllegalArgumentException("No headlessServerUrl set for content hub adapter connection '" + connectionId + "'");
-      }
-
-      if(siteId == null) {
-        throw new IllegalArgumentException("No siteId set for content hub adapter connection '" + connectionId + "'");
-      }
-
-      if(!headlessServerUrl.endsWith("/")) {
-        headlessServerUrl = headlessServerUrl + "/";
-      }
+      this.pageSize = settings.getPageSize();
+      this.executor = executor;
+      listingMaxAge = settings.getItemCacheTimeToLive();
 
       rootId = new ContentHubObjectId(connectionId, HeadlessDAMFolder.ROOT_FOLDER);
       rootFolder = new HeadlessDAMFolder(headlessServerUrl, rootId, new ContentHubType("headlessdam"));
@@ -73,13 +136,132 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
       ContentHubObjectId picturesId = new ContentHubObjectId(connectionId, HeadlessDAMFolder.PICTURES_FOLDER);
       picturesFolder = new HeadlessDAMFolder("Pictures", picturesId, new ContentHubType("headlessdam"));
 
-      headlessServerConnector = new HeadlessServerConnector(headlessServerUrl);
+      HeadlessServerConnector sharedConnector = connectorRegistry.acquire(headlessServerUrl, settings.getTransportSettings());
+      // released by close(), or once this adapter is collected if it is never closed
+      connectorRelease = CLEANER.register(this, new ConnectorRelease(connectorRegistry, sharedConnector));
+      headlessServerConnector = sharedConnector.withPersistedQueries(settings.isPersistedQueries());
+
+      contentLoader = new BatchingContentLoader(headlessServerConnector, settings.getBatchSize(), settings.getBatchWindow());
+      documentStore = new DocumentStore(new ExpiringLruCache<>(settings.getItemCacheSize(), settings.getItemCacheTimeToLive(),
+              settings.isItemCacheStaleWhileRevalidate(), executor), contentLoader::load);
+      imageCache = imageCache(settings);
+      prefetchThumbnails = imageCache != null && settings.isPrefetchThumbnails();
+
+      folderCounts = new FolderCounts(new ArrayList<>(FOLDER_DOC_TYPES.values()),
+              docTypes -> headlessServerConnector.count(siteId, docTypes), settings.getItemCacheTimeToLive());
+      if (settings.getPartitionThreshold() > 0) {
+        datePartitions = new DatePartitions(settings.getPartitionDateField(), settings.getPartitionThreshold(),
+                new PartitionSearcher(), new ExpiringLruCache<>(PARTITION_CACHE_SIZE, settings.getItemCacheTimeToLive(), false, executor));
+      }
+      folderSnapshots = folderSnapshots(settings);
+
+      if (settings.isWarmUp()) {
+        folderWarmUp = new FolderWarmUp(connectionId, new ArrayList<>(FOLDER_DOC_TYPES.keySet()),
+                this::loadListing, settings.getItemCacheTimeToLive(), executor);
+        warmUpRefreshInterval = settings.getWarmUpRefreshInterval();
+        this.scheduler = scheduler;
+      }
     } catch (IllegalArgumentException e) {
+      if (imageCacheClear != null) {
+        imageCacheClear.clean();
+      }
+      if (connectorRelease != null) {
+        connectorRelease.clean();
+      }
       LOG.error("Failed to initialized adapter for Headless DAM: {}", e.getMessage());
       throw new ContentHubException("Failed to initialized content hub adapter for Headless DAM", e);
     }
   }
 
+  /**
+   * Creates the local image cache of the connection, which is cleared when this adapter is closed.
+   * A failure to create its directory disables the cache instead of the adapter.
+   */
+  @Nullable
+  private ImageCache imageCache(@NonNull ConnectionSettings settings) {
+    if (settings.getImageCacheSize() == 0) {
+      return null;
+    }
+    try {
+      ImageCache cache = ImageCache.forConnection(settings.getImageCacheDirectory(), connectionId,
+              settings.getImageCacheSize() * 1024L * 1024L, settings.getImageCacheTimeToLive(), headlessServerConnector);
+      // cleared by close(), or once this adapter is collected if it is never closed
+      imageCacheClear = CLEANER.register(this, cache::clear);
+      return cache;
+    } catch (IOException e) {
+      LOG.warn("Failed to create image cache directory in {}, images of connection '{}' are not cached: {}",
+              settings.getImageCacheDirectory(), connectionId, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Creates the synchronized snapshots of the type folders, if local search, snapshot persistence or delta sync
+   * is enabled.
+   */
+  @Nullable
+  private Map<String, FolderSnapshot> folderSnapshots(@NonNull ConnectionSettings settings) {
+    if (settings.isLocalSearch()) {
+      searchIndex = new LocalSearchIndex();
+      snapshotFields = INDEXED_FIELDS;
+    }
+    SnapshotFileStore snapshotFileStore = settings.getSnapshotDirectory() == null ? null :
+            new SnapshotFileStore(settings.getSnapshotDirectory(), headlessServerUrl, siteId, snapshotFields);
+    if (!settings.isLocalSearch() && snapshotFileStore == null && !settings.isDeltaSync()) {
+      return null;
+    }
+    Map<String, FolderSnapshot> snapshots = new HashMap<>();
+    for (Map.Entry<String, String> folder : FOLDER_DOC_TYPES.entrySet()) {
+      FolderSnapshot snapshot = folderSnapshot(folder.getValue());
+      if (searchIndex != null) {
+        snapshot.addListener(searchIndex);
+      }
+      if (snapshotFileStore != null) {
+        snapshot.setPersistence(snapshotFileStore.forFolder(folder.getValue()));
+      }
+      snapshots.put(folder.getKey(), snapshot);
+    }
+    return snapshots;
+  }
+
+  /**
+   * Starts loading the folder listings in the background, if warm-up is enabled, and schedules their refresh.
+   * Does not wait for the listings.
+   */
+  void startWarmUp() {
+    if (folderWarmUp == null) {
+      return;
+    }
+    folderWarmUp.run();
+    if (warmUpRefreshInterval > 0) {
+      ScheduledFuture<?> refresh = scheduler.scheduleWithFixedDelay(new WarmUpRefresh(this),
+              Instant.now().plusMillis(warmUpRefreshInterval), Duration.ofMillis(warmUpRefreshInterval));
+      warmUpRefreshCancel = CLEANER.register(this, () -> refresh.cancel(false));
+    }
+  }
+
+  /**
+   * Stops the warm-up refresh, deletes the cached images and releases the shared connector. Closing an adapter twice has no effect.
+   */
+  @Override
+  public void close() {
+    if (warmUpRefreshCancel != null) {
+      warmUpRefreshCancel.clean();
+    }
+    clearImageCache();
+    connectorRelease.clean();
+  }
+
+  /**
+   * Deletes the cached images and stops caching images, before the adapter replacing this one creates the image
+   * cache of the connection. Items which this adapter creates from then on link the remote URL of their pictures.
+   */
+  void clearImageCache() {
+    if (imageCacheClear != null) {
+      imageCacheClear.clean();
+    }
+  }
+
   @NonNull
   @Override
   public Folder getRootFolder(@NonNull ContentHubContext context) {
@@ -89,9 +271,12 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
   @Nullable
   @Override
   public Item getItem(@NonNull ContentHubContext context, @NonNull ContentHubObjectId id) {
-    String capId = id.getExternalId();
-    CMContentDocument content = headlessServerConnector.getContent(capId);
-    return new HeadlessDAMItem(content.getContent(), id, headlessServerUrl);
+    // the store belongs to this connection, so the external id is a sufficient key
+    CMTeaseableDocument content = documentStore.get(id.getExternalId(), ITEM_FIELDS);
+    if (content == null) {
+      return null;
+    }
+    return new HeadlessDAMItem(content, id, headlessServerUrl, imageCache);
   }
 
   @Nullable
@@ -102,14 +287,60 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
       case HeadlessDAMFolder.ROOT_FOLDER:
         return rootFolder;
       case HeadlessDAMFolder.AUDIO_FOLDER:
-        return audioFolder;
+        return labeled(audioFolder);
       case HeadlessDAMFolder.VIDEO_FOLDER:
-        return videoFolder;
+        return labeled(videoFolder);
       case HeadlessDAMFolder.PICTURES_FOLDER:
-        return picturesFolder;
+        return labeled(picturesFolder);
       default:
-        throw new UnsupportedOperationException("Invalid headless DAM id '" + externalId + "'");
+        return partitionFolder(partition(externalId), true);
+    }
+  }
+
+  /**
+   * Returns the date partition encoded in the external id.
+   *
+   * @throws UnsupportedOperationException if the id is no partition of a type folder
+   */
+  @NonNull
+  private DatePartitions.Partition partition(@NonNull String externalId) {
+    DatePartitions.Partition partition = datePartitions == null ? null : DatePartitions.parse(externalId);
+    if (partition == null || !FOLDER_DOC_TYPES.containsKey(partition.getFolderId())) {
+      throw new UnsupportedOperationException("Invalid headless DAM id '" + externalId + "'");
+    }
+    return partition;
+  }
+
+  /**
+   * Returns the folder of the partition, labeled with its number of items if it has been counted.
+   */
+  @NonNull
+  private Folder partitionFolder(@NonNull DatePartitions.Partition partition, boolean lookUpCount) {
+    DatePartitions.Partition counted = lookUpCount ? datePartitions.getIfPresent(partition) : partition;
+    HeadlessDAMFolder folder = new HeadlessDAMFolder(partition.getName(),
+            new ContentHubObjectId(connectionId, partition.getExternalId()), new ContentHubType("headlessdam"));
+    return counted == null ? folder : folder.withItemCount(counted.getCount());
+  }
+
+  /**
+   * Returns whether the type folder is split into date partitions, because it has too many items.
+   */
+  private boolean isPartitioned(@NonNull String folderId) {
+    if (datePartitions == null) {
+      return false;
     }
+    Map<String, Integer> counts = folderCounts.get();
+    Integer count = counts == null ? null : counts.get(FOLDER_DOC_TYPES.get(folderId));
+    return count != null && datePartitions.isPartitioned(count);
+  }
+
+  /**
+   * Returns the folder with its recently counted number of items, without counting them again.
+   */
+  @NonNull
+  private Folder labeled(@NonNull HeadlessDAMFolder folder) {
+    Integer count = folderCounts.getIfPresent(FOLDER_DOC_TYPES.get(folder.getId().getExternalId()));
+    return count == null ? folder : folder.withItemCount(count);
   }
 
   @NonNull
@@ -121,26 +352,83 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
       case HeadlessDAMFolder.ROOT_FOLDER:
         return Collections.emptyList();
       case HeadlessDAMFolder.AUDIO_FOLDER:
-        CMContentDocument cmAudio = headlessServerConnector.search(siteId, "CMAudio");
-        return toItems(cmAudio.getSearch().getResult());
       case HeadlessDAMFolder.VIDEO_FOLDER:
-        CMContentDocument cmVideo = headlessServerConnector.search(siteId, "CMVideo");
-        return toItems(cmVideo.getSearch().getResult());
       case HeadlessDAMFolder.PICTURES_FOLDER:
-        CMContentDocument cmPicture = headlessServerConnector.search(siteId, "CMPicture");
-        return toItems(cmPicture.getSearch().getResult());
+        // the dated items of a partitioned folder are listed in its partitions, the others in the folder itself
+        return isPartitioned(externalId) ? remainderListing(externalId) : listing(externalId);
       default:
-        throw new UnsupportedOperationException("Invalid headless DAM id '" + externalId + "'");
+        return partitionListing(partition(externalId));
     }
   }
 
+  /**
+   * Returns the items of a partitioned type folder which are in none of its partitions, because they have
+   * no creation date or are older than the partitioned years.
+   */
+  @NonNull
+  private List<Item> remainderListing(@NonNull String folderId) {
+    String docType = FOLDER_DOC_TYPES.get(folderId);
+    String remainderQuery = datePartitions.remainderQuery(folderId, docType);
+    List<String> filterQueries = remainderQuery == null ? List.of() : List.of(remainderQuery);
+    PagedItemList.PageLoader pageLoader = (offset, limit, consumer) ->
+            headlessServerConnector.search(new SearchQuery(siteId, SearchQuery.MATCH_ALL, List.of(docType), filterQueries,
+                    List.of(SearchQuery.MODIFICATION_DATE_ASC), offset, limit, ContentField.LISTING), consumer);
+    return new PagedItemList(pageLoader, this::toItem, pageSize);
+  }
+
+  /**
+   * Returns the items created within the partition, or no items if the partition is split into months.
+   */
+  @NonNull
+  private List<Item> partitionListing(@NonNull DatePartitions.Partition partition) {
+    String docType = FOLDER_DOC_TYPES.get(partition.getFolderId());
+    DatePartitions.Partition counted = datePartitions.counted(partition, docType);
+    if (counted == null || (!counted.isMonth() && datePartitions.isPartitioned(counted.getCount()))) {
+      return Collections.emptyList();
+    }
+    List<String> filterQueries = List.of(datePartitions.filterQuery(counted));
+    PagedItemList.PageLoader pageLoader = (offset, limit, consumer) ->
+            headlessServerConnector.search(new SearchQuery(siteId, SearchQuery.MATCH_ALL, List.of(docType), filterQueries,
+                    List.of(SearchQuery.CREATION_DATE_DESC), offset, limit, ContentField.LISTING), consumer);
+    return new PagedItemList(pageLoader, this::toItem, pageSize);
+  }
+
+  /**
+   * Returns the type folders below the root folder, labeled with their number of items. Counting all types
+   * takes one request which returns no documents, empty types are hidden. If they cannot be counted,
+   * all type folders are returned without a count.
+   */
   @NonNull
   @Override
   public List<Folder> getSubFolders(@NonNull ContentHubContext context, @NonNull Folder folder) {
     List<Folder> result = new ArrayList<>();
     String externalId = folder.getId().getExternalId();
     if (externalId.equals(HeadlessDAMFolder.ROOT_FOLDER)) {
-      return Arrays.asList(audioFolder, videoFolder, picturesFolder);
+      Map<String, Integer> counts = folderCounts.get();
+      if (counts == null) {
+        return Arrays.asList(audioFolder, videoFolder, picturesFolder);
+      }
+      for (HeadlessDAMFolder typeFolder : List.of(audioFolder, videoFolder, picturesFolder)) {
+        int count = counts.get(FOLDER_DOC_TYPES.get(typeFolder.getId().getExternalId()));
+        if (count > 0) {
+          result.add(typeFolder.withItemCount(count));
+        }
+      }
+    } else if (FOLDER_DOC_TYPES.containsKey(externalId)) {
+      if (isPartitioned(externalId)) {
+        for (DatePartitions.Partition year : datePartitions.years(externalId, FOLDER_DOC_TYPES.get(externalId))) {
+          result.add(partitionFolder(year, false));
+        }
+      }
+    } else {
+      DatePartitions.Partition partition = partition(externalId);
+      String docType = FOLDER_DOC_TYPES.get(partition.getFolderId());
+      DatePartitions.Partition year = partition.isMonth() ? null : datePartitions.counted(partition, docType);
+      if (year != null && datePartitions.isPartitioned(year.getCount())) {
+        for (DatePartitions.Partition month : datePartitions.months(year, docType)) {
+          result.add(partitionFolder(month, false));
+        }
+      }
     }
     return result;
   }
@@ -152,6 +440,14 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
     if (externalId.equals(HeadlessDAMFolder.ROOT_FOLDER)) {
       return null;
     }
+    // the hierarchy of the partitions is encoded in their ids
+    DatePartitions.Partition partition = datePartitions == null || !(contentHubObject instanceof Folder)
+            ? null : DatePartitions.parse(externalId);
+    if (partition != null && FOLDER_DOC_TYPES.containsKey(partition.getFolderId())) {
+      return partition.isMonth()
+              ? partitionFolder(partition.getYear(), true)
+              : getFolder(context, new ContentHubObjectId(connectionId, partition.getFolderId()));
+    }
 
     return rootFolder;
   }
@@ -170,7 +466,7 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
 
   @Override
   public Collection<ContentHubType> supportedTypes() {
-    return Collections.emptyList();
+    return FOLDER_DOC_TYPES.values().stream().map(ContentHubType::new).collect(Collectors.toList());
   }
 
   @Override
@@ -180,21 +476,371 @@ class HeadlessDAMContentHubAdapter implements ContentHubAdapter, ContentHubSearc
                                        Collection<String> filterQueries,
                                        List<Sort> sortBy,
                                        int limit) {
-    return new ContentHubSearchResult(Collections.emptyList());
+    String belowFolderId = belowFolder == null ? null : belowFolder.getId().getExternalId();
+    DatePartitions.Partition partition = belowFolderId == null || datePartitions == null ? null : DatePartitions.parse(belowFolderId);
+    if (partition != null) {
+      // a search below a partition is a search below its type folder, restricted to its date range
+      belowFolderId = partition.getFolderId();
+      filterQueries = new ArrayList<>(filterQueries == null ? List.of() : filterQueries);
+      filterQueries.add(datePartitions.filterQuery(partition));
+    }
+    List<String> docTypes = searchDocTypes(belowFolderId, type);
+    if (docTypes.isEmpty()) {
+      return new ContentHubSearchResult(Collections.emptyList());
+    }
+
+    List<String> sortFields = sortFields(sortBy);
+    int maxHits = limit > 0 ? limit : pageSize;
+    if (searchIndex != null && (filterQueries == null || filterQueries.isEmpty())) {
+      List<Item> localHits = localSearch(query == null ? SearchQuery.MATCH_ALL : query, docTypes, sortFields, maxHits);
+      if (localHits != null) {
+        prefetchThumbnails(localHits);
+        return new ContentHubSearchResult(localHits);
+      }
+    }
+
+    SearchQuery searchQuery = new SearchQuery(siteId,
+            searchText(query),
+            docTypes,
+            filterQueries(filterQueries),
+            sortFields,
+            0,
+            maxHits,
+            ContentField.LISTING);
+    List<Item> hits = new ArrayList<>();
+    headlessServerConnector.search(searchQuery, new SearchResultConsumer() {
+      @Override
+      public void numFound(int numFound) {
+        LOG.debug("Search for '{}' found {} assets", query, numFound);
+      }
+
+      @Override
+      public void accept(@NonNull CMTeaseableDocument document) {
+        hits.add(toItem(document));
+      }
+    });
+    prefetchThumbnails(hits);
+    return new ContentHubSearchResult(hits);
+  }
+
+  /**
+   * Downloads the thumbnails of the hits into the image cache in parallel, so that they are cached when
+   * Studio requests them. Does not wait for the downloads, and stops once the connector's limit of background
+   * work is reached, so that prefetches never crowd out interactive requests. Prefetches which have not finished
+   * within {@link #PREFETCH_TIMEOUT} are cancelled.
+   */
+  private void prefetchThumbnails(@NonNull List<Item> hits) {
+    if (!prefetchThumbnails) {
+      return;
+    }
+    for (Item hit : hits) {
+      CompletableFuture<?> prefetch = headlessServerConnector.supplyInBackground(
+              () -> hit.getBlob(ImageBox.THUMBNAIL.getClassifier()), PREFETCH_TIMEOUT);
+      if (prefetch.isCompletedExceptionally()) {
+        LOG.debug("Stopped prefetching thumbnails, the connector of connection '{}' is busy", connectionId);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Answers the search from the local index if the snapshots of the searched types are fresh.
+   * Stale snapshots are synchronized in the background. Neither waits for a running sync.
+   *
+   * @return null if the headless server must be asked, because of stale snapshots, unsupported syntax or no hits
+   */
+  @Nullable
+  private List<Item> localSearch(@NonNull String query, @NonNull List<String> docTypes, @NonNull List<String> sortFields, int limit) {
+    boolean fresh = true;
+    for (Map.Entry<String, String> folder : FOLDER_DOC_TYPES.entrySet()) {
+      FolderSnapshot snapshot = folderSnapshots.get(folder.getKey());
+      if (docTypes.contains(folder.getValue()) && !snapshot.isFresh(listingMaxAge)) {
+        fresh = false;
+        snapshot.syncInBackground();
+      }
+    }
+    if (!fresh) {
+      return null;
+    }
+
+    List<CMTeaseableDocument> documents = searchIndex.search(query, docTypes, sortFields, limit);
+    if (documents == null || documents.isEmpty()) {
+      return null;
+    }
+    LOG.debug("Search for '{}' found {} assets in the local index", query, documents.size());
+    return documents.stream().map(this::toItem).collect(Collectors.toList());
   }
 
   @Override
   public boolean supportsSearchBelowFolder() {
-    return false;
+    return true;
   }
 
-  private List<Item> toItems(List<CMTeaseableDocument> items) {
-    List<Item> result = new ArrayList<>();
-    for (CMTeaseableDocument item : items) {
-      ContentHubObjectId id = new ContentHubObjectId(connectionId, item.getLink().getId());
-      HeadlessDAMItem headlessDAMItem = new HeadlessDAMItem(item, id, headlessServerUrl);
-      result.add(headlessDAMItem);
+  /**
+   * Returns the doc types to search for, the intersection of the folder's and the requested type.
+   */
+  @NonNull
+  private static List<String> searchDocTypes(@Nullable String belowFolderId, @Nullable ContentHubType type) {
+    List<String> docTypes = new ArrayList<>(FOLDER_DOC_TYPES.values());
+    if (belowFolderId != null) {
+      String folderDocType = FOLDER_DOC_TYPES.get(belowFolderId);
+      if (folderDocType != null) {
+        docTypes.retainAll(List.of(folderDocType));
+      }
+    }
+    if (type != null) {
+      docTypes.retainAll(List.of(type.getName()));
+    }
+    return docTypes;
+  }
+
+  /**
+   * Returns the query text for the text entered by the user, whose search syntax is escaped.
+   */
+  @NonNull
+  private static String searchText(@Nullable String query) {
+    String text = query == null ? "" : SearchQuery.escape(query);
+    return text.isEmpty() ? SearchQuery.MATCH_ALL : text;
+  }
+
+  /**
+   * Returns the content hub filter queries, which are passed to the headless search in an argument of their own.
+   */
+  @NonNull
+  private static List<String> filterQueries(@Nullable Collection<String> filterQueries) {
+    if (filterQueries == null) {
+      return List.of();
+    }
+    return filterQueries.stream().filter(filterQuery -> filterQuery != null && !filterQuery.isBlank()).collect(Collectors.toList());
+  }
+
+  /**
+   * Maps the content hub sort criteria to the headless server's <code>SortFieldWithOrder</code> values.
+   */
+  @NonNull
+  private static List<String> sortFields(@Nullable List<Sort> sortBy) {
+    List<String> sortFields = new ArrayList<>();
+    if (sortBy != null) {
+      for (Sort sort : sortBy) {
+        String field = SORT_FIELDS.get(sort.getField());
+        if (field == null) {
+          LOG.debug("Ignoring unsupported sort field '{}'", sort.getField());
+          continue;
+        }
+        sortFields.add(field + (sort.getDirection() == SortDirection.DESCENDING ? "_DESC" : "_ASC"));
+      }
+    }
+    if (sortFields.isEmpty()) {
+      // latest changes first, as in the Studio library
+      sortFields.add(SearchQuery.MODIFICATION_DATE_DESC);
+    }
+    return sortFields;
+  }
+
+  /**
+   * Returns the hit, miss and eviction counters of the item cache.
+   */
+  @NonNull
+  String getItemCacheStatistics() {
+    return documentStore.getCache().toString();
+  }
+
+  /**
+   * Returns the runs and timings of the folder warm-up.
+   */
+  @NonNull
+  String getWarmUpStatistics() {
+    return folderWarmUp == null ? "disabled" : folderWarmUp.toString();
+  }
+
+  /**
+   * Returns the sizes, high-water marks and transfer counters of the folder snapshots.
+   */
+  @NonNull
+  String getFolderSnapshotStatistics() {
+    return folderSnapshots == null ? "disabled" : folderSnapshots.values().toString();
+  }
+
+  /**
+   * Returns the size and query latencies of the local search index.
+   */
+  @NonNull
+  String getSearchIndexStatistics() {
+    return searchIndex == null ? "disabled" : searchIndex.toString();
+  }
+
+  /**
+   * Returns the counts of the type folders and the number of count requests.
+   */
+  @NonNull
+  String getFolderCountStatistics() {
+    return folderCounts.toString();
+  }
+
+  /**
+   * Returns the threshold and the cached counts of the date partitions.
+   */
+  @NonNull
+  String getDatePartitionStatistics() {
+    return datePartitions == null ? "disabled" : datePartitions.toString();
+  }
+
+  /**
+   * Returns the compression counters, bytes on the wire and decode times of the connector's responses.
+   */
+  @NonNull
+  String getTransferStatistics() {
+    return headlessServerConnector.getTransferStatistics();
+  }
+
+  /**
+   * Returns the state of the circuit breakers and concurrency limits, and the number of cached fallback responses.
+   */
+  @NonNull
+  String getProtectionStatistics() {
+    return headlessServerConnector.getProtectionStatistics();
+  }
+
+  /**
+   * Returns the hit, miss and eviction counters of the image cache.
+   */
+  @NonNull
+  String getImageCacheStatistics() {
+    return imageCache == null ? "disabled" : imageCache.toString();
+  }
+
+  /**
+   * Returns the synchronized snapshot of the folder with delta sync, or its paged listing while the snapshot
+   * is loaded for the first time, otherwise the warmed up listing
+   * of the folder if there is a fresh one. A folder which has recently been counted as empty is not requested at all.
+   */
+  @NonNull
+  private List<Item> listing(@NonNull String folderId) {
+    Integer count = folderCounts.getIfPresent(FOLDER_DOC_TYPES.get(folderId));
+    if (count != null && count == 0) {
+      return Collections.emptyList();
+    }
+    if (folderSnapshots != null) {
+      List<Item> items = folderSnapshots.get(folderId).getItems(listingMaxAge);
+      // the folder is paged until the first sync of its snapshot has finished
+      return items != null ? items : pagedItems(FOLDER_DOC_TYPES.get(folderId));
+    }
+    if (folderWarmUp == null) {
+      return pagedItems(FOLDER_DOC_TYPES.get(folderId));
+    }
+    List<Item> items = folderWarmUp.get(folderId);
+    if (items == null) {
+      items = pagedItems(FOLDER_DOC_TYPES.get(folderId));
+      folderWarmUp.put(folderId, items);
+    }
+    return items;
+  }
+
+  /**
+   * Loads the listing of the folder for the warm-up, a snapshot is restored or synchronized.
+   */
+  @NonNull
+  private List<Item> loadListing(@NonNull String folderId) {
+    if (folderSnapshots != null) {
+      return folderSnapshots.get(folderId).loadItems(listingMaxAge);
+    }
+    return pagedItems(FOLDER_DOC_TYPES.get(folderId));
+  }
+
+  @NonNull
+  private FolderSnapshot folderSnapshot(@NonNull String contentType) {
+    return new FolderSnapshot(contentType, (sortField, fields, offset, limit, consumer) ->
+            headlessServerConnector.search(new SearchQuery(siteId, SearchQuery.MATCH_ALL, List.of(contentType),
+                    List.of(sortField), offset, limit, fields), consumer),
+            snapshotFields, this::toItem, pageSize, executor);
+  }
+
+  /**
+   * Returns the paged listing of the type, which fetches its first page right away.
+   */
+  @NonNull
+  private PagedItemList pagedItems(@NonNull String contentType) {
+    PagedItemList.PageLoader pageLoader = (offset, limit, consumer) ->
+            headlessServerConnector.search(new SearchQuery(siteId, contentType, offset, limit), consumer);
+    return new PagedItemList(pageLoader, this::toItem, pageSize);
+  }
+
+  /**
+   * Creates the item for a listed document and keeps the document for later {@link #getItem} calls.
+   */
+  @NonNull
+  private Item toItem(@NonNull CMTeaseableDocument item) {
+    documentStore.seed(item.getLink().getId(), item, ContentField.LISTING);
+    ContentHubObjectId id = new ContentHubObjectId(connectionId, item.getLink().getId());
+    return new HeadlessDAMItem(item, id, headlessServerUrl, imageCache);
+  }
+
+  /**
+   * Finds the date range of a type and counts its partitions.
+   */
+  private class PartitionSearcher implements DatePartitions.Searcher {
+    @Nullable
+    @Override
+    public ZonedDateTime firstCreationDate(@NonNull String docType, @NonNull String filterQuery, @NonNull String sortField) {
+      List<ZonedDateTime> dates = new ArrayList<>();
+      headlessServerConnector.search(new SearchQuery(siteId, SearchQuery.MATCH_ALL, List.of(docType), List.of(filterQuery),
+              List.of(sortField), 0, 1, EnumSet.of(ContentField.CREATION_DATE)), new SearchResultConsumer() {
+        @Override
+        public void numFound(int numFound) {
+        }
+
+        @Override
+        public void accept(@NonNull CMTeaseableDocument document) {
+          if (document.getCreationDate() != null) {
+            dates.add(document.getCreationDate());
+          }
+        }
+      });
+      return dates.isEmpty() ? null : dates.get(0);
+    }
+
+    @NonNull
+    @Override
+    public List<Integer> count(@NonNull String docType, @NonNull List<String> filterQueries) {
+      // the same query text as the listing of the partition
+      List<String> queries = filterQueries.stream()
+              .map(filterQuery -> SearchQuery.queryText(SearchQuery.MATCH_ALL, List.of(filterQuery)))
+              .collect(Collectors.toList());
+      return headlessServerConnector.count(new CountQuery(siteId, Collections.nCopies(queries.size(), docType), queries));
+    }
+  }
+
+  /**
+   * Refreshes the warm-up listings without keeping the adapter from being collected.
+   */
+  private static class WarmUpRefresh implements Runnable {
+    private final WeakReference<HeadlessDAMContentHubAdapter> adapter;
+
+    private WarmUpRefresh(HeadlessDAMContentHubAdapter adapter) {
+      this.adapter = new WeakReference<>(adapter);
+    }
+
+    @Override
+    public void run() {
+      HeadlessDAMContentHubAdapter target = adapter.get();
+      if (target != null) {
+        target.folderWarmUp.run();
+      }
+    }
+  }
+
+  private static class ConnectorRelease implements Runnable {
+    private final HeadlessServerConnectorRegistry connectorRegistry;
+    private final HeadlessServerConnector connector;
+
+    private ConnectorRelease(HeadlessServerConnectorRegistry connectorRegistry, HeadlessServerConnector connector) {
+      this.connectorRegistry = connectorRegistry;
+      this.connector = connector;
+    }
+
+    @Override
+    public void run() {
+      connectorRegistry.release(connector);
     }
-    return result;
   }
 }
@@ -1,15 +1,47 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam;
 
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnectorRegistry;
 import com.coremedia.contenthub.api.ContentHubAdapter;
 import com.coremedia.contenthub.api.ContentHubAdapterFactory;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- *
+ * Creates the adapters of the headless DAM connections. An adapter is closed when the adapter of its connection
+ * is created again, e.g. after its settings have changed, and when this factory is closed.
+ * <p>
+ * The executor for background work of all adapters, like cache refreshes, and the scheduler for periodic work,
+ * like warm-up refreshes, belong to this factory. They are not beans, so that they neither replace the
+ * application's task executor and scheduler nor are used by other components. The scheduled tasks only hand
+ * their work over to the executor.
  */
-class HeadlessDAMContentHubAdapterFactory implements ContentHubAdapterFactory<HeadlessDAMContentHubConfiguration> {
+class HeadlessDAMContentHubAdapterFactory implements ContentHubAdapterFactory<HeadlessDAMContentHubConfiguration>, Closeable {
+
+  private final HeadlessServerConnectorRegistry connectorRegistry;
+  private final ThreadPoolTaskExecutor executor;
+  private final ThreadPoolTaskScheduler scheduler;
+  private final Map<String, HeadlessDAMContentHubAdapter> adapters = new ConcurrentHashMap<>();
 
-  HeadlessDAMContentHubAdapterFactory() {
+  HeadlessDAMContentHubAdapterFactory(@NonNull HeadlessServerConnectorRegistry connectorRegistry) {
+    this.connectorRegistry = connectorRegistry;
+    executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(4);
+    executor.setMaxPoolSize(4);
+    executor.setQueueCapacity(200);
+    executor.setDaemon(true);
+    executor.setThreadNamePrefix("headless-dam-");
+    executor.initialize();
+    scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setDaemon(true);
+    scheduler.setThreadNamePrefix("headless-dam-scheduler-");
+    scheduler.initialize();
   }
 
   @Override
@@ -22,6 +54,33 @@ class HeadlessDAMContentHubAdapterFactory implements ContentHubAdapterFactory<He
   @NonNull
   public ContentHubAdapter createAdapter(@NonNull HeadlessDAMContentHubConfiguration settings,
                                          @NonNull String connectionId) {
-    return new HeadlessDAMContentHubAdapter(settings, connectionId);
+    HeadlessDAMContentHubAdapter replaced = adapters.get(connectionId);
+    if (replaced != null) {
+      // the new image cache purges the image cache directory of the connection
+      replaced.clearImageCache();
+    }
+    HeadlessDAMContentHubAdapter adapter = new HeadlessDAMContentHubAdapter(settings, connectionId, connectorRegistry, executor, scheduler);
+    adapter.startWarmUp();
+    // the new adapter holds its connector already, so an unchanged connector is not closed in between
+    HeadlessDAMContentHubAdapter previous = adapters.put(connectionId, adapter);
+    if (previous != null) {
+      previous.close();
+    }
+    return adapter;
+  }
+
+  /**
+   * Closes all adapters created by this factory and shuts down its executor and scheduler.
+   */
+  @Override
+  public void close() {
+    for (String connectionId : new ArrayList<>(adapters.keySet())) {
+      HeadlessDAMContentHubAdapter adapter = adapters.remove(connectionId);
+      if (adapter != null) {
+        adapter.close();
+      }
+    }
+    scheduler.shutdown();
+    executor.shutdown();
   }
 }
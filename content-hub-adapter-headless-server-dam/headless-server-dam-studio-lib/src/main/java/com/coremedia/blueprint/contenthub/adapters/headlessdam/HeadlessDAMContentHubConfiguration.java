@@ -6,4 +6,162 @@ package com.coremedia.blueprint.contenthub.adapters.headlessdam;
 interface HeadlessDAMContentHubConfiguration {
   String getHeadlessServerUrl();
   String getSiteId();
+
+  /**
+   * The number of items requested per folder page, defaults to 100.
+   */
+  Integer getPageSize();
+
+  /**
+   * The maximum number of cached item documents, defaults to 1000.
+   */
+  Integer getItemCacheSize();
+
+  /**
+   * The time in milliseconds after which cached item documents expire, defaults to 60000.
+   */
+  Integer getItemCacheTimeToLive();
+
+  /**
+   * Whether expired item documents are served while they are refreshed in the background, defaults to false.
+   */
+  Boolean getItemCacheStaleWhileRevalidate();
+
+  /**
+   * The maximum number of contents fetched with one request, defaults to 50.
+   */
+  Integer getBatchSize();
+
+  /**
+   * The time in milliseconds in which item requests are collected into one batch, defaults to 5, 0 disables batching.
+   */
+  Integer getBatchWindow();
+
+  /**
+   * Whether queries are sent as automatic persisted queries, i.e. as cacheable GET requests, defaults to false.
+   */
+  Boolean getPersistedQueries();
+
+  /**
+   * Whether the folder listings are kept locally and refreshed with the changes since the last refresh only,
+   * defaults to false.
+   */
+  Boolean getDeltaSync();
+
+  /**
+   * Whether searches are answered from an index of the synchronized folders, implies delta sync, defaults to false.
+   */
+  Boolean getLocalSearch();
+
+  /**
+   * The directory in which the folder snapshots are saved to be restored after a restart, implies delta sync.
+   * Not set by default, which disables saving.
+   */
+  String getSnapshotDirectory();
+
+  /**
+   * Whether the folder listings are loaded in the background when the adapter is created, defaults to false.
+   */
+  Boolean getWarmUp();
+
+  /**
+   * The time in milliseconds between reloads of the warmed up folder listings, defaults to 0, which disables reloading.
+   */
+  Integer getWarmUpRefreshInterval();
+
+  /**
+   * The maximum size in megabytes of the local image cache, defaults to 0, which disables it.
+   */
+  Integer getImageCacheSize();
+
+  /**
+   * The directory in which the image cache creates the directory of the connection, defaults to the temporary directory.
+   */
+  String getImageCacheDirectory();
+
+  /**
+   * The time in milliseconds after which cached images are revalidated, defaults to 3600000.
+   */
+  Integer getImageCacheTimeToLive();
+
+  /**
+   * Either "pooled" (default) or "simple".
+   */
+  String getTransport();
+  Integer getConnectTimeout();
+  Integer getReadTimeout();
+  Integer getConnectionRequestTimeout();
+  Integer getMaxConnections();
+  Integer getMaxConnectionsPerRoute();
+  Integer getIdleConnectionTimeout();
+  Integer getCoalescingTimeout();
+
+  /**
+   * The number of query responses kept for revalidation with conditional requests, 0 disables them (default: 100).
+   */
+  Integer getConditionalRequestCacheSize();
+
+  /**
+   * Whether gzip or deflate encoded responses are accepted, defaults to true.
+   */
+  Boolean getCompression();
+
+  /**
+   * The size in bytes from which request bodies are sent gzip encoded, defaults to 0 (disabled).
+   */
+  Integer getRequestCompressionThreshold();
+
+  /**
+   * The number of threads performing asynchronous requests of the connector, defaults to 8.
+   */
+  Integer getAsyncThreads();
+
+  /**
+   * The number of asynchronous requests which may wait for a thread, defaults to 200.
+   */
+  Integer getAsyncQueueCapacity();
+
+  /**
+   * The number of consecutive failed requests to the headless server which open the circuit breaker,
+   * defaults to 5, 0 disables the circuit breaker.
+   */
+  Integer getCircuitBreakerFailureThreshold();
+
+  /**
+   * The time in milliseconds an open circuit breaker rejects requests before it lets a probe request through,
+   * defaults to 30000.
+   */
+  Integer getCircuitBreakerOpenDuration();
+
+  /**
+   * The maximum number of concurrent requests to the GraphQL endpoint, and to the binaries, defaults to 20,
+   * 0 disables the limit.
+   */
+  Integer getMaxConcurrentRequests();
+
+  /**
+   * The latency in milliseconds from which a request lowers the concurrency limit, defaults to 5000.
+   */
+  Integer getConcurrencyLatencyThreshold();
+
+  /**
+   * The time in milliseconds a request waits for a slot of the concurrency limit, defaults to 1000.
+   */
+  Integer getConcurrencyWaitTimeout();
+
+  /**
+   * Whether the thumbnails of search hits are downloaded into the image cache in the background, defaults to false.
+   */
+  Boolean getPrefetchThumbnails();
+
+  /**
+   * The number of items from which a type folder is split into year subfolders, and a year into month
+   * subfolders, defaults to 0, which disables the split.
+   */
+  Integer getPartitionThreshold();
+
+  /**
+   * The search index field of the creation date used for the year and month subfolders, defaults to "creationdate".
+   */
+  String getPartitionDateField();
 }
@@ -13,10 +13,30 @@ class HeadlessDAMFolder extends HeadlessDAMContentHubObject implements Folder {
   public static final String PICTURES_FOLDER = "pictures";
 
   private final ContentHubType type;
+  private final Integer itemCount;
 
   HeadlessDAMFolder(String name, ContentHubObjectId id, @Nullable ContentHubType type) {
+    this(name, id, type, null);
+  }
+
+  private HeadlessDAMFolder(String name, ContentHubObjectId id, @Nullable ContentHubType type, @Nullable Integer itemCount) {
     super(name, id);
     this.type = type;
+    this.itemCount = itemCount;
+  }
+
+  /**
+   * Returns a copy of this folder whose display name shows the number of items.
+   */
+  @NonNull
+  HeadlessDAMFolder withItemCount(int itemCount) {
+    return new HeadlessDAMFolder(getName(), getId(), type, itemCount);
+  }
+
+  @NonNull
+  @Override
+  public String getDisplayName() {
+    return itemCount == null ? super.getDisplayName() : super.getDisplayName() + " (" + itemCount + ")";
   }
 
   @NonNull
@@ -2,7 +2,9 @@ package com.coremedia.blueprint.contenthub.adapters.headlessdam;
 
 
 import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.PictureDocument;
 import com.coremedia.contenthub.api.ContentHubBlob;
+import com.coremedia.contenthub.api.ContentHubDefaultBlob;
 import com.coremedia.contenthub.api.ContentHubObjectId;
 import com.coremedia.contenthub.api.ContentHubType;
 import com.coremedia.contenthub.api.Item;
@@ -11,19 +13,37 @@ import com.coremedia.contenthub.api.preview.DetailsElement;
 import com.coremedia.contenthub.api.preview.DetailsSection;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.activation.MimeType;
+import javax.activation.MimeTypeParseException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 class HeadlessDAMItem extends HeadlessDAMContentHubObject implements Item {
+  private static final Logger LOG = LoggerFactory.getLogger(HeadlessDAMItem.class);
+  private static final String NO_IMAGE = "";
+  private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+  private static final String PREVIEW_CONTENT_TYPE = "image/*";
+
   private CMTeaseableDocument content;
   private String headlessServerUrl;
+  private ImageCache imageCache;
+
+  private final Map<ImageBox, String> imageUrls = new ConcurrentHashMap<>();
+  private volatile List<DetailsSection> details;
+  private final Map<String, ContentHubBlob> blobs = new ConcurrentHashMap<>();
 
-  HeadlessDAMItem(CMTeaseableDocument content, ContentHubObjectId id, String headlessServerUrl) {
+  HeadlessDAMItem(CMTeaseableDocument content, ContentHubObjectId id, String headlessServerUrl, @Nullable ImageCache imageCache) {
     super(content.getName(), id);
     this.content = content;
     this.headlessServerUrl = headlessServerUrl;
+    this.imageCache = imageCache;
   }
 
   @Nullable
@@ -44,14 +64,24 @@ class HeadlessDAMItem extends HeadlessDAMContentHubObject implements Item {
     return content.getType();
   }
 
+  /**
+   * The details are built once, on first access. They do not download the preview picture, which is
+   * resolved when the preview blob is opened.
+   */
   @NonNull
   @Override
   public List<DetailsSection> getDetails() {
-    if (content.getType().equals("CMPicture")){
-      return pictureDetails();
+    List<DetailsSection> result = details;
+    if (result == null) {
+      synchronized (this) {
+        result = details;
+        if (result == null) {
+          result = getImageUrl(ImageBox.PREVIEW) != null ? pictureDetails() : contentDetails();
+          details = result;
+        }
+      }
     }
-
-    return contentDetails();
+    return result;
   }
 
   private List<DetailsSection> contentDetails() {
@@ -60,24 +90,100 @@ class HeadlessDAMItem extends HeadlessDAMContentHubObject implements Item {
   }
 
   private List<DetailsSection> pictureDetails() {
-    String pictureUrl = content.getPicture().getDefaultImageUrl(headlessServerUrl);
-    ContentHubBlob picture = new UrlBlobBuilder(this, "preview").withUrl(pictureUrl).withEtag().build();
+    ContentHubBlob picture = previewBlob(Objects.requireNonNull(getImageUrl(ImageBox.PREVIEW)));
     List<DetailsElement<?>> elements = List.of(new DetailsElement<>(content.getName(), false, picture));
     return List.of(new DetailsSection("main", elements, false, false, false), getMetaDataSection());
   }
 
+  /**
+   * Returns the blob of the picture rendition sized for the classifier's {@link ImageBox}, or null if the item
+   * has no picture, e.g. audio or video without a cover. Blobs are memoized per classifier, except for the
+   * remote URL fallback after the image could not be cached, so that the next call tries the cache again.
+   */
   @Nullable
   @Override
   public ContentHubBlob getBlob(String classifier) {
-    String pictureUrl = content.getPicture().getDefaultImageUrl(headlessServerUrl);
+    ContentHubBlob blob = blobs.get(classifier);
+    if (blob != null) {
+      return blob;
+    }
+    String pictureUrl = getImageUrl(ImageBox.forClassifier(classifier));
+    if (pictureUrl == null) {
+      return null;
+    }
+    if (imageCache == null) {
+      blob = urlBlob(classifier, pictureUrl);
+    } else {
+      // downloaded outside of the map, a concurrent download of the same image is shared by the image cache
+      ImageCache.CachedImage image;
+      try {
+        image = imageCache.get(pictureUrl);
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to cache image '{}', using remote URL: {}", pictureUrl, e.getMessage());
+        return urlBlob(classifier, pictureUrl);
+      }
+      if (image == null) {
+        return null;
+      }
+      blob = cachedBlob(classifier, pictureUrl, image);
+    }
+    ContentHubBlob existing = blobs.putIfAbsent(classifier, blob);
+    return existing == null ? blob : existing;
+  }
+
+  @NonNull
+  private ContentHubBlob urlBlob(@NonNull String classifier, @NonNull String pictureUrl) {
     return new UrlBlobBuilder(this, classifier).withUrl(pictureUrl).withEtag().build();
   }
 
+  /**
+   * Returns the blob of the preview picture in the details. Without an image cache this is the remote URL,
+   * otherwise the picture is taken from the image cache when the blob is opened, so a failed download is
+   * retried on the next preview instead of being kept in the details.
+   */
+  @NonNull
+  private ContentHubBlob previewBlob(@NonNull String pictureUrl) {
+    if (imageCache == null) {
+      return urlBlob("preview", pictureUrl);
+    }
+    return new ContentHubDefaultBlob(this, "preview", mimeType(PREVIEW_CONTENT_TYPE), -1,
+            () -> imageCache.open(pictureUrl), null);
+  }
+
+  /**
+   * Serves the picture from the local image cache.
+   */
+  @NonNull
+  private ContentHubBlob cachedBlob(@NonNull String classifier, @NonNull String pictureUrl, @NonNull ImageCache.CachedImage image) {
+    return new ContentHubDefaultBlob(this, classifier, mimeType(image.getContentType()), image.getSize(),
+            () -> imageCache.open(pictureUrl), image.getEtag());
+  }
+
+  @NonNull
+  private static MimeType mimeType(@Nullable String contentType) {
+    try {
+      return new MimeType(contentType == null ? DEFAULT_CONTENT_TYPE : contentType);
+    } catch (MimeTypeParseException e) {
+      LOG.debug("Invalid image content type '{}': {}", contentType, e.getMessage());
+      return mimeType(DEFAULT_CONTENT_TYPE);
+    }
+  }
+
+  @Nullable
+  private String getImageUrl(@NonNull ImageBox box) {
+    String url = imageUrls.computeIfAbsent(box, b -> {
+      PictureDocument picture = content.getPicture();
+      String imageUrl = picture == null ? null : picture.getImageUrl(headlessServerUrl, b.getWidth(), b.getHeight());
+      return imageUrl == null ? NO_IMAGE : imageUrl;
+    });
+    return NO_IMAGE.equals(url) ? null : url;
+  }
+
   @NonNull
   private DetailsSection getMetaDataSection() {
     return new DetailsSection("metadata", List.of(
             new DetailsElement<>("name", content.getName()),
-            new DetailsElement<>("id", content.getLink().getId()),
+            new DetailsElement<>("id", content.getLink() == null ? null : content.getLink().getId()),
             new DetailsElement<>("type", content.getType())
     ).stream().filter(p -> Objects.nonNull(p.getValue())).collect(Collectors.toUnmodifiableList()));
   }
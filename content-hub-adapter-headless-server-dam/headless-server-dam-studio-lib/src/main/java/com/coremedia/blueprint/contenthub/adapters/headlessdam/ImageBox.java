@@ -0,0 +1,49 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The boxes in which Studio displays the blobs of an item, by classifier.
+ * The sizes include a factor of two for high density displays.
+ */
+enum ImageBox {
+  THUMBNAIL("thumbnail", 240, 240),
+  PREVIEW("preview", 800, 600);
+
+  private final String classifier;
+  private final int width;
+  private final int height;
+
+  ImageBox(String classifier, int width, int height) {
+    this.classifier = classifier;
+    this.width = width;
+    this.height = height;
+  }
+
+  @NonNull
+  String getClassifier() {
+    return classifier;
+  }
+
+  int getWidth() {
+    return width;
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the box of the classifier, unknown classifiers are displayed as preview.
+   */
+  @NonNull
+  static ImageBox forClassifier(@Nullable String classifier) {
+    for (ImageBox box : values()) {
+      if (box.classifier.equals(classifier)) {
+        return box;
+      }
+    }
+    return PREVIEW;
+  }
+}
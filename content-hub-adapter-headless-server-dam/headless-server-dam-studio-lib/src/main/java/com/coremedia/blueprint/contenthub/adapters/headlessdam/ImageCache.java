@@ -0,0 +1,416 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnector;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A size bounded LRU cache of images on the local disk, so that rendered pictures are downloaded from the
+ * headless server only once. The files are named after the image URL and ETag.
+ * <p>
+ * Images older than the time to live are revalidated with their ETag, or their Last-Modified date if the
+ * server sends no ETag, a <code>304 Not Modified</code> response keeps the cached file. Concurrent downloads of the same URL share one request.
+ * <p>
+ * The index of the cache is kept in memory only, so files left in the directory by a previous run are
+ * {@link #purge() purged} when the cache is created. Once {@link #clear() cleared}, the cache is closed and stores
+ * no more files.
+ */
+class ImageCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ImageCache.class);
+
+  private final Path directory;
+  private final long maxBytes;
+  private final long timeToLiveMillis;
+  private final HeadlessServerConnector connector;
+
+  private final Map<String, CachedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+  private final ConcurrentMap<String, CompletableFuture<CachedImage>> downloads = new ConcurrentHashMap<>();
+  private long bytes;
+  private boolean closed;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  ImageCache(@NonNull Path directory, long maxBytes, long timeToLiveMillis, @NonNull HeadlessServerConnector connector) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Invalid image cache size " + maxBytes);
+    }
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.timeToLiveMillis = timeToLiveMillis;
+    this.connector = connector;
+  }
+
+  /**
+   * Creates the image cache of a connection in a directory named after the connection, so that a restart reuses
+   * the directory instead of leaving another one behind. Everything left there by a previous run or a previous
+   * adapter of the connection is purged, so the cache of a previous adapter must have been {@link #clear() cleared}
+   * before. Every cache stores its files in a subdirectory of its own, so that downloads of a previous cache which
+   * are still running cannot replace or delete the files of this one.
+   *
+   * @throws IOException if the directory cannot be created
+   */
+  @NonNull
+  static ImageCache forConnection(@NonNull Path baseDirectory, @NonNull String connectionId, long maxBytes,
+                                  long timeToLiveMillis, @NonNull HeadlessServerConnector connector) throws IOException {
+    Path connectionDirectory = Files.createDirectories(baseDirectory.resolve(directoryName(connectionId)));
+    purgeDirectory(connectionDirectory);
+    Path directory = Files.createTempDirectory(connectionDirectory, "cache-");
+    ImageCache cache = new ImageCache(directory, maxBytes, timeToLiveMillis, connector);
+    LOG.info("Caching images of content hub adapter connection '{}' in {}", connectionId, directory);
+    return cache;
+  }
+
+  /**
+   * Returns the name of the image cache directory of a connection, which contains only characters that are
+   * safe in file names.
+   */
+  @NonNull
+  static String directoryName(@NonNull String connectionId) {
+    return "headless-dam-images-" + connectionId.replaceAll("[^A-Za-z0-9_.-]", "_");
+  }
+
+  /**
+   * Returns the cached image, downloading it if it is missing and revalidating it if it has expired.
+   *
+   * @return null if the image does not exist
+   * @throws IllegalStateException if the cache has been cleared
+   */
+  @Nullable
+  CachedImage get(@NonNull String url) {
+    CachedImage image;
+    synchronized (images) {
+      if (closed) {
+        throw new IllegalStateException("Image cache " + directory + " has been cleared");
+      }
+      image = images.get(url);
+    }
+    if (image != null && !image.isExpired() && Files.exists(image.path)) {
+      hits.increment();
+      return image;
+    }
+    return load(url, image != null && Files.exists(image.path) ? image : null);
+  }
+
+  /**
+   * Opens the cached file of the image, downloading it again if it has been evicted in the meantime.
+   */
+  @NonNull
+  InputStream open(@NonNull String url) {
+    for (int attempt = 0; ; attempt++) {
+      CachedImage image = get(url);
+      if (image == null) {
+        throw new UncheckedIOException(new NoSuchFileException(url));
+      }
+      try {
+        return Files.newInputStream(image.path);
+      } catch (NoSuchFileException e) {
+        if (attempt > 0) {
+          throw new UncheckedIOException(e);
+        }
+        LOG.debug("Cached image for '{}' has been evicted while opening it", url);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Deletes all files in the cache directory which are not part of this cache, e.g. left by a previous run
+   * which has not been shut down cleanly.
+   */
+  void purge() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    List<Path> files;
+    try (Stream<Path> list = Files.list(directory)) {
+      files = list.filter(Files::isRegularFile).collect(Collectors.toList());
+    } catch (IOException e) {
+      LOG.warn("Failed to list image cache directory {}: {}", directory, e.getMessage());
+      return;
+    }
+    synchronized (images) {
+      images.values().forEach(image -> files.remove(image.path));
+    }
+    files.forEach(ImageCache::delete);
+    if (!files.isEmpty()) {
+      LOG.info("Purged {} files from image cache directory {}", files.size(), directory);
+    }
+  }
+
+  /**
+   * Deletes everything below the directory, but not the directory itself.
+   */
+  private static void purgeDirectory(@NonNull Path directory) {
+    List<Path> paths;
+    try (Stream<Path> walk = Files.walk(directory)) {
+      paths = walk.filter(path -> !path.equals(directory)).sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    } catch (IOException e) {
+      LOG.warn("Failed to list image cache directory {}: {}", directory, e.getMessage());
+      return;
+    }
+    paths.forEach(ImageCache::delete);
+    if (!paths.isEmpty()) {
+      LOG.info("Purged {} files from image cache directory {}", paths.size(), directory);
+    }
+  }
+
+  /**
+   * Deletes all cached files and closes the cache. Downloads that are still running delete their file when they finish.
+   */
+  void clear() {
+    List<CachedImage> removed;
+    synchronized (images) {
+      closed = true;
+      removed = new ArrayList<>(images.values());
+      images.clear();
+      bytes = 0;
+    }
+    removed.forEach(image -> delete(image.path));
+    delete(directory);
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  long getRevalidationCount() {
+    return revalidations.sum();
+  }
+
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    synchronized (images) {
+      return getClass().getSimpleName() + "[size=" + images.size() +
+              ", bytes=" + bytes +
+              ", hits=" + getHitCount() +
+              ", misses=" + getMissCount() +
+              ", revalidations=" + getRevalidationCount() +
+              ", evictions=" + getEvictionCount() + "]";
+    }
+  }
+
+  @Nullable
+  private CachedImage load(@NonNull String url, @Nullable CachedImage stale) {
+    CompletableFuture<CachedImage> future = new CompletableFuture<>();
+    CompletableFuture<CachedImage> running = downloads.putIfAbsent(url, future);
+    if (running != null) {
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+
+    try {
+      CachedImage image = download(url, stale);
+      future.complete(image);
+      return image;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      downloads.remove(url, future);
+    }
+  }
+
+  @Nullable
+  private CachedImage download(@NonNull String url, @Nullable CachedImage stale) {
+    HttpHeaders headers = new HttpHeaders();
+    if (stale != null && stale.etag != null) {
+      headers.setIfNoneMatch(stale.etag);
+    } else if (stale != null && stale.lastModified >= 0) {
+      headers.setIfModifiedSince(stale.lastModified);
+    }
+    Optional<CachedImage> image = connector.download(url, headers, response -> {
+      if (stale != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+        revalidations.increment();
+        return stale.revalidated(System.currentTimeMillis() + timeToLiveMillis);
+      }
+      misses.increment();
+      return store(url, response);
+    });
+
+    if (image.isEmpty()) {
+      remove(url);
+      return null;
+    }
+    put(url, image.get());
+    return image.get();
+  }
+
+  @NonNull
+  private CachedImage store(@NonNull String url, @NonNull ClientHttpResponse response) throws IOException {
+    String etag = response.getHeaders().getETag();
+    long lastModified = response.getHeaders().getLastModified();
+    String contentType = response.getHeaders().getContentType() == null ? null : response.getHeaders().getContentType().toString();
+    Files.createDirectories(directory);
+    Path file = directory.resolve(fileName(url, etag));
+    Path download = Files.createTempFile(directory, "download", ".tmp");
+    try {
+      long size = Files.copy(response.getBody(), download, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(download, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      LOG.debug("Cached {} bytes of image '{}'", size, url);
+      return new CachedImage(file, size, contentType, etag, lastModified, System.currentTimeMillis() + timeToLiveMillis);
+    } finally {
+      Files.deleteIfExists(download);
+    }
+  }
+
+  private void put(@NonNull String url, @NonNull CachedImage image) {
+    List<Path> obsolete = new ArrayList<>();
+    synchronized (images) {
+      if (closed) {
+        // downloaded while the cache was cleared
+        obsolete.add(image.path);
+      } else {
+        CachedImage previous = images.put(url, image);
+        if (previous != null) {
+          bytes -= previous.size;
+          if (!previous.path.equals(image.path)) {
+            obsolete.add(previous.path);
+          }
+        }
+        bytes += image.size;
+
+        Iterator<CachedImage> eldest = images.values().iterator();
+        while (bytes > maxBytes && images.size() > 1 && eldest.hasNext()) {
+          CachedImage evicted = eldest.next();
+          if (evicted == image) {
+            continue;
+          }
+          eldest.remove();
+          bytes -= evicted.size;
+          obsolete.add(evicted.path);
+          evictions.increment();
+        }
+      }
+    }
+    obsolete.forEach(ImageCache::delete);
+  }
+
+  private void remove(@NonNull String url) {
+    CachedImage removed;
+    synchronized (images) {
+      removed = images.remove(url);
+      if (removed != null) {
+        bytes -= removed.size;
+      }
+    }
+    if (removed != null) {
+      delete(removed.path);
+    }
+  }
+
+  private static void delete(@NonNull Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      LOG.debug("Failed to delete cached image file {}: {}", path, e.getMessage());
+    }
+  }
+
+  @NonNull
+  private static String fileName(@NonNull String url, @Nullable String etag) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(url.getBytes(StandardCharsets.UTF_8));
+      if (etag != null) {
+        digest.update((byte) '\n');
+        digest.update(etag.getBytes(StandardCharsets.UTF_8));
+      }
+      StringBuilder hex = new StringBuilder();
+      for (byte b : digest.digest()) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  /**
+   * An image file in the cache. Instances are immutable.
+   */
+  static final class CachedImage {
+    private final Path path;
+    private final long size;
+    private final String contentType;
+    private final String etag;
+    private final long lastModified;
+    private final long expiresAt;
+
+    private CachedImage(Path path, long size, String contentType, String etag, long lastModified, long expiresAt) {
+      this.path = path;
+      this.size = size;
+      this.contentType = contentType;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.expiresAt = expiresAt;
+    }
+
+    long getSize() {
+      return size;
+    }
+
+    @Nullable
+    String getContentType() {
+      return contentType;
+    }
+
+    @Nullable
+    String getEtag() {
+      return etag;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() > expiresAt;
+    }
+
+    @NonNull
+    private CachedImage revalidated(long expiresAt) {
+      return new CachedImage(path, size, contentType, etag, lastModified, expiresAt);
+    }
+  }
+}
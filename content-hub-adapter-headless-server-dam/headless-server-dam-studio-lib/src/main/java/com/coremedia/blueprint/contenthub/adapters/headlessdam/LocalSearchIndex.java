@@ -0,0 +1,293 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchQuery;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory inverted index over the name, title and teaser text of the synchronized documents,
+ * kept current as a {@link FolderSnapshot.Listener}.
+ * <p>
+ * Every word of a query must match a word of a document. The last word matches as a prefix, so that results
+ * can be shown while typing, other words match as a prefix only if they end with <code>*</code>.
+ * Queries using search syntax, like fields or boolean operators, are not answered by the index.
+ */
+class LocalSearchIndex implements FolderSnapshot.Listener {
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final Pattern SEARCH_SYNTAX = Pattern.compile("[:\"()\\[\\]{}^~\\\\]|\\b(AND|OR|NOT)\\b|(^|\\s)[+-]");
+
+  private static final Map<String, Comparator<CMTeaseableDocument>> SORT_ORDERS = Map.of(
+          "NAME", Comparator.comparing(CMTeaseableDocument::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)),
+          "TITLE", Comparator.comparing(LocalSearchIndex::title, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)),
+          "DOC_TYPE", Comparator.comparing(CMTeaseableDocument::getType, Comparator.nullsLast(Comparator.naturalOrder())),
+          "ID", Comparator.comparing(LocalSearchIndex::id, LocalSearchIndex::compareIds),
+          "CREATION_DATE", Comparator.comparing(CMTeaseableDocument::getCreationDate, Comparator.nullsLast(Comparator.comparing(ZonedDateTime::toInstant))),
+          "MODIFICATION_DATE", Comparator.comparing(CMTeaseableDocument::getModificationDate, Comparator.nullsLast(Comparator.comparing(ZonedDateTime::toInstant))));
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, IndexedDocument> documents = new HashMap<>();
+  private final NavigableMap<String, Set<String>> postings = new TreeMap<>();
+
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder unsupportedQueries = new LongAdder();
+  private final LongAdder queryNanos = new LongAdder();
+  private final AtomicLong maxQueryNanos = new AtomicLong();
+
+  @Override
+  public void updated(@NonNull CMTeaseableDocument document) {
+    String id = id(document);
+    Set<String> words = words(document);
+    lock.writeLock().lock();
+    try {
+      IndexedDocument previous = documents.put(id, new IndexedDocument(document, words));
+      if (previous != null) {
+        unindex(id, previous.words);
+      }
+      for (String word : words) {
+        postings.computeIfAbsent(word, w -> new HashSet<>()).add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void removed(@NonNull String id) {
+    lock.writeLock().lock();
+    try {
+      IndexedDocument previous = documents.remove(id);
+      if (previous != null) {
+        unindex(id, previous.words);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns up to limit matching documents of the given types, sorted by the given
+   * <code>SortFieldWithOrder</code> values, or null if the query uses syntax the index does not support.
+   */
+  @Nullable
+  List<CMTeaseableDocument> search(@NonNull String query,
+                                   @NonNull Collection<String> docTypes,
+                                   @NonNull List<String> sortFields,
+                                   int limit) {
+    if (SEARCH_SYNTAX.matcher(query).find()) {
+      unsupportedQueries.increment();
+      return null;
+    }
+    Comparator<CMTeaseableDocument> order = order(sortFields);
+    if (order == null) {
+      unsupportedQueries.increment();
+      return null;
+    }
+
+    long start = System.nanoTime();
+    List<CMTeaseableDocument> hits = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      Set<String> ids = matchingIds(query);
+      Collection<String> candidates = ids == null ? documents.keySet() : ids;
+      for (String id : candidates) {
+        IndexedDocument document = documents.get(id);
+        if (document != null && docTypes.contains(document.document.getType())) {
+          hits.add(document.document);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    hits.sort(order);
+    List<CMTeaseableDocument> result = hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+
+    long nanos = System.nanoTime() - start;
+    queries.increment();
+    queryNanos.add(nanos);
+    maxQueryNanos.accumulateAndGet(nanos, Math::max);
+    return result;
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int getWordCount() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long getQueryCount() {
+    return queries.sum();
+  }
+
+  long getUnsupportedQueryCount() {
+    return unsupportedQueries.sum();
+  }
+
+  /**
+   * Returns the average query latency in microseconds.
+   */
+  long getAverageQueryMicros() {
+    long count = queries.sum();
+    return count == 0 ? 0 : queryNanos.sum() / count / 1000;
+  }
+
+  long getMaxQueryMicros() {
+    return maxQueryNanos.get() / 1000;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() +
+            ", words=" + getWordCount() +
+            ", queries=" + getQueryCount() +
+            ", unsupportedQueries=" + getUnsupportedQueryCount() +
+            ", averageQueryMicros=" + getAverageQueryMicros() +
+            ", maxQueryMicros=" + getMaxQueryMicros() + "]";
+  }
+
+  /**
+   * Returns the ids of the documents matching all words of the query, or null if the query matches all documents.
+   */
+  @Nullable
+  private Set<String> matchingIds(@NonNull String query) {
+    String trimmed = query.trim();
+    if (trimmed.isEmpty() || SearchQuery.MATCH_ALL.equals(trimmed)) {
+      return null;
+    }
+    String[] tokens = trimmed.split("\\s+");
+    Set<String> result = null;
+    for (int i = 0; i < tokens.length; i++) {
+      boolean prefix = i == tokens.length - 1 || tokens[i].endsWith("*");
+      for (String word : split(tokens[i])) {
+        Set<String> ids = prefix ? prefixMatches(word) : postings.getOrDefault(word, Set.of());
+        if (result == null) {
+          result = new HashSet<>(ids);
+        } else {
+          result.retainAll(ids);
+        }
+        if (result.isEmpty()) {
+          return result;
+        }
+      }
+    }
+    return result == null ? Set.of() : result;
+  }
+
+  @NonNull
+  private Set<String> prefixMatches(@NonNull String prefix) {
+    Set<String> ids = new HashSet<>();
+    for (Set<String> postingList : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+      ids.addAll(postingList);
+    }
+    return ids;
+  }
+
+  private void unindex(@NonNull String id, @NonNull Set<String> words) {
+    for (String word : words) {
+      Set<String> ids = postings.get(word);
+      if (ids != null) {
+        ids.remove(id);
+        if (ids.isEmpty()) {
+          postings.remove(word);
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private static Comparator<CMTeaseableDocument> order(@NonNull List<String> sortFields) {
+    Comparator<CMTeaseableDocument> order = null;
+    for (String sortField : sortFields) {
+      int separator = sortField.lastIndexOf('_');
+      Comparator<CMTeaseableDocument> fieldOrder = separator < 0 ? null : SORT_ORDERS.get(sortField.substring(0, separator));
+      if (fieldOrder == null) {
+        return null;
+      }
+      if (sortField.endsWith("_DESC")) {
+        fieldOrder = fieldOrder.reversed();
+      }
+      order = order == null ? fieldOrder : order.thenComparing(fieldOrder);
+    }
+    Comparator<CMTeaseableDocument> byId = SORT_ORDERS.get("ID");
+    return order == null ? byId : order.thenComparing(byId);
+  }
+
+  @NonNull
+  private static Set<String> words(@NonNull CMTeaseableDocument document) {
+    Set<String> words = new HashSet<>();
+    words.addAll(split(document.getName()));
+    words.addAll(split(document.getTitle()));
+    words.addAll(split(document.getTeaserText()));
+    return words;
+  }
+
+  @NonNull
+  private static List<String> split(@Nullable String text) {
+    List<String> words = new ArrayList<>();
+    if (text != null) {
+      for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+        if (!word.isEmpty()) {
+          words.add(word);
+        }
+      }
+    }
+    return words;
+  }
+
+  @Nullable
+  private static String title(@NonNull CMTeaseableDocument document) {
+    return document.getTitle() != null ? document.getTitle() : document.getName();
+  }
+
+  @NonNull
+  private static String id(@NonNull CMTeaseableDocument document) {
+    return document.getLink().getId();
+  }
+
+  private static int compareIds(@NonNull String id1, @NonNull String id2) {
+    if (id1.length() != id2.length() && id1.chars().allMatch(Character::isDigit) && id2.chars().allMatch(Character::isDigit)) {
+      return Integer.compare(id1.length(), id2.length());
+    }
+    return id1.compareTo(id2);
+  }
+
+  private static class IndexedDocument {
+    private final CMTeaseableDocument document;
+    private final Set<String> words;
+
+    private IndexedDocument(CMTeaseableDocument document, Set<String> words) {
+      this.document = document;
+      this.words = words;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchResultConsumer;
+import com.coremedia.contenthub.api.Item;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A read-only list of folder items which loads its elements page by page when they are accessed.
+ * <p>
+ * The first page is fetched on construction and its <code>numFound</code> determines the size of the list,
+ * a count of the folder from an earlier request may be outdated. All further pages are requested from the
+ * headless server when an element of the page is read.
+ * <p>
+ * The size is a snapshot and never changes. If the folder shrinks while it is paged, so that a page lacks
+ * items within the size, reading such an item fails with a {@link ConcurrentModificationException}, both by
+ * index and while iterating, and the folder has to be listed again.
+ */
+class PagedItemList extends AbstractList<Item> {
+
+  /**
+   * Streams the search results for the given offset and limit to the consumer.
+   */
+  @FunctionalInterface
+  interface PageLoader {
+    void load(int offset, int limit, @NonNull SearchResultConsumer consumer);
+  }
+
+  private final PageLoader pageLoader;
+  private final Function<CMTeaseableDocument, Item> itemFactory;
+  private final int pageSize;
+  private final List<List<Item>> pages = new ArrayList<>();
+  private final int size;
+
+  PagedItemList(@NonNull PageLoader pageLoader, @NonNull Function<CMTeaseableDocument, Item> itemFactory, int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Invalid page size " + pageSize);
+    }
+    this.pageLoader = pageLoader;
+    this.itemFactory = itemFactory;
+    this.pageSize = pageSize;
+    int[] numFound = {0};
+    List<Item> firstPage = loadPage(0, numFound);
+    // a short page always marks the end of the folder
+    this.size = firstPage.size() < pageSize ? firstPage.size() : Math.max(numFound[0], firstPage.size());
+  }
+
+  /**
+   * Returns the item at the index.
+   *
+   * @throws ConcurrentModificationException if the folder has shrunk and no longer has an item at the index
+   */
+  @NonNull
+  @Override
+  public synchronized Item get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+    int pageIndex = index / pageSize;
+    List<Item> page = pageIndex < pages.size() ? pages.get(pageIndex) : null;
+    if (page == null) {
+      page = loadPage(pageIndex, new int[1]);
+    }
+    int indexInPage = index % pageSize;
+    if (indexInPage >= page.size()) {
+      throw new ConcurrentModificationException("The folder has shrunk below " + (index + 1) + " of " + size + " items");
+    }
+    return page.get(indexInPage);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @NonNull
+  private List<Item> loadPage(int pageIndex, @NonNull int[] numFound) {
+    int offset = pageIndex * pageSize;
+    List<Item> page = new ArrayList<>();
+    // items are created while the response is read, the response itself is never held in memory
+    pageLoader.load(offset, pageSize, new SearchResultConsumer() {
+      @Override
+      public void numFound(int total) {
+        numFound[0] = total;
+      }
+
+      @Override
+      public void accept(@NonNull CMTeaseableDocument document) {
+        page.add(itemFactory.apply(document));
+      }
+    });
+
+    while (pages.size() <= pageIndex) {
+      pages.add(null);
+    }
+    pages.set(pageIndex, page);
+    return page;
+  }
+}
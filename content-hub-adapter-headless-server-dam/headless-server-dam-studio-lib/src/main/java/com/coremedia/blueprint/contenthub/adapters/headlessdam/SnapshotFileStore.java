@@ -0,0 +1,205 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves folder snapshots as gzipped JSON files, so that the folders can be served right after a restart.
+ * <p>
+ * A file is only restored if its schema version, headless server URL, site and document fields
+ * match the current configuration, otherwise it is ignored and replaced by the next sync.
+ */
+class SnapshotFileStore {
+  private static final Logger LOG = LoggerFactory.getLogger(SnapshotFileStore.class);
+
+  /**
+   * Increment on incompatible changes of the saved documents.
+   */
+  static final int SCHEMA_VERSION = 1;
+
+  private final Path directory;
+  private final String headlessServerUrl;
+  private final String siteId;
+  private final List<String> fields;
+  private final ObjectMapper objectMapper;
+
+  SnapshotFileStore(@NonNull Path directory,
+                    @NonNull String headlessServerUrl,
+                    @NonNull String siteId,
+                    @NonNull Set<ContentField> fields) {
+    this.directory = directory;
+    this.headlessServerUrl = headlessServerUrl;
+    this.siteId = siteId;
+    this.fields = fields.stream().map(ContentField::name).sorted().collect(Collectors.toList());
+    this.objectMapper = objectMapper();
+  }
+
+  /**
+   * Returns the persistence of the snapshot of the given content type.
+   */
+  @NonNull
+  FolderSnapshot.Persistence forFolder(@NonNull String contentType) {
+    // the file name only separates connections, the header is validated anyway
+    String key = UUID.nameUUIDFromBytes((headlessServerUrl + "\n" + siteId).getBytes(StandardCharsets.UTF_8)).toString();
+    Path file = directory.resolve(contentType + "-" + key + ".json.gz");
+    return new FolderSnapshot.Persistence() {
+      @Nullable
+      @Override
+      public FolderSnapshot.Saved load() {
+        return read(file);
+      }
+
+      @Override
+      public void save(@NonNull Collection<CMTeaseableDocument> documents) {
+        write(file, documents);
+      }
+    };
+  }
+
+  @Nullable
+  private FolderSnapshot.Saved read(@NonNull Path file) {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+      SnapshotFile snapshotFile = objectMapper.readValue(in, SnapshotFile.class);
+      if (snapshotFile.getSchemaVersion() != SCHEMA_VERSION ||
+              !Objects.equals(snapshotFile.getHeadlessServerUrl(), headlessServerUrl) ||
+              !Objects.equals(snapshotFile.getSiteId(), siteId) ||
+              !Objects.equals(snapshotFile.getFields(), fields) ||
+              snapshotFile.getDocuments() == null) {
+        LOG.info("Ignoring outdated snapshot file {}", file);
+        return null;
+      }
+      return new FolderSnapshot.Saved(snapshotFile.getDocuments(), snapshotFile.getSavedAt());
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read snapshot file {}: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  private void write(@NonNull Path file, @NonNull Collection<CMTeaseableDocument> documents) {
+    SnapshotFile snapshotFile = new SnapshotFile();
+    snapshotFile.setSchemaVersion(SCHEMA_VERSION);
+    snapshotFile.setHeadlessServerUrl(headlessServerUrl);
+    snapshotFile.setSiteId(siteId);
+    snapshotFile.setFields(fields);
+    snapshotFile.setSavedAt(System.currentTimeMillis());
+    snapshotFile.setDocuments(new ArrayList<>(documents));
+
+    Path tempFile = null;
+    try {
+      Files.createDirectories(directory);
+      tempFile = Files.createTempFile(directory, "snapshot", ".tmp");
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+        objectMapper.writeValue(out, snapshotFile);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      LOG.debug("Saved {} documents to snapshot file {}", documents.size(), file);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to write snapshot file {}: {}", file, e.getMessage());
+    } finally {
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+          LOG.debug("Failed to delete {}: {}", tempFile, e.getMessage());
+        }
+      }
+    }
+  }
+
+  @NonNull
+  private static ObjectMapper objectMapper() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    return objectMapper;
+  }
+
+  /**
+   * The content of a snapshot file.
+   */
+  static class SnapshotFile {
+    private int schemaVersion;
+    private String headlessServerUrl;
+    private String siteId;
+    private List<String> fields;
+    private long savedAt;
+    private List<CMTeaseableDocument> documents;
+
+    public int getSchemaVersion() {
+      return schemaVersion;
+    }
+
+    public void setSchemaVersion(int schemaVersion) {
+      this.schemaVersion = schemaVersion;
+    }
+
+    public String getHeadlessServerUrl() {
+      return headlessServerUrl;
+    }
+
+    public void setHeadlessServerUrl(String headlessServerUrl) {
+      this.headlessServerUrl = headlessServerUrl;
+    }
+
+    public String getSiteId() {
+      return siteId;
+    }
+
+    public void setSiteId(String siteId) {
+      this.siteId = siteId;
+    }
+
+    public List<String> getFields() {
+      return fields;
+    }
+
+    public void setFields(List<String> fields) {
+      this.fields = fields;
+    }
+
+    public long getSavedAt() {
+      return savedAt;
+    }
+
+    public void setSavedAt(long savedAt) {
+      this.savedAt = savedAt;
+    }
+
+    public List<CMTeaseableDocument> getDocuments() {
+      return documents;
+    }
+
+    public void setDocuments(List<CMTeaseableDocument> documents) {
+      this.documents = documents;
+    }
+  }
+}
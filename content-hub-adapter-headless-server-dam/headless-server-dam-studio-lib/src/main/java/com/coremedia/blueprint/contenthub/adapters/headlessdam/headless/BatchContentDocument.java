@@ -0,0 +1,18 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import java.util.Map;
+
+/**
+ *
+ */
+public class BatchContentDocument {
+  private Map<String, CMTeaseableDocument> content;
+
+  public Map<String, CMTeaseableDocument> getContent() {
+    return content;
+  }
+
+  public void setContent(Map<String, CMTeaseableDocument> content) {
+    this.content = content;
+  }
+}
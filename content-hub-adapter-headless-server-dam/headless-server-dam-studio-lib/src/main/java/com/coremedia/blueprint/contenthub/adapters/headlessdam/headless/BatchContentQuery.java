@@ -0,0 +1,53 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queries several contents in one request. Each content is selected with the alias
+ * <code>c&lt;index&gt;</code>, where index is the position of its id in the list of ids.
+ */
+public class BatchContentQuery {
+  private static final String CONTENT_TEMPLATE = GraphQLRequest.minify("'alias': content(id: $'alias') {\n" +
+          "  ... on CMTeasable {\n" +
+          "    'fields'\n" +
+          "  }\n" +
+          "}");
+
+  private List<String> ids;
+  private Set<ContentField> fields;
+
+  public BatchContentQuery(List<String> ids, Set<ContentField> fields) {
+    this.ids = ids;
+    this.fields = fields;
+  }
+
+  public static String alias(int index) {
+    return "c" + index;
+  }
+
+  @NonNull
+  public GraphQLRequest toRequest() {
+    String selection = ContentField.selection(fields);
+    StringBuilder variableDefinitions = new StringBuilder();
+    StringBuilder contents = new StringBuilder();
+    Map<String, Object> variables = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      String alias = alias(i);
+      variableDefinitions.append(i == 0 ? "" : ",").append('$').append(alias).append(":String!");
+      contents.append(i == 0 ? "" : " ").append(CONTENT_TEMPLATE.replace("'alias'", alias).replace("'fields'", selection));
+      variables.put(alias, ids.get(i));
+    }
+    String query = "query(" + variableDefinitions + "){content{" + contents + "}}";
+    return new GraphQLRequest(query, variables);
+  }
+
+  @Override
+  public String toString() {
+    return toRequest().toString();
+  }
+}
@@ -0,0 +1,16 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+/**
+ *
+ */
+public class BatchQueryResponseDocument extends GraphQLResponseDocument {
+  private BatchContentDocument data;
+
+  public BatchContentDocument getData() {
+    return data;
+  }
+
+  public void setData(BatchContentDocument data) {
+    this.data = data;
+  }
+}
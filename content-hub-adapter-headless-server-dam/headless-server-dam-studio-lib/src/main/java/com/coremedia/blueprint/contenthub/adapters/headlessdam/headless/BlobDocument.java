@@ -20,6 +20,6 @@ public class BlobDocument {
   }
 
   public void setContentType(String contentType) {
-    this.contentType = contentType;
+    this.contentType = DocumentPool.intern(contentType);
   }
 }
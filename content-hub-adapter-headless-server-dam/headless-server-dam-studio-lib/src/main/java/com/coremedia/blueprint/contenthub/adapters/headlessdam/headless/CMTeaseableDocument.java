@@ -1,5 +1,7 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
 
+import java.time.ZonedDateTime;
+
 /**
  *
  */
@@ -13,6 +15,8 @@ public class CMTeaseableDocument {
   private PictureDocument picture;
   private LinkDocument link;
   private String type;
+  private ZonedDateTime creationDate;
+  private ZonedDateTime modificationDate;
 
   public CMTeaseableDocument getContent() {
     return content;
@@ -67,7 +71,23 @@ public class CMTeaseableDocument {
   }
 
   public void setType(String type) {
-    this.type = type;
+    this.type = DocumentPool.intern(type);
+  }
+
+  public ZonedDateTime getCreationDate() {
+    return creationDate;
+  }
+
+  public void setCreationDate(ZonedDateTime creationDate) {
+    this.creationDate = creationDate;
+  }
+
+  public ZonedDateTime getModificationDate() {
+    return modificationDate;
+  }
+
+  public void setModificationDate(ZonedDateTime modificationDate) {
+    this.modificationDate = modificationDate;
   }
 
   public String getName() {
@@ -0,0 +1,133 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops sending requests to an endpoint after a number of consecutive failures.
+ * <p>
+ * While the breaker is open, requests are rejected without contacting the server. Once the open duration
+ * has passed, a single probe request is let through: if it succeeds the breaker closes, if it fails the
+ * breaker opens again for another open duration. Only the probe decides, the outcome of requests which
+ * have been sent before the breaker opened does not change the state of an open breaker.
+ */
+class CircuitBreaker {
+  private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  /**
+   * Whether a request may be sent, and whether it is the probe of a half-open breaker.
+   */
+  enum Admission {
+    REJECTED, REQUEST, PROBE
+  }
+
+  private final String name;
+  private final int failureThreshold;
+  private final long openMillis;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean probeInFlight;
+
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder opened = new LongAdder();
+
+  /**
+   * @param failureThreshold the number of consecutive failures which open the breaker, 0 disables it
+   * @param openMillis       the time the breaker stays open before a probe request is let through
+   */
+  CircuitBreaker(@NonNull String name, int failureThreshold, long openMillis) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.openMillis = openMillis;
+  }
+
+  /**
+   * Returns whether a request may be sent. A permitted request must be followed by a call of
+   * {@link #onSuccess(Admission)}, {@link #onFailure(Admission)} or {@link #onCancel(Admission)} with its admission.
+   */
+  @NonNull
+  synchronized Admission tryAcquire() {
+    switch (state) {
+      case OPEN:
+        if (System.currentTimeMillis() - openedAt < openMillis) {
+          rejected.increment();
+          return Admission.REJECTED;
+        }
+        LOG.info("Probing {} with a single request", name);
+        state = State.HALF_OPEN;
+        probeInFlight = true;
+        return Admission.PROBE;
+      case HALF_OPEN:
+        if (probeInFlight) {
+          rejected.increment();
+          return Admission.REJECTED;
+        }
+        probeInFlight = true;
+        return Admission.PROBE;
+      default:
+        return Admission.REQUEST;
+    }
+  }
+
+  synchronized void onSuccess(@NonNull Admission admission) {
+    if (admission == Admission.PROBE) {
+      LOG.info("Closing the circuit breaker of {}", name);
+      state = State.CLOSED;
+      probeInFlight = false;
+      consecutiveFailures = 0;
+    } else if (state == State.CLOSED) {
+      consecutiveFailures = 0;
+    }
+  }
+
+  synchronized void onFailure(@NonNull Admission admission) {
+    if (admission == Admission.PROBE) {
+      probeInFlight = false;
+      consecutiveFailures++;
+      open();
+    } else if (state == State.CLOSED) {
+      consecutiveFailures++;
+      if (failureThreshold > 0 && consecutiveFailures >= failureThreshold) {
+        open();
+      }
+    }
+  }
+
+  /**
+   * Releases a permit whose request has not been sent.
+   */
+  synchronized void onCancel(@NonNull Admission admission) {
+    if (admission == Admission.PROBE) {
+      probeInFlight = false;
+    }
+  }
+
+  private void open() {
+    LOG.warn("Opening the circuit breaker of {} for {} ms after {} consecutive failures", name, openMillis, consecutiveFailures);
+    state = State.OPEN;
+    openedAt = System.currentTimeMillis();
+    opened.increment();
+  }
+
+  @NonNull
+  synchronized State getState() {
+    return state;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return getClass().getSimpleName() + "[state=" + state +
+            ", consecutiveFailures=" + consecutiveFailures +
+            ", opened=" + opened.sum() +
+            ", rejected=" + rejected.sum() + "]";
+  }
+}
@@ -0,0 +1,111 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of requests in flight to an endpoint, and adapts the cap to the observed latency (AIMD).
+ * <p>
+ * The limit starts at its maximum. A request which fails or takes longer than the latency threshold
+ * decreases it multiplicatively, at most once per round trip, i.e. only requests sent after the last
+ * decrease decrease it again. Each fast request grows it by <code>1 / limit</code>, so by about one per
+ * round trip, as long as the limit is actually used. Requests beyond the limit wait for a slot up to
+ * a maximum time and are rejected after that.
+ */
+class ConcurrencyLimit {
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyLimit.class);
+  private static final double BACKOFF_RATIO = 0.75;
+  private static final int MIN_LIMIT = 1;
+
+  private final String name;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final long maxWaitNanos;
+
+  private double limit;
+  private int inFlight;
+  private long lastDecrease;
+
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder decreases = new LongAdder();
+
+  /**
+   * @param maxLimit                the maximum number of requests in flight, 0 disables the limit
+   * @param latencyThresholdMillis  the latency from which a request decreases the limit
+   * @param maxWaitMillis           the time a request waits for a slot before it is rejected
+   */
+  ConcurrencyLimit(@NonNull String name, int maxLimit, long latencyThresholdMillis, long maxWaitMillis) {
+    this.name = name;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    this.limit = maxLimit;
+    this.lastDecrease = System.nanoTime();
+  }
+
+  /**
+   * Waits for a slot. A successful call must be followed by a call of {@link #release(long, long, boolean)}.
+   *
+   * @return false if no slot became free within the maximum wait time
+   */
+  synchronized boolean acquire() throws InterruptedException {
+    if (maxLimit <= 0) {
+      return true;
+    }
+    long deadline = System.nanoTime() + maxWaitNanos;
+    while (inFlight >= (int) limit) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        rejected.increment();
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Frees the slot of a request and adapts the limit to its outcome.
+   *
+   * @param startNanos the {@link System#nanoTime()} at which the request has been sent
+   * @param endNanos   the {@link System#nanoTime()} at which the request has finished
+   * @param failed     whether the server failed to answer the request
+   */
+  synchronized void release(long startNanos, long endNanos, boolean failed) {
+    if (maxLimit <= 0) {
+      return;
+    }
+    int wasInFlight = inFlight--;
+    if (failed || endNanos - startNanos > latencyThresholdNanos) {
+      if (startNanos - lastDecrease > 0) {
+        limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+        lastDecrease = endNanos;
+        decreases.increment();
+        LOG.debug("Decreased the concurrency limit of {} to {}", name, (int) limit);
+      }
+    } else if (wasInFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+    notifyAll();
+  }
+
+  synchronized int getLimit() {
+    return maxLimit <= 0 ? Integer.MAX_VALUE : (int) limit;
+  }
+
+  @Override
+  public synchronized String toString() {
+    if (maxLimit <= 0) {
+      return getClass().getSimpleName() + "[disabled]";
+    }
+    return getClass().getSimpleName() + "[limit=" + (int) limit + "/" + maxLimit +
+            ", inFlight=" + inFlight +
+            ", decreases=" + decreases.sum() +
+            ", rejected=" + rejected.sum() + "]";
+  }
+}
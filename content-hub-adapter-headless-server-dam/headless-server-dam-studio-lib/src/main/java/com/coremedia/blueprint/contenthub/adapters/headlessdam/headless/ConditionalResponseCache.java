@@ -0,0 +1,220 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The last response of recent requests with its validators, so that <code>GET</code> requests can be revalidated with
+ * <code>If-None-Match</code> or <code>If-Modified-Since</code>. A <code>304 Not Modified</code> response
+ * is answered with the cached response object, without reading or parsing a body.
+ * <p>
+ * For <code>POST</code> requests, and if the server sends neither an ETag nor a Last-Modified header, a hash of the
+ * body is kept instead, an unchanged body is then transferred again but not parsed. Cached responses must not be modified.
+ */
+class ConditionalResponseCache {
+  private final Map<Object, CachedResponse> entries;
+
+  private final LongAdder notModified = new LongAdder();
+  private final LongAdder unchangedBodies = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+
+  ConditionalResponseCache(int maxSize) {
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, CachedResponse> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  @Nullable
+  CachedResponse get(@NonNull Object key) {
+    synchronized (entries) {
+      return entries.get(key);
+    }
+  }
+
+  /**
+   * Caches the response object with the validators of the response it has been read from.
+   */
+  void put(@NonNull Object key, @NonNull ClientHttpResponse response, @Nullable byte[] bodyHash, @NonNull Object value) {
+    HttpHeaders headers = response.getHeaders();
+    String etag = headers.getETag();
+    long lastModified = headers.getLastModified();
+    if (etag == null && lastModified < 0 && bodyHash == null) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new CachedResponse(etag, lastModified, bodyHash, value));
+    }
+  }
+
+  /**
+   * Adds the validators of the cached entry to the request headers.
+   */
+  static void addValidators(@NonNull HttpHeaders headers, @Nullable CachedResponse entry) {
+    if (entry == null) {
+      return;
+    }
+    if (entry.etag != null) {
+      headers.setIfNoneMatch(entry.etag);
+    }
+    if (entry.lastModified >= 0) {
+      headers.setIfModifiedSince(entry.lastModified);
+    }
+  }
+
+  boolean isNotModified(@Nullable CachedResponse entry, @NonNull ClientHttpResponse response) throws IOException {
+    if (entry != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+      notModified.increment();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the body has the same hash as the cached response.
+   */
+  boolean isUnchanged(@Nullable CachedResponse entry, @NonNull byte[] bodyHash) {
+    if (entry != null && entry.bodyHash != null && MessageDigest.isEqual(entry.bodyHash, bodyHash)) {
+      unchangedBodies.increment();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the cached response object to answer a request which the server could not answer.
+   */
+  @NonNull
+  Object fallback(@NonNull CachedResponse entry) {
+    fallbacks.increment();
+    return entry.value;
+  }
+
+  /**
+   * Returns whether the response has a validator which the server can check.
+   */
+  static boolean hasValidators(@NonNull ClientHttpResponse response) {
+    return response.getHeaders().getETag() != null || response.getHeaders().getLastModified() >= 0;
+  }
+
+  @NonNull
+  static byte[] hash(@NonNull byte[] body) {
+    return digest().digest(body);
+  }
+
+  /**
+   * Returns a new digest for the body hash.
+   */
+  @NonNull
+  static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  /**
+   * Returns a response whose body is read from the given bytes.
+   */
+  @NonNull
+  static ClientHttpResponse buffered(@NonNull ClientHttpResponse response, @NonNull byte[] body) {
+    return withBody(response, new ByteArrayInputStream(body));
+  }
+
+  /**
+   * Returns a response whose body is read from the given stream.
+   */
+  @NonNull
+  static ClientHttpResponse withBody(@NonNull ClientHttpResponse response, @NonNull InputStream body) {
+    return new ClientHttpResponse() {
+      @NonNull
+      @Override
+      public HttpStatus getStatusCode() throws IOException {
+        return response.getStatusCode();
+      }
+
+      @Override
+      public int getRawStatusCode() throws IOException {
+        return response.getRawStatusCode();
+      }
+
+      @NonNull
+      @Override
+      public String getStatusText() throws IOException {
+        return response.getStatusText();
+      }
+
+      @Override
+      public void close() {
+        response.close();
+      }
+
+      @NonNull
+      @Override
+      public InputStream getBody() {
+        return body;
+      }
+
+      @NonNull
+      @Override
+      public HttpHeaders getHeaders() {
+        return response.getHeaders();
+      }
+    };
+  }
+
+  /**
+   * Returns the number of responses which have been answered with <code>304 Not Modified</code>.
+   */
+  long getNotModifiedCount() {
+    return notModified.sum();
+  }
+
+  /**
+   * Returns the number of responses whose body has been identical to the cached one.
+   */
+  long getUnchangedBodyCount() {
+    return unchangedBodies.sum();
+  }
+
+  /**
+   * Returns the number of requests which have been answered with a cached response, because the server was unavailable.
+   */
+  long getFallbackCount() {
+    return fallbacks.sum();
+  }
+
+  static final class CachedResponse {
+    private final String etag;
+    private final long lastModified;
+    private final byte[] bodyHash;
+    private final Object value;
+
+    private CachedResponse(String etag, long lastModified, byte[] bodyHash, Object value) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.bodyHash = bodyHash;
+      this.value = value;
+    }
+
+    @NonNull
+    Object getValue() {
+      return value;
+    }
+  }
+}
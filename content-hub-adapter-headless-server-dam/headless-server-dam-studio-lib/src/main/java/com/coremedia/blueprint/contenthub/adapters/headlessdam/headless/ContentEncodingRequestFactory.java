@@ -0,0 +1,375 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decorates the request factory of a transport to negotiate compressed responses and to compress large request bodies.
+ * <p>
+ * Responses encoded with gzip or deflate are decompressed while they are read, so the parser reads
+ * straight from the decompressing stream. The bytes on the wire, the decoded bytes and the time from the
+ * first read of the body until it is closed are logged per request and summed up.
+ * <p>
+ * Request bodies are written straight to the transport. Unlike a request interceptor, which makes the
+ * RestTemplate buffer every body, this buffers a body only if request compression is enabled, because its
+ * encoding can only be chosen once its size is known.
+ */
+class ContentEncodingRequestFactory implements ClientHttpRequestFactory {
+  private static final Logger LOG = LoggerFactory.getLogger(ContentEncodingRequestFactory.class);
+
+  static final String GZIP = "gzip";
+  static final String DEFLATE = "deflate";
+
+  private final ClientHttpRequestFactory requestFactory;
+  private final boolean compressResponses;
+  private final int requestCompressionThreshold;
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder compressedResponses = new LongAdder();
+  private final LongAdder compressedRequests = new LongAdder();
+  private final LongAdder wireBytes = new LongAdder();
+  private final LongAdder decodedBytes = new LongAdder();
+  private final LongAdder decodeNanos = new LongAdder();
+
+  /**
+   * @param requestFactory              the request factory of the transport
+   * @param compressResponses           whether to ask for gzip or deflate encoded responses
+   * @param requestCompressionThreshold the size in bytes from which request bodies are sent gzip encoded, 0 disables it
+   */
+  ContentEncodingRequestFactory(@NonNull ClientHttpRequestFactory requestFactory, boolean compressResponses, int requestCompressionThreshold) {
+    this.requestFactory = requestFactory;
+    this.compressResponses = compressResponses;
+    this.requestCompressionThreshold = requestCompressionThreshold;
+  }
+
+  @NonNull
+  @Override
+  public ClientHttpRequest createRequest(@NonNull URI uri, @NonNull HttpMethod httpMethod) throws IOException {
+    ClientHttpRequest request = requestFactory.createRequest(uri, httpMethod);
+    return request instanceof StreamingHttpOutputMessage ? new StreamingEncodingRequest(request) : new EncodingRequest(request);
+  }
+
+  long getWireBytes() {
+    return wireBytes.sum();
+  }
+
+  long getDecodedBytes() {
+    return decodedBytes.sum();
+  }
+
+  @Override
+  public String toString() {
+    long decoded = decodedBytes.sum();
+    return getClass().getSimpleName() + "[requests=" + requests.sum() +
+            ", compressedRequests=" + compressedRequests.sum() +
+            ", compressedResponses=" + compressedResponses.sum() +
+            ", wireBytes=" + wireBytes.sum() +
+            ", decodedBytes=" + decoded +
+            ", ratio=" + (decoded == 0 ? 1 : Math.round(100.0 * wireBytes.sum() / decoded) / 100.0) +
+            ", decodeMillis=" + decodeNanos.sum() / 1_000_000 + "]";
+  }
+
+  @NonNull
+  private static byte[] gzip(@NonNull byte[] body) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(body);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Reads HTTP "deflate", which should be zlib wrapped, but is sent as raw deflate data by some servers.
+   * The data is zlib wrapped if it starts with a header for the deflate method whose check bits are valid.
+   */
+  @NonNull
+  static InputStream inflate(@NonNull InputStream in) throws IOException {
+    PushbackInputStream pushback = new PushbackInputStream(in, 2);
+    byte[] header = new byte[2];
+    int length = 0;
+    while (length < header.length) {
+      int n = pushback.read(header, length, header.length - length);
+      if (n < 0) {
+        break;
+      }
+      length += n;
+    }
+    pushback.unread(header, 0, length);
+    return new InflaterInputStream(pushback, new Inflater(!isZlibHeader(header, length)));
+  }
+
+  private static boolean isZlibHeader(@NonNull byte[] header, int length) {
+    if (length < 2) {
+      return false;
+    }
+    int cmf = header[0] & 0xff;
+    int flg = header[1] & 0xff;
+    return (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+  }
+
+  /**
+   * A request which asks for encoded responses and decodes them. Its body is written to the request of the
+   * transport, or buffered until the request is executed if request compression is enabled.
+   */
+  private class EncodingRequest implements ClientHttpRequest {
+    final ClientHttpRequest request;
+    private ByteArrayOutputStream bufferedBody;
+
+    private EncodingRequest(ClientHttpRequest request) {
+      this.request = request;
+    }
+
+    @NonNull
+    @Override
+    public String getMethodValue() {
+      return request.getMethodValue();
+    }
+
+    @NonNull
+    @Override
+    public URI getURI() {
+      return request.getURI();
+    }
+
+    @NonNull
+    @Override
+    public HttpHeaders getHeaders() {
+      return request.getHeaders();
+    }
+
+    @NonNull
+    @Override
+    public OutputStream getBody() throws IOException {
+      if (requestCompressionThreshold > 0) {
+        if (bufferedBody == null) {
+          bufferedBody = new ByteArrayOutputStream(1024);
+        }
+        return bufferedBody;
+      }
+      // a streaming transport sends the headers when the body is opened
+      acceptEncoding();
+      return request.getBody();
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+      acceptEncoding();
+      if (bufferedBody != null) {
+        byte[] body = encode(bufferedBody.toByteArray());
+        request.getHeaders().setContentLength(body.length);
+        writeBody(body);
+      }
+      requests.increment();
+      return new DecodingResponse(request, request.execute());
+    }
+
+    void writeBody(@NonNull byte[] body) throws IOException {
+      request.getBody().write(body);
+    }
+
+    void acceptEncoding() {
+      HttpHeaders headers = request.getHeaders();
+      if (compressResponses && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+        headers.set(HttpHeaders.ACCEPT_ENCODING, GZIP + ", " + DEFLATE);
+      }
+    }
+
+    /**
+     * Returns the body gzip encoded if it has reached the threshold and is not encoded yet.
+     */
+    @NonNull
+    byte[] encode(@NonNull byte[] body) throws IOException {
+      HttpHeaders headers = request.getHeaders();
+      if (body.length < requestCompressionThreshold || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+        return body;
+      }
+      headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+      compressedRequests.increment();
+      return gzip(body);
+    }
+  }
+
+  /**
+   * A request of a transport which writes the body itself while the request is executed.
+   */
+  private class StreamingEncodingRequest extends EncodingRequest implements StreamingHttpOutputMessage {
+    private Body body;
+
+    private StreamingEncodingRequest(ClientHttpRequest request) {
+      super(request);
+    }
+
+    @Override
+    public void setBody(@NonNull Body body) {
+      if (requestCompressionThreshold > 0) {
+        this.body = body;
+      } else {
+        ((StreamingHttpOutputMessage) request).setBody(body);
+      }
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+      if (body != null) {
+        body.writeTo(super.getBody());
+      }
+      return super.execute();
+    }
+
+    @Override
+    void writeBody(@NonNull byte[] body) {
+      ((StreamingHttpOutputMessage) request).setBody(out -> out.write(body));
+    }
+  }
+
+  /**
+   * Counts the bytes read from the underlying stream.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    private CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(@NonNull byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+  }
+
+  /**
+   * A response whose body is decoded while it is read.
+   */
+  private class DecodingResponse implements ClientHttpResponse {
+    private final HttpRequest request;
+    private final ClientHttpResponse response;
+    private final String encoding;
+    private HttpHeaders headers;
+    private CountingInputStream wire;
+    private CountingInputStream decoded;
+    private long firstRead;
+
+    private DecodingResponse(HttpRequest request, ClientHttpResponse response) {
+      this.request = request;
+      this.response = response;
+      String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+      this.encoding = contentEncoding == null ? null : contentEncoding.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @NonNull
+    @Override
+    public InputStream getBody() throws IOException {
+      if (decoded == null) {
+        firstRead = System.nanoTime();
+        wire = new CountingInputStream(response.getBody());
+        decoded = new CountingInputStream(isEncoded() ? decode(wire) : wire);
+      }
+      return decoded;
+    }
+
+    @NonNull
+    private InputStream decode(@NonNull InputStream in) throws IOException {
+      // an empty body, e.g. of a 304, has no gzip header to read
+      PushbackInputStream pushback = new PushbackInputStream(in, 1);
+      int first = pushback.read();
+      if (first < 0) {
+        return pushback;
+      }
+      pushback.unread(first);
+      compressedResponses.increment();
+      return GZIP.equals(encoding) ? new GZIPInputStream(pushback) : inflate(pushback);
+    }
+
+    private boolean isEncoded() {
+      return GZIP.equals(encoding) || DEFLATE.equals(encoding);
+    }
+
+    @NonNull
+    @Override
+    public HttpHeaders getHeaders() {
+      if (headers == null) {
+        if (isEncoded()) {
+          // the body is decoded, so neither its encoding nor the length on the wire apply anymore
+          HttpHeaders decodedHeaders = new HttpHeaders();
+          decodedHeaders.putAll(response.getHeaders());
+          decodedHeaders.remove(HttpHeaders.CONTENT_ENCODING);
+          decodedHeaders.remove(HttpHeaders.CONTENT_LENGTH);
+          headers = decodedHeaders;
+        } else {
+          headers = response.getHeaders();
+        }
+      }
+      return headers;
+    }
+
+    @NonNull
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+      return response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+      return response.getRawStatusCode();
+    }
+
+    @NonNull
+    @Override
+    public String getStatusText() throws IOException {
+      return response.getStatusText();
+    }
+
+    @Override
+    public void close() {
+      if (decoded != null) {
+        long nanos = System.nanoTime() - firstRead;
+        wireBytes.add(wire.count);
+        decodedBytes.add(decoded.count);
+        decodeNanos.add(nanos);
+        LOG.debug("{} {}: {} bytes on the wire, {} bytes decoded{}, read in {} ms",
+                request.getMethodValue(), request.getURI().getPath(), wire.count, decoded.count,
+                isEncoded() ? " from " + encoding : "", nanos / 1_000_000);
+      }
+      response.close();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of a {@link CMTeaseableDocument} which can be requested from the headless server.
+ */
+public enum ContentField {
+  CREATION_DATE("creationDate", (from, to) -> to.setCreationDate(from.getCreationDate())),
+  MODIFICATION_DATE("modificationDate", (from, to) -> to.setModificationDate(from.getModificationDate())),
+  NAME("name", (from, to) -> to.setName(from.getName())),
+  TITLE("title", (from, to) -> to.setTitle(from.getTitle())),
+  TYPE("type", (from, to) -> to.setType(from.getType())),
+  LINK("link {id}", (from, to) -> to.setLink(from.getLink())),
+  TEASER_TEXT("teaserText", (from, to) -> to.setTeaserText(from.getTeaserText())),
+  REMOTE_LINK("remoteLink", (from, to) -> to.setRemoteLink(from.getRemoteLink())),
+  PICTURE("picture { data { size, contentType }, uriTemplate, crops { name, minWidth, aspectRatio { width, height }, sizes { width, height } } }", (from, to) -> to.setPicture(from.getPicture()));
+
+  /**
+   * All fields.
+   */
+  public static final Set<ContentField> ALL = Collections.unmodifiableSet(EnumSet.allOf(ContentField.class));
+
+  /**
+   * The fields contained in the results of a {@link SearchQuery}.
+   */
+  public static final Set<ContentField> LISTING = Collections.unmodifiableSet(EnumSet.of(CREATION_DATE, MODIFICATION_DATE, NAME, TITLE, TYPE, LINK, PICTURE));
+
+  private final String selection;
+  private final BiConsumer<CMTeaseableDocument, CMTeaseableDocument> copy;
+
+  ContentField(String selection, BiConsumer<CMTeaseableDocument, CMTeaseableDocument> copy) {
+    this.selection = selection;
+    this.copy = copy;
+  }
+
+  /**
+   * Returns the GraphQL selection of this field.
+   */
+  @NonNull
+  public String getSelection() {
+    return selection;
+  }
+
+  /**
+   * Returns the minified GraphQL selection of the given fields.
+   */
+  @NonNull
+  public static String selection(@NonNull Set<ContentField> fields) {
+    return GraphQLRequest.minify(fields.stream().map(ContentField::getSelection).collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * Copies the value of this field from one document to another.
+   */
+  public void copy(@NonNull CMTeaseableDocument from, @NonNull CMTeaseableDocument to) {
+    copy.accept(from, to);
+  }
+}
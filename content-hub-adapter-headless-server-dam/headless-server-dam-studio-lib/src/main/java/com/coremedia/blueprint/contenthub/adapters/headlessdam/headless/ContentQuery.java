@@ -1,44 +1,65 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
 /**
  *
  */
 public class ContentQuery {
-  private static final String TEMPLATE = "{\"query\" : \"query {\n" +
+  private static final String TEMPLATE = "query($id: String!) {\n" +
           "  content {\n" +
-          "    content(id:\\\"'id'\\\") {\n" +
+          "    content(id: $id) {\n" +
           "       ... on CMTeasable {\n" +
-          "          creationDate, \n" +
-          "          name,           \n" +
-          "          title,           \n" +
-          "          type,           \n" +
-          "          link {id},         \n" +
-          "          teaserText,\n" +
-          "          remoteLink,\n" +
-          "          picture {            \n" +
-          "            data { \n" +
-          "              size ,\n" +
-          "              contentType\n" +
-          "            },\n" +
-          "            uriTemplate,\n" +
-          "            crops {\n" +
-          "              name,\n" +
-          "              minWidth              \n" +
-          "            }          \n" +
-          "          }\n" +
+          "          'fields'\n" +
           "        }\n" +
           "    }\n" +
           "  }\n" +
-          "}\" }";
+          "}";
+
+  /**
+   * The minified query texts per field selection.
+   */
+  private static final Map<Set<ContentField>, String> QUERIES = new ConcurrentHashMap<>();
+
+  static {
+    query(ContentField.ALL);
+    query(ContentField.LISTING);
+  }
 
   private String id;
+  private Set<ContentField> fields;
 
   public ContentQuery(String id) {
+    this(id, ContentField.ALL);
+  }
+
+  /**
+   * Creates a query for the given fields of the content only.
+   */
+  public ContentQuery(String id, Set<ContentField> fields) {
     this.id = id;
+    this.fields = fields;
+  }
+
+  @NonNull
+  public GraphQLRequest toRequest() {
+    return new GraphQLRequest(query(fields), Map.of("id", id));
   }
 
   @Override
   public String toString() {
-    return TEMPLATE.replaceAll("'id'", id);
+    return toRequest().toString();
+  }
+
+  @NonNull
+  private static String query(@NonNull Set<ContentField> fields) {
+    return QUERIES.computeIfAbsent(EnumSet.copyOf(fields),
+            key -> GraphQLRequest.minify(TEMPLATE.replace("'fields'", ContentField.selection(key))));
   }
 }
@@ -0,0 +1,18 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import java.util.Map;
+
+/**
+ *
+ */
+public class CountDocument {
+  private Map<String, SearchResultDocument> content;
+
+  public Map<String, SearchResultDocument> getContent() {
+    return content;
+  }
+
+  public void setContent(Map<String, SearchResultDocument> content) {
+    this.content = content;
+  }
+}
@@ -0,0 +1,82 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the documents of several searches in one request. Each search is selected with the alias
+ * <code>t&lt;index&gt;</code> and a limit of 0, so that only <code>numFound</code> is returned.
+ */
+public class CountQuery {
+  private static final String SEARCH_TEMPLATE = GraphQLRequest.minify("'alias': search(query: $'query', " +
+          "offset: 0, limit: 0, docTypes: $'alias', siteId: $siteId) {\n" +
+          "  numFound\n" +
+          "}");
+
+  private String siteId;
+  private List<String> docTypes;
+  private List<String> queries;
+
+  /**
+   * Creates a query counting all documents of each of the given types.
+   */
+  public CountQuery(String siteId, List<String> docTypes) {
+    this(siteId, docTypes, Collections.nCopies(docTypes.size(), SearchQuery.MATCH_ALL));
+  }
+
+  /**
+   * Creates a query counting the documents matching each query, queries.get(i) is searched in docTypes.get(i).
+   */
+  public CountQuery(String siteId, List<String> docTypes, List<String> queries) {
+    if (docTypes.size() != queries.size()) {
+      throw new IllegalArgumentException("Got " + docTypes.size() + " types for " + queries.size() + " queries");
+    }
+    this.siteId = siteId;
+    this.docTypes = docTypes;
+    this.queries = queries;
+  }
+
+  public static String alias(int index) {
+    return "t" + index;
+  }
+
+  private static String queryVariable(int index) {
+    return "q" + index;
+  }
+
+  /**
+   * Returns the number of counted searches.
+   */
+  public int size() {
+    return docTypes.size();
+  }
+
+  @NonNull
+  public GraphQLRequest toRequest() {
+    StringBuilder variableDefinitions = new StringBuilder("$siteId:String");
+    StringBuilder searches = new StringBuilder();
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("siteId", siteId);
+    for (int i = 0; i < docTypes.size(); i++) {
+      String alias = alias(i);
+      String queryVariable = queryVariable(i);
+      variableDefinitions.append(",$").append(alias).append(":[String]")
+              .append(",$").append(queryVariable).append(":String!");
+      searches.append(i == 0 ? "" : " ")
+              .append(SEARCH_TEMPLATE.replace("'query'", queryVariable).replace("'alias'", alias));
+      variables.put(alias, List.of(docTypes.get(i)));
+      variables.put(queryVariable, queries.get(i));
+    }
+    String query = "query(" + variableDefinitions + "){content{" + searches + "}}";
+    return new GraphQLRequest(query, variables);
+  }
+
+  @Override
+  public String toString() {
+    return toRequest().toString();
+  }
+}
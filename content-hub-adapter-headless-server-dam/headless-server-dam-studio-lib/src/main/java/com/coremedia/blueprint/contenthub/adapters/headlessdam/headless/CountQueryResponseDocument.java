@@ -0,0 +1,16 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+/**
+ *
+ */
+public class CountQueryResponseDocument extends GraphQLResponseDocument {
+  private CountDocument data;
+
+  public CountDocument getData() {
+    return data;
+  }
+
+  public void setData(CountDocument data) {
+    this.data = data;
+  }
+}
@@ -1,25 +1,76 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 /**
- *
+ * Crops are shared between pictures through the {@link DocumentPool}, so they are immutable. Only the JSON parser
+ * sets their values, through the private setters, before they are pooled.
  */
-public class CropDocument {
+public final class CropDocument {
   private String name;
   private int minWidth;
+  private DimensionDocument aspectRatio;
+  private List<DimensionDocument> sizes;
+
+  private CropDocument() {
+  }
+
+  CropDocument(String name, int minWidth, DimensionDocument aspectRatio, List<DimensionDocument> sizes) {
+    setName(name);
+    this.minWidth = minWidth;
+    this.aspectRatio = aspectRatio;
+    setSizes(sizes);
+  }
 
   public String getName() {
     return name;
   }
 
-  public void setName(String name) {
-    this.name = name;
+  private void setName(String name) {
+    this.name = DocumentPool.intern(name);
   }
 
   public int getMinWidth() {
     return minWidth;
   }
 
-  public void setMinWidth(int minWidth) {
+  private void setMinWidth(int minWidth) {
     this.minWidth = minWidth;
   }
+
+  public DimensionDocument getAspectRatio() {
+    return aspectRatio;
+  }
+
+  private void setAspectRatio(DimensionDocument aspectRatio) {
+    this.aspectRatio = aspectRatio;
+  }
+
+  public List<DimensionDocument> getSizes() {
+    return sizes;
+  }
+
+  private void setSizes(List<DimensionDocument> sizes) {
+    this.sizes = sizes == null ? null : sizes.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableList());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CropDocument that = (CropDocument) o;
+    return minWidth == that.minWidth && Objects.equals(name, that.name) &&
+            Objects.equals(aspectRatio, that.aspectRatio) && Objects.equals(sizes, that.sizes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, minWidth, aspectRatio, sizes);
+  }
 }
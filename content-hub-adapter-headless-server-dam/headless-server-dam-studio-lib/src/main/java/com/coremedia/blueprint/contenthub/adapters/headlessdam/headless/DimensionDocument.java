@@ -0,0 +1,52 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import java.util.Objects;
+
+/**
+ * The aspect ratio or an available size of a crop. Dimensions are part of the pooled crops and therefore immutable.
+ */
+public final class DimensionDocument {
+  private int width;
+  private int height;
+
+  private DimensionDocument() {
+  }
+
+  DimensionDocument(int width, int height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  private void setWidth(int width) {
+    this.width = width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  private void setHeight(int height) {
+    this.height = height;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DimensionDocument that = (DimensionDocument) o;
+    return width == that.width && height == that.height;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(width, height);
+  }
+}
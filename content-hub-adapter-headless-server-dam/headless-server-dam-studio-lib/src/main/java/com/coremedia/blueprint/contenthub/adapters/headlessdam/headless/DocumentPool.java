@@ -0,0 +1,73 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Canonical instances of the values which are repeated across many documents, like types,
+ * crop lists and URI template prefixes. Documents share these instances instead of holding their own copies,
+ * so pooled values are immutable: strings, unmodifiable lists and {@link CropDocument}s without public setters.
+ * <p>
+ * The pools are bounded, values beyond the bound are simply not shared.
+ */
+final class DocumentPool {
+  private static final int MAX_POOL_SIZE = 4096;
+
+  private static final ConcurrentMap<List<CropDocument>, List<CropDocument>> CROPS = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, String> URI_TEMPLATE_PREFIXES = new ConcurrentHashMap<>();
+
+  private DocumentPool() {
+  }
+
+  /**
+   * Returns the canonical instance of a string from a small set of values, like a type or crop name.
+   */
+  @Nullable
+  static String intern(@Nullable String value) {
+    return value == null ? null : value.intern();
+  }
+
+  /**
+   * Returns a shared, unmodifiable list of the crops in the given list, without null elements.
+   */
+  @Nullable
+  static List<CropDocument> crops(@Nullable List<CropDocument> crops) {
+    if (crops == null) {
+      return null;
+    }
+    List<CropDocument> canonical = CROPS.get(crops);
+    if (canonical != null) {
+      return canonical;
+    }
+    canonical = crops.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableList());
+    if (CROPS.size() >= MAX_POOL_SIZE) {
+      return canonical;
+    }
+    List<CropDocument> existing = CROPS.putIfAbsent(canonical, canonical);
+    return existing == null ? canonical : existing;
+  }
+
+  /**
+   * Returns the shared instance of a URI template prefix.
+   */
+  @Nullable
+  static String uriTemplatePrefix(@Nullable String prefix) {
+    if (prefix == null) {
+      return null;
+    }
+    String canonical = URI_TEMPLATE_PREFIXES.get(prefix);
+    if (canonical != null) {
+      return canonical;
+    }
+    if (URI_TEMPLATE_PREFIXES.size() >= MAX_POOL_SIZE) {
+      return prefix;
+    }
+    String existing = URI_TEMPLATE_PREFIXES.putIfAbsent(prefix, prefix);
+    return existing == null ? prefix : existing;
+  }
+}
@@ -0,0 +1,27 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import java.util.Map;
+
+/**
+ *
+ */
+public class GraphQLErrorDocument {
+  private String message;
+  private Map<String, Object> extensions;
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  public Map<String, Object> getExtensions() {
+    return extensions;
+  }
+
+  public void setExtensions(Map<String, Object> extensions) {
+    this.extensions = extensions;
+  }
+}
@@ -0,0 +1,65 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The payload of a GraphQL request, serialized by Jackson as <code>{"query": ..., "variables": {...}}</code>.
+ * <p>
+ * The query text is meant to be a constant, all values are passed as variables.
+ */
+public class GraphQLRequest {
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern SPACE_AROUND_PUNCTUATION = Pattern.compile(" ?([{}()\\[\\],:!$=]) ?");
+
+  private final String query;
+  private final Map<String, Object> variables;
+
+  public GraphQLRequest(@NonNull String query, @NonNull Map<String, Object> variables) {
+    this.query = query;
+    this.variables = Collections.unmodifiableMap(variables);
+  }
+
+  public String getQuery() {
+    return query;
+  }
+
+  public Map<String, Object> getVariables() {
+    return variables;
+  }
+
+  /**
+   * Removes all insignificant whitespace from a query text without string literals.
+   */
+  @NonNull
+  public static String minify(@NonNull String query) {
+    String collapsed = WHITESPACE.matcher(query.trim()).replaceAll(" ");
+    return SPACE_AROUND_PUNCTUATION.matcher(collapsed).replaceAll("$1");
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GraphQLRequest that = (GraphQLRequest) o;
+    return query.equals(that.query) && variables.equals(that.variables);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(query, variables);
+  }
+
+  @Override
+  public String toString() {
+    return query + " " + variables;
+  }
+}
@@ -0,0 +1,18 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import java.util.List;
+
+/**
+ * Base class of GraphQL responses, holding the errors reported by the server.
+ */
+public class GraphQLResponseDocument {
+  private List<GraphQLErrorDocument> errors;
+
+  public List<GraphQLErrorDocument> getErrors() {
+    return errors;
+  }
+
+  public void setErrors(List<GraphQLErrorDocument> errors) {
+    this.errors = errors;
+  }
+}
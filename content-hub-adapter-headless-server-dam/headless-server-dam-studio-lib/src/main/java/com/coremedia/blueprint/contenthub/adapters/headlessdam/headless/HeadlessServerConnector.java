@@ -12,22 +12,46 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpMessageConverterExtractor;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.io.InputStream;
 import java.net.URI;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  *
@@ -37,17 +61,76 @@ public class HeadlessServerConnector {
   public static final String GRAPH_QL_ENDPOINT = "graphql";
 
   private String headlessServerUrl;
+  private HeadlessTransport transport;
+  private ObjectMapper objectMapper;
   private RestTemplate restTemplate;
+  private RequestCoalescer requestCoalescer;
+  private ConditionalResponseCache conditionalResponseCache;
+  private ContentEncodingRequestFactory contentEncoding;
+  private ExecutorService asyncExecutor;
+  private Semaphore backgroundPermits;
+  private RequestGuard graphQlGuard;
+  private RequestGuard downloadGuard;
+  private URI graphQlUri;
+  private boolean persistedQueries;
 
   public HeadlessServerConnector(@NonNull String headlessServerUrl) {
+    this(headlessServerUrl, new HeadlessTransportSettings());
+  }
+
+  public HeadlessServerConnector(@NonNull String headlessServerUrl, @NonNull HeadlessTransportSettings settings) {
+    this(headlessServerUrl, settings.createTransport(), settings);
+  }
+
+  public HeadlessServerConnector(@NonNull String headlessServerUrl,
+                                 @NonNull HeadlessTransport transport,
+                                 @NonNull HeadlessTransportSettings settings) {
     this.headlessServerUrl = headlessServerUrl;
-    this.restTemplate = restTemplate();
+    this.transport = transport;
+    this.objectMapper = objectMapper();
+    this.contentEncoding = new ContentEncodingRequestFactory(transport.requestFactory(), settings.isCompression(),
+            settings.getRequestCompressionThreshold());
+    this.restTemplate = restTemplate(contentEncoding, objectMapper);
+    this.requestCoalescer = new RequestCoalescer(settings.getCoalescingTimeout());
+    this.conditionalResponseCache = settings.getConditionalRequestCacheSize() > 0
+            ? new ConditionalResponseCache(settings.getConditionalRequestCacheSize())
+            : null;
+    this.graphQlUri = URI.create((headlessServerUrl.endsWith("/") ? headlessServerUrl : headlessServerUrl + "/") + GRAPH_QL_ENDPOINT);
+    this.asyncExecutor = asyncExecutor(settings);
+    // background work never takes more than half of the asynchronous threads and queue slots
+    this.backgroundPermits = new Semaphore(Math.max(1, settings.getAsyncThreads() / 2));
+    this.graphQlGuard = new RequestGuard("GraphQL endpoint of '" + headlessServerUrl + "'", settings);
+    this.downloadGuard = new RequestGuard("downloads from '" + headlessServerUrl + "'", settings);
+  }
+
+  private HeadlessServerConnector(@NonNull HeadlessServerConnector connector, boolean persistedQueries) {
+    this.headlessServerUrl = connector.headlessServerUrl;
+    this.transport = connector.transport;
+    this.objectMapper = connector.objectMapper;
+    this.restTemplate = connector.restTemplate;
+    this.requestCoalescer = connector.requestCoalescer;
+    this.conditionalResponseCache = connector.conditionalResponseCache;
+    this.contentEncoding = connector.contentEncoding;
+    this.asyncExecutor = connector.asyncExecutor;
+    this.backgroundPermits = connector.backgroundPermits;
+    this.graphQlGuard = connector.graphQlGuard;
+    this.downloadGuard = connector.downloadGuard;
+    this.graphQlUri = connector.graphQlUri;
+    this.persistedQueries = persistedQueries;
+  }
+
+  /**
+   * Returns a connector sharing this connector's transport, which sends automatic persisted queries
+   * as cacheable GET requests if enabled. The returned connector must not be closed.
+   */
+  @NonNull
+  public HeadlessServerConnector withPersistedQueries(boolean enabled) {
+    return enabled == persistedQueries ? this : new HeadlessServerConnector(this, enabled);
   }
 
   @NonNull
-  private HttpEntity<String> buildRequestEntity(@NonNull String payload) {
-    String s = payload.replaceAll("\n", " ");
-    return new HttpEntity<>(s, buildHttpHeaders());
+  private HttpEntity<GraphQLRequest> buildRequestEntity(@NonNull GraphQLRequest request) {
+    return new HttpEntity<>(request, buildHttpHeaders());
   }
 
   @NonNull
@@ -61,7 +144,15 @@ public class HeadlessServerConnector {
 
   @Nullable
   public CMContentDocument getContent(@NonNull String id) {
-    Optional<QueryResponseDocument> queryResponseDocument = contentQuery(id);
+    return getContent(id, ContentField.ALL);
+  }
+
+  /**
+   * Returns the content with only the given fields set.
+   */
+  @Nullable
+  public CMContentDocument getContent(@NonNull String id, @NonNull Set<ContentField> fields) {
+    Optional<QueryResponseDocument> queryResponseDocument = contentQuery(id, fields);
     if (queryResponseDocument.isPresent()) {
       QueryResponseDocument responseDocument = queryResponseDocument.get();
       return responseDocument.getData().getContent();
@@ -69,9 +160,107 @@ public class HeadlessServerConnector {
     return null;
   }
 
+  /**
+   * Returns the content with only the given fields set, without blocking the calling thread.
+   *
+   * @param timeoutMillis the deadline after which the future fails with a {@link TimeoutException}, 0 for none
+   */
+  @NonNull
+  public CompletableFuture<Optional<CMContentDocument>> getContentAsync(@NonNull String id,
+                                                                        @NonNull Set<ContentField> fields,
+                                                                        long timeoutMillis) {
+    return supplyAsync(() -> Optional.ofNullable(getContent(id, fields)), timeoutMillis);
+  }
+
+  /**
+   * Returns the given fields of several contents, requesting up to batchSize contents per request.
+   * Contents which do not exist are missing from the returned map.
+   * <p>
+   * If there is more than one batch, the batches are requested in parallel. The first batch is requested by
+   * the calling thread, which also requests every batch that no asynchronous thread has started yet.
+   *
+   * @throws IllegalArgumentException if the batch size is not positive
+   */
+  @NonNull
+  public Map<String, CMTeaseableDocument> getContents(@NonNull Collection<String> ids,
+                                                      @NonNull Set<ContentField> fields,
+                                                      int batchSize) {
+    checkBatchSize(batchSize);
+    List<String> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+    List<FutureTask<Map<String, CMTeaseableDocument>>> batches = new ArrayList<>();
+    for (int start = batchSize; start < idList.size(); start += batchSize) {
+      List<String> batch = idList.subList(start, Math.min(start + batchSize, idList.size()));
+      FutureTask<Map<String, CMTeaseableDocument>> task = new FutureTask<>(() -> getBatch(batch, fields));
+      batches.add(task);
+      try {
+        asyncExecutor.execute(task);
+      } catch (RejectedExecutionException e) {
+        LOG.debug("Requesting batch in the calling thread: {}", e.getMessage());
+      }
+    }
+
+    Map<String, CMTeaseableDocument> result = new HashMap<>(getBatch(idList.subList(0, Math.min(batchSize, idList.size())), fields));
+    for (FutureTask<Map<String, CMTeaseableDocument>> task : batches) {
+      // a task which has been started already is not run again
+      task.run();
+      result.putAll(join(task));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the given fields of several contents, requesting the batches in parallel, without blocking the calling thread.
+   *
+   * @param timeoutMillis the deadline after which the future fails with a {@link TimeoutException}, 0 for none
+   * @throws IllegalArgumentException if the batch size is not positive
+   */
+  @NonNull
+  public CompletableFuture<Map<String, CMTeaseableDocument>> getContentsAsync(@NonNull Collection<String> ids,
+                                                                             @NonNull Set<ContentField> fields,
+                                                                             int batchSize,
+                                                                             long timeoutMillis) {
+    checkBatchSize(batchSize);
+    return supplyAsync(() -> getContents(ids, fields, batchSize), timeoutMillis);
+  }
+
+  private static void checkBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size " + batchSize);
+    }
+  }
+
+  @NonNull
+  private Map<String, CMTeaseableDocument> getBatch(@NonNull List<String> batch, @NonNull Set<ContentField> fields) {
+    if (batch.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    HttpEntity<GraphQLRequest> httpEntity = buildRequestEntity(new BatchContentQuery(batch, fields).toRequest());
+    Optional<BatchQueryResponseDocument> response = performRequest(httpEntity, BatchQueryResponseDocument.class);
+    Map<String, CMTeaseableDocument> contents = response
+            .map(BatchQueryResponseDocument::getData)
+            .map(BatchContentDocument::getContent)
+            .orElse(Collections.emptyMap());
+    Map<String, CMTeaseableDocument> result = new HashMap<>();
+    for (int i = 0; i < batch.size(); i++) {
+      CMTeaseableDocument content = contents.get(BatchContentQuery.alias(i));
+      if (content != null) {
+        result.put(batch.get(i), content);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns one page of the documents of the given type, sorted by modification date.
+   */
+  @Nullable
+  public CMContentDocument search(@NonNull String siteId, @NonNull String contentType, int offset, int limit) {
+    return search(new SearchQuery(siteId, contentType, offset, limit));
+  }
+
   @Nullable
-  public CMContentDocument search(@NonNull String siteId, @NonNull String contentType) {
-    Optional<QueryResponseDocument> queryResponseDocument = searchQuery(siteId, contentType);
+  public CMContentDocument search(@NonNull SearchQuery searchQuery) {
+    Optional<QueryResponseDocument> queryResponseDocument = searchQuery(searchQuery);
     if (queryResponseDocument.isPresent()) {
       QueryResponseDocument responseDocument = queryResponseDocument.get();
       return responseDocument.getData().getContent();
@@ -79,42 +268,418 @@ public class HeadlessServerConnector {
     return null;
   }
 
-  private Optional<QueryResponseDocument> contentQuery(@NonNull String id) {
-    String payload = new ContentQuery(id).toString();
-    HttpEntity<String> httpEntity = buildRequestEntity(payload);
+  /**
+   * Returns the number of documents of each of the given types, in one request which returns no documents.
+   * Types which could not be counted are missing from the returned map.
+   */
+  @NonNull
+  public Map<String, Integer> count(@NonNull String siteId, @NonNull List<String> docTypes) {
+    List<Integer> counts = count(new CountQuery(siteId, docTypes));
+    Map<String, Integer> result = new HashMap<>();
+    for (int i = 0; i < docTypes.size(); i++) {
+      if (counts.get(i) != null) {
+        result.put(docTypes.get(i), counts.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of documents found by each search of the query, in one request which returns no documents.
+   * The counts are in the order of the searches, searches which could not be counted have a null count.
+   */
+  @NonNull
+  public List<Integer> count(@NonNull CountQuery countQuery) {
+    HttpEntity<GraphQLRequest> httpEntity = buildRequestEntity(countQuery.toRequest());
+    Map<String, SearchResultDocument> searches = performRequest(httpEntity, CountQueryResponseDocument.class)
+            .map(CountQueryResponseDocument::getData)
+            .map(CountDocument::getContent)
+            .orElse(Collections.emptyMap());
+    List<Integer> result = new ArrayList<>();
+    for (int i = 0; i < countQuery.size(); i++) {
+      SearchResultDocument search = searches.get(CountQuery.alias(i));
+      result.add(search == null ? null : search.getNumFound());
+    }
+    return result;
+  }
+
+  /**
+   * Performs the search and passes the results to the consumer while the response is read.
+   * Identical concurrent searches share one request, the results are replayed to the consumers of the
+   * other callers once it has finished. The results are only recorded for that if another caller joins before
+   * they arrive, or if they are kept for conditional requests. If the server answers a revalidation with <code>304 Not Modified</code>,
+   * the results of the previous identical search are replayed, as they are if the server is unavailable.
+   *
+   * @return false if the headless server did not return a result
+   */
+  public boolean search(@NonNull SearchQuery searchQuery, @NonNull SearchResultConsumer consumer) {
+    HttpEntity<GraphQLRequest> requestEntity = buildRequestEntity(searchQuery.toRequest());
+    RecordingSearchResultConsumer recorder = new RecordingSearchResultConsumer(consumer, conditionalResponseCache != null);
+    List<Object> key = List.of(SearchResultConsumer.class, requestEntity.getBody(), persistedQueries);
+    RecordingSearchResultConsumer result = requestCoalescer.execute(key, () -> {
+      SearchResultStreamParser parser = new SearchResultStreamParser(objectMapper, recorder);
+      if (conditionalResponseCache == null) {
+        recorder.setFound(exchange(requestEntity, null, GraphQLResponseDocument.class, parser).isPresent());
+        return recorder;
+      }
+      ConditionalResponseCache.CachedResponse entry = conditionalResponseCache.get(key);
+      ResponseExtractor<GraphQLResponseDocument> extractor = response -> {
+        if (conditionalResponseCache.isNotModified(entry, response)) {
+          ((RecordingSearchResultConsumer) entry.getValue()).replay(recorder);
+          return new GraphQLResponseDocument();
+        }
+        if (isRevalidatable(response)) {
+          GraphQLResponseDocument document = parser.extractData(response);
+          if (document != null && !hasErrors(document)) {
+            conditionalResponseCache.put(key, response, null, recorder.detached());
+          }
+          return document;
+        }
+        // the body is hashed while it is streamed, so that the results are kept for the fallback
+        MessageDigest digest = ConditionalResponseCache.digest();
+        InputStream body = new DigestInputStream(response.getBody(), digest);
+        GraphQLResponseDocument document = parser.extractData(ConditionalResponseCache.withBody(response, StreamUtils.nonClosing(body)));
+        StreamUtils.drain(body);
+        if (document != null && !hasErrors(document)) {
+          conditionalResponseCache.put(key, response, digest.digest(), recorder.detached());
+        }
+        return document;
+      };
+      try {
+        recorder.setFound(exchange(requestEntity, entry, GraphQLResponseDocument.class, extractor).isPresent());
+      } catch (HeadlessServerUnavailableException e) {
+        // results which have been passed to the consumer already cannot be replaced by the cached ones
+        if (entry == null || recorder.isReceived()) {
+          throw e;
+        }
+        LOG.debug("Replaying cached search results: {}", e.getMessage());
+        ((RecordingSearchResultConsumer) conditionalResponseCache.fallback(entry)).replay(recorder);
+        recorder.setFound(true);
+      }
+      return recorder;
+    }, recorder::share);
+    if (result != recorder) {
+      result.replay(consumer);
+    }
+    return result.isFound();
+  }
+
+  /**
+   * Performs the search on an asynchronous thread. The consumer is called on that thread while the response is read.
+   *
+   * @param timeoutMillis the deadline after which the future fails with a {@link TimeoutException}, 0 for none
+   * @return a future of false if the headless server did not return a result
+   */
+  @NonNull
+  public CompletableFuture<Boolean> searchAsync(@NonNull SearchQuery searchQuery,
+                                                @NonNull SearchResultConsumer consumer,
+                                                long timeoutMillis) {
+    return supplyAsync(() -> search(searchQuery, consumer), timeoutMillis);
+  }
+
+  /**
+   * Runs work belonging to requests of this connector, like reading the downloaded binaries, on the bounded
+   * executor of the asynchronous requests.
+   * <p>
+   * If the returned future is cancelled or its deadline passes, the thread running the work is interrupted.
+   * Blocking reads are not interruptible, they end with the read timeout at the latest.
+   * If the executor is saturated, the future fails with a {@link RejectedExecutionException}.
+   *
+   * @param timeoutMillis the deadline after which the future fails with a {@link TimeoutException}, 0 for none
+   */
+  @NonNull
+  public <T> CompletableFuture<T> supplyAsync(@NonNull Supplier<T> work, long timeoutMillis) {
+    return submit(work, timeoutMillis, null);
+  }
+
+  /**
+   * Runs optional work, like prefetching binaries, which must not delay the work of interactive requests.
+   * Like {@link #supplyAsync(Supplier, long)}, but only up to half of the asynchronous threads run background work
+   * or hold it in the queue. Beyond that, the future fails with a {@link RejectedExecutionException} right away.
+   *
+   * @param timeoutMillis the deadline after which the work is cancelled and the future fails with a {@link TimeoutException}
+   */
+  @NonNull
+  public <T> CompletableFuture<T> supplyInBackground(@NonNull Supplier<T> work, long timeoutMillis) {
+    if (!backgroundPermits.tryAcquire()) {
+      return CompletableFuture.failedFuture(new RejectedExecutionException("Too much background work for '" + headlessServerUrl + "'"));
+    }
+    return submit(work, timeoutMillis, backgroundPermits::release);
+  }
+
+  /**
+   * @param onDone called exactly once, when the work has finished or has been cancelled before it started
+   */
+  @NonNull
+  private <T> CompletableFuture<T> submit(@NonNull Supplier<T> work, long timeoutMillis, @Nullable Runnable onDone) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicBoolean claimed = new AtomicBoolean();
+    FutureTask<Void> task = new FutureTask<>(() -> {
+      if (!claimed.compareAndSet(false, true)) {
+        return null;
+      }
+      try {
+        result.complete(work.get());
+      } catch (RuntimeException | Error e) {
+        result.completeExceptionally(e);
+      } finally {
+        if (onDone != null) {
+          onDone.run();
+        }
+      }
+      return null;
+    }) {
+      @Override
+      protected void done() {
+        // a task cancelled before it started never runs the work
+        if (onDone != null && claimed.compareAndSet(false, true)) {
+          onDone.run();
+        }
+      }
+    };
+    try {
+      asyncExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      task.cancel(false);
+      result.completeExceptionally(e);
+      return result;
+    }
+    result.whenComplete((value, e) -> {
+      if (e instanceof CancellationException || e instanceof TimeoutException) {
+        task.cancel(true);
+      }
+    });
+    return timeoutMillis > 0 ? result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS) : result;
+  }
+
+  private Optional<QueryResponseDocument> contentQuery(@NonNull String id, @NonNull Set<ContentField> fields) {
+    HttpEntity<GraphQLRequest> httpEntity = buildRequestEntity(new ContentQuery(id, fields).toRequest());
     return performRequest(httpEntity, QueryResponseDocument.class);
   }
 
-  private Optional<QueryResponseDocument> searchQuery(@NonNull String siteId, String contentType) {
-    String payload = new SearchQuery(siteId, contentType).toString();
-    HttpEntity<String> httpEntity = buildRequestEntity(payload);
+  private Optional<QueryResponseDocument> searchQuery(@NonNull SearchQuery searchQuery) {
+    HttpEntity<GraphQLRequest> httpEntity = buildRequestEntity(searchQuery.toRequest());
     return performRequest(httpEntity, QueryResponseDocument.class);
   }
 
+  /**
+   * Downloads a binary, like a rendered picture, from the headless server. The extractor reads the response,
+   * including a <code>304 Not Modified</code> response to a conditional request.
+   *
+   * @param url     the absolute URL of the binary
+   * @param headers additional request headers, e.g. <code>If-None-Match</code>
+   * @return empty if the binary does not exist
+   */
+  @NonNull
+  public <T> Optional<T> download(@NonNull String url, @NonNull HttpHeaders headers, @NonNull ResponseExtractor<T> extractor) {
+    HttpHeaders requestHeaders = new HttpHeaders();
+    requestHeaders.setAccept(List.of(MediaType.ALL));
+    requestHeaders.putAll(headers);
+    return makeExchange(URI.create(url), HttpMethod.GET, new HttpEntity<>(requestHeaders), byte[].class, extractor);
+  }
+
+  /**
+   * Returns the number of requests which have been sent to the headless server.
+   */
+  public long getExecutedRequestCount() {
+    return requestCoalescer.getExecutedCount();
+  }
+
+  /**
+   * Returns the number of requests which have been answered by an identical request already in flight.
+   */
+  public long getCoalescedRequestCount() {
+    return requestCoalescer.getCoalescedCount();
+  }
+
+  /**
+   * Returns the number of response bytes which have been received, before decompression.
+   */
+  public long getWireBytes() {
+    return contentEncoding.getWireBytes();
+  }
+
+  /**
+   * Returns the number of response bytes after decompression.
+   */
+  public long getDecodedBytes() {
+    return contentEncoding.getDecodedBytes();
+  }
+
+  /**
+   * Returns the compression counters, bytes on the wire and decode times of the responses.
+   */
+  @NonNull
+  public String getTransferStatistics() {
+    return contentEncoding.toString();
+  }
+
+  /**
+   * Returns the number of requests which have been answered with <code>304 Not Modified</code>.
+   */
+  public long getNotModifiedRequestCount() {
+    return conditionalResponseCache == null ? 0 : conditionalResponseCache.getNotModifiedCount();
+  }
+
+  /**
+   * Returns the number of responses without validators which have been identical to the previous response.
+   */
+  public long getUnchangedResponseCount() {
+    return conditionalResponseCache == null ? 0 : conditionalResponseCache.getUnchangedBodyCount();
+  }
+
+  /**
+   * Returns the number of requests which have been answered with a cached response, because the server was unavailable.
+   */
+  public long getFallbackResponseCount() {
+    return conditionalResponseCache == null ? 0 : conditionalResponseCache.getFallbackCount();
+  }
+
+  /**
+   * Returns whether the circuit breaker of the GraphQL endpoint lets requests through.
+   */
+  public boolean isAvailable() {
+    return graphQlGuard.getState() != CircuitBreaker.State.OPEN;
+  }
+
+  /**
+   * Returns the state of the circuit breakers and the concurrency limits of the endpoints.
+   */
   @NonNull
-  private <T> Optional<T> performRequest(@NonNull HttpEntity<String> requestEntity,
+  public String getProtectionStatistics() {
+    return graphQlGuard + ", " + downloadGuard + ", fallbacks=" + getFallbackResponseCount();
+  }
+
+  /**
+   * Performs the request. Identical concurrent requests share one exchange and one response object.
+   * If the server is unavailable, the request is answered with the last response to it, if there is one.
+   */
+  @NonNull
+  private <T> Optional<T> performRequest(@NonNull HttpEntity<GraphQLRequest> requestEntity,
                                          @NonNull Class<T> responseType) {
-    Optional<ResponseEntity<T>> responseEntityOptional = makeExchange(requestEntity, responseType);
-    if (responseEntityOptional.isEmpty()) {
-      return Optional.empty();
+    List<Object> key = List.of(responseType, requestEntity.getBody(), persistedQueries);
+    HttpMessageConverterExtractor<T> extractor = new HttpMessageConverterExtractor<>(responseType, restTemplate.getMessageConverters());
+    if (conditionalResponseCache == null) {
+      return requestCoalescer.execute(key, () -> exchange(requestEntity, null, responseType, extractor));
     }
-    ResponseEntity<T> responseEntity = responseEntityOptional.get();
-    T responseBody = responseEntity.getBody();
-    return Optional.ofNullable(responseBody);
+    return requestCoalescer.execute(key, () -> {
+      ConditionalResponseCache.CachedResponse entry = conditionalResponseCache.get(key);
+      try {
+        return exchange(requestEntity, entry, responseType, conditionalExtractor(key, entry, responseType, extractor));
+      } catch (HeadlessServerUnavailableException e) {
+        if (entry == null) {
+          throw e;
+        }
+        LOG.debug("Answering with a cached response: {}", e.getMessage());
+        return Optional.of(responseType.cast(conditionalResponseCache.fallback(entry)));
+      }
+    });
+  }
+
+  /**
+   * Wraps the extractor, so that a <code>304 Not Modified</code> response or an unchanged body is answered
+   * with the cached response object, and new responses are cached.
+   */
+  @NonNull
+  private <T> ResponseExtractor<T> conditionalExtractor(@NonNull Object key,
+                                                        @Nullable ConditionalResponseCache.CachedResponse entry,
+                                                        @NonNull Class<T> responseType,
+                                                        @NonNull ResponseExtractor<T> extractor) {
+    return response -> {
+      if (conditionalResponseCache.isNotModified(entry, response)) {
+        return responseType.cast(entry.getValue());
+      }
+      if (isRevalidatable(response)) {
+        T value = extractor.extractData(response);
+        if (value != null && !hasErrors(value)) {
+          conditionalResponseCache.put(key, response, null, value);
+        }
+        return value;
+      }
+
+      byte[] body = StreamUtils.copyToByteArray(response.getBody());
+      byte[] bodyHash = ConditionalResponseCache.hash(body);
+      if (conditionalResponseCache.isUnchanged(entry, bodyHash)) {
+        return responseType.cast(entry.getValue());
+      }
+      T value = extractor.extractData(ConditionalResponseCache.buffered(response, body));
+      if (value != null && !hasErrors(value)) {
+        conditionalResponseCache.put(key, response, bodyHash, value);
+      }
+      return value;
+    };
+  }
+
+  /**
+   * Returns whether the response can be revalidated with its validators. Validators are only sent with the
+   * <code>GET</code> requests of persisted queries: a <code>POST</code> with a matching precondition is answered
+   * with <code>412 Precondition Failed</code>, so responses to <code>POST</code> requests are compared by their body hash.
+   */
+  private boolean isRevalidatable(@NonNull ClientHttpResponse response) {
+    return persistedQueries && ConditionalResponseCache.hasValidators(response);
+  }
+
+  private static boolean hasErrors(@NonNull Object response) {
+    return response instanceof GraphQLResponseDocument
+            && ((GraphQLResponseDocument) response).getErrors() != null
+            && !((GraphQLResponseDocument) response).getErrors().isEmpty();
   }
 
+  /**
+   * Sends the request as a <code>POST</code>, or as the <code>GET</code> of a persisted query.
+   *
+   * @param entry the cached response whose validators are sent with a <code>GET</code> request
+   */
+  @NonNull
+  private <T> Optional<T> exchange(@NonNull HttpEntity<GraphQLRequest> requestEntity,
+                                   @Nullable ConditionalResponseCache.CachedResponse entry,
+                                   @NonNull Class<T> responseType,
+                                   @NonNull ResponseExtractor<T> extractor) {
+    if (!persistedQueries) {
+      return makeExchange(graphQlUri, HttpMethod.POST, requestEntity, responseType, extractor);
+    }
 
+    GraphQLRequest request = Objects.requireNonNull(requestEntity.getBody());
+    URI persistedQueryUri = PersistedQueries.uri(graphQlUri, request, objectMapper);
+    HttpHeaders getHeaders = new HttpHeaders();
+    getHeaders.putAll(requestEntity.getHeaders());
+    ConditionalResponseCache.addValidators(getHeaders, entry);
+    HttpEntity<Void> getEntity = new HttpEntity<>(getHeaders);
+    Optional<T> response = makeExchange(persistedQueryUri, HttpMethod.GET, getEntity, responseType, extractor);
+    if (response.isPresent() && PersistedQueries.isNotFound(response.get())) {
+      LOG.debug("Registering persisted query {} at '{}'", PersistedQueries.hash(request.getQuery()), headlessServerUrl);
+      PersistedGraphQLRequest registration = new PersistedGraphQLRequest(request, PersistedQueries.hash(request.getQuery()));
+      HttpEntity<GraphQLRequest> registrationEntity = new HttpEntity<>(registration, requestEntity.getHeaders());
+      response = makeExchange(graphQlUri, HttpMethod.POST, registrationEntity, responseType, extractor);
+    }
+    return response;
+  }
+
+  /**
+   * Performs the request, guarded by the circuit breaker and the concurrency limit of its endpoint.
+   *
+   * @throws HeadlessServerUnavailableException if the server failed with a server error or did not answer in time,
+   *                                            or if the guard of the endpoint rejected the request
+   * @throws HeadlessServerException            if the server rejected the request with another client error
+   * @throws RuntimeException                   if the response could not be read, which counts as a failure
+   */
   @NonNull
-  private <T> Optional<ResponseEntity<T>> makeExchange(@NonNull HttpEntity<String> requestEntity,
-                                                       @NonNull Class<T> responseType) {
+  private <T> Optional<T> makeExchange(@NonNull URI uri,
+                                       @NonNull HttpMethod method,
+                                       @NonNull HttpEntity<?> requestEntity,
+                                       @NonNull Class<?> responseType,
+                                       @NonNull ResponseExtractor<T> extractor) {
+    RequestGuard guard = uri.getPath().equals(graphQlUri.getPath()) ? graphQlGuard : downloadGuard;
+    RequestGuard.Permit permit = guard.acquire();
+    boolean failed = false;
     try {
-      String url = headlessServerUrl;
-      if (!url.endsWith("/")) {
-        url += "/";
-      }
-      URI uri = URI.create(url + GRAPH_QL_ENDPOINT);
-      ResponseEntity<T> responseEntity = restTemplate.exchange(uri, HttpMethod.POST, requestEntity, responseType);
-      return Optional.of(responseEntity);
+      RequestCallback requestCallback = restTemplate.httpEntityCallback(requestEntity, responseType);
+      return Optional.ofNullable(restTemplate.execute(uri, method, requestCallback, extractor));
+    } catch (ResourceAccessException ex) {
+      failed = true;
+      LOG.warn("Headless call to '{}' failed: {}", headlessServerUrl, ex.getMessage());
+      throw new HeadlessServerUnavailableException(
+              String.format("REST call to '%s' failed. Exception: %s", headlessServerUrl, ex.getMessage()), ex);
     } catch (HttpStatusCodeException ex) {
       LOG.error("Headless REST request failed: {}", ex.getResponseBodyAsString());
       HttpStatus statusCode = ex.getStatusCode();
@@ -129,61 +694,80 @@ public class HeadlessServerConnector {
       }
 
       LOG.warn("Headless call to '{}' failed. Exception:\n{}", headlessServerUrl, ex.getMessage());
-      throw new UnsupportedOperationException(
-              String.format("REST call to '%s' failed. Exception: %s", headlessServerUrl, ex.getMessage()), ex);
+      String message = String.format("REST call to '%s' failed. Exception: %s", headlessServerUrl, ex.getMessage());
+      if (statusCode.is5xxServerError() || statusCode == HttpStatus.TOO_MANY_REQUESTS) {
+        failed = true;
+        throw new HeadlessServerUnavailableException(message, ex);
+      }
+      throw new HeadlessServerException(message, ex);
+    } catch (RuntimeException ex) {
+      // e.g. an unreadable response, client errors thrown above are not caught here and do not count
+      failed = true;
+      throw ex;
+    } finally {
+      permit.release(failed);
     }
   }
 
-  public RestTemplate restTemplate() {
+  /**
+   * Releases the connections of the underlying transport.
+   */
+  public void close() {
+    asyncExecutor.shutdownNow();
+    transport.close();
+  }
+
+  @NonNull
+  private static <T> T join(@NonNull FutureTask<T> task) {
     try {
-      // configure date (de)serialization
-      ObjectMapper objectMapper = new ObjectMapper();
-      objectMapper.registerModule(new JavaTimeModule());
-      objectMapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
-      objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-
-      objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
-      // configure template
-      HostnameVerifier PROMISCUOUS_VERIFIER = (s, sslSession) -> true;
-      // Create a trust manager that does not validate certificate chains
-      TrustManager[] trustAllCerts = new TrustManager[]{
-              new X509TrustManager() {
-                public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-                  return null;
-                }
-
-                public void checkClientTrusted(
-                        java.security.cert.X509Certificate[] certs, String authType) {
-                }
-
-                public void checkServerTrusted(
-                        java.security.cert.X509Certificate[] certs, String authType) {
-                }
-              }
-      };
-      SSLContext sc = SSLContext.getInstance("SSL");
-      sc.init(null, trustAllCerts, new java.security.SecureRandom());
-
-      restTemplate = new RestTemplate(new BufferingClientHttpRequestFactory(new SimpleClientHttpRequestFactory()));
-      restTemplate.setRequestFactory(new SimpleClientHttpRequestFactory() {
-        @Override
-        protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
-          if (connection instanceof HttpsURLConnection) {
-            ((HttpsURLConnection) connection).setSSLSocketFactory(sc.getSocketFactory());
-            ((HttpsURLConnection) connection).setHostnameVerifier(PROMISCUOUS_VERIFIER);
-          }
-          super.prepareConnection(connection, httpMethod);
-        }
-      });
-      MappingJackson2HttpMessageConverter messageConverter = new MappingJackson2HttpMessageConverter();
-      messageConverter.setPrettyPrint(true);
-      messageConverter.setObjectMapper(objectMapper);
-      restTemplate.getMessageConverters().removeIf(m -> m.getClass().isAssignableFrom(MappingJackson2HttpMessageConverter.class));
-      restTemplate.getMessageConverters().add(messageConverter);
-    } catch (Exception e) {
-      LOG.error("Failed to build rest template: {}", e.getMessage(), e);
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a batched content request", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Batched content request failed: " + cause.getMessage(), cause);
     }
+  }
+
+  @NonNull
+  private static ExecutorService asyncExecutor(@NonNull HeadlessTransportSettings settings) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "headless-connector-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(settings.getAsyncThreads(), settings.getAsyncThreads(),
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(settings.getAsyncQueueCapacity()), threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  @NonNull
+  private static ObjectMapper objectMapper() {
+    // configure date (de)serialization
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+    objectMapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
+    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    return objectMapper;
+  }
+
+  @NonNull
+  private static RestTemplate restTemplate(@NonNull ContentEncodingRequestFactory requestFactory,
+                                           @NonNull ObjectMapper objectMapper) {
+    // no interceptors, they would make the RestTemplate buffer every request body
+    RestTemplate restTemplate = new RestTemplate(requestFactory);
+    MappingJackson2HttpMessageConverter messageConverter = new MappingJackson2HttpMessageConverter();
+    messageConverter.setObjectMapper(objectMapper);
+    restTemplate.getMessageConverters().removeIf(m -> m.getClass().isAssignableFrom(MappingJackson2HttpMessageConverter.class));
+    restTemplate.getMessageConverters().add(messageConverter);
     return restTemplate;
   }
 }
@@ -0,0 +1,88 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares one {@link HeadlessServerConnector} per headless server URL and transport settings between all connections.
+ * Connections to the same URL with different transport settings get connectors of their own.
+ * <p>
+ * Connectors are reference counted: every {@link #acquire(String, HeadlessTransportSettings)} must be
+ * matched by a {@link #release(HeadlessServerConnector)}. The connector and its connection pool are closed
+ * when the last connection using it has been released. The settings must not be changed once they have
+ * been passed to {@link #acquire(String, HeadlessTransportSettings)}.
+ */
+public class HeadlessServerConnectorRegistry implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(HeadlessServerConnectorRegistry.class);
+
+  private final Map<List<Object>, Entry> entries = new HashMap<>();
+
+  @NonNull
+  public synchronized HeadlessServerConnector acquire(@NonNull String headlessServerUrl,
+                                                      @NonNull HeadlessTransportSettings transportSettings) {
+    List<Object> key = List.of(headlessServerUrl, transportSettings);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      LOG.info("Creating headless server connector for '{}'", headlessServerUrl);
+      HeadlessServerConnector connector = new HeadlessServerConnector(headlessServerUrl, transportSettings);
+      entry = new Entry(headlessServerUrl, connector);
+      entries.put(key, entry);
+    }
+    entry.references++;
+    return entry.connector;
+  }
+
+  /**
+   * Releases a connector returned by {@link #acquire(String, HeadlessTransportSettings)}.
+   */
+  public synchronized void release(@NonNull HeadlessServerConnector connector) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.connector == connector) {
+        entry.references--;
+        if (entry.references <= 0) {
+          LOG.info("Closing headless server connector for '{}'", entry.headlessServerUrl);
+          iterator.remove();
+          entry.connector.close();
+        }
+        return;
+      }
+    }
+    LOG.warn("Released headless server connector which is not registered");
+  }
+
+  /**
+   * Returns the number of connections currently using a connector for the given URL.
+   */
+  public synchronized int getReferenceCount(@NonNull String headlessServerUrl) {
+    return entries.values().stream()
+            .filter(entry -> entry.headlessServerUrl.equals(headlessServerUrl))
+            .mapToInt(entry -> entry.references)
+            .sum();
+  }
+
+  @Override
+  public synchronized void close() {
+    entries.values().forEach(entry -> entry.connector.close());
+    entries.clear();
+  }
+
+  private static class Entry {
+    private final String headlessServerUrl;
+    private final HeadlessServerConnector connector;
+    private int references;
+
+    private Entry(String headlessServerUrl, HeadlessServerConnector connector) {
+      this.headlessServerUrl = headlessServerUrl;
+      this.connector = connector;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+/**
+ * Thrown if the headless server did not answer a request, e.g. because it rejected the request with a client error.
+ *
+ * @see HeadlessServerUnavailableException
+ */
+public class HeadlessServerException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public HeadlessServerException(String message) {
+    super(message);
+  }
+
+  public HeadlessServerException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,18 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+/**
+ * Thrown if the headless server cannot answer a request, because it failed with a server error or timed out,
+ * because its circuit breaker is open, or because too many requests to it are in flight. The request may succeed
+ * once the server has recovered.
+ */
+public class HeadlessServerUnavailableException extends HeadlessServerException {
+  private static final long serialVersionUID = 1L;
+
+  public HeadlessServerUnavailableException(String message) {
+    super(message);
+  }
+
+  public HeadlessServerUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,24 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.Closeable;
+
+/**
+ * The HTTP layer used by the {@link HeadlessServerConnector} to talk to the headless server.
+ */
+public interface HeadlessTransport extends Closeable {
+
+  /**
+   * Returns the request factory the connector's rest template is built on.
+   */
+  @NonNull
+  ClientHttpRequestFactory requestFactory();
+
+  /**
+   * Releases the connections held by this transport.
+   */
+  @Override
+  void close();
+}
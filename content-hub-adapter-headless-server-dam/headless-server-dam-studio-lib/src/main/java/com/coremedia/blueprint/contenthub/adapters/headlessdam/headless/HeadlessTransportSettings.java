@@ -0,0 +1,277 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Objects;
+
+/**
+ * Connection settings of a {@link HeadlessTransport}.
+ * All timeouts are given in milliseconds. Settings are equal if all of their values are equal.
+ */
+public class HeadlessTransportSettings {
+  public static final String TRANSPORT_POOLED = "pooled";
+  public static final String TRANSPORT_SIMPLE = "simple";
+
+  private String transport = TRANSPORT_POOLED;
+  private int connectTimeout = 5000;
+  private int readTimeout = 30000;
+  private int connectionRequestTimeout = 5000;
+  private int maxConnections = 50;
+  private int maxConnectionsPerRoute = 20;
+  private int idleConnectionTimeout = 30000;
+  private int coalescingTimeout = 35000;
+  private int conditionalRequestCacheSize = 100;
+  private boolean compression = true;
+  private int requestCompressionThreshold = 0;
+  private int asyncThreads = 8;
+  private int asyncQueueCapacity = 200;
+  private int circuitBreakerFailureThreshold = 5;
+  private int circuitBreakerOpenDuration = 30000;
+  private int maxConcurrentRequests = 20;
+  private int concurrencyLatencyThreshold = 5000;
+  private int concurrencyWaitTimeout = 1000;
+
+  public String getTransport() {
+    return transport;
+  }
+
+  public void setTransport(String transport) {
+    this.transport = transport;
+  }
+
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  public int getReadTimeout() {
+    return readTimeout;
+  }
+
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  public int getConnectionRequestTimeout() {
+    return connectionRequestTimeout;
+  }
+
+  public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+    this.connectionRequestTimeout = connectionRequestTimeout;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public void setMaxConnections(int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+  }
+
+  public int getIdleConnectionTimeout() {
+    return idleConnectionTimeout;
+  }
+
+  public void setIdleConnectionTimeout(int idleConnectionTimeout) {
+    this.idleConnectionTimeout = idleConnectionTimeout;
+  }
+
+  /**
+   * The time a request waits for the result of an identical request which is already in flight.
+   */
+  public int getCoalescingTimeout() {
+    return coalescingTimeout;
+  }
+
+  public void setCoalescingTimeout(int coalescingTimeout) {
+    this.coalescingTimeout = coalescingTimeout;
+  }
+
+  /**
+   * The number of query responses which are kept for revalidation with conditional requests, 0 disables them.
+   */
+  public int getConditionalRequestCacheSize() {
+    return conditionalRequestCacheSize;
+  }
+
+  public void setConditionalRequestCacheSize(int conditionalRequestCacheSize) {
+    this.conditionalRequestCacheSize = conditionalRequestCacheSize;
+  }
+
+  /**
+   * Whether gzip or deflate encoded responses are accepted.
+   */
+  public boolean isCompression() {
+    return compression;
+  }
+
+  public void setCompression(boolean compression) {
+    this.compression = compression;
+  }
+
+  /**
+   * The size in bytes from which request bodies are sent gzip encoded, 0 disables request compression.
+   * The headless server must be configured to accept compressed requests.
+   */
+  public int getRequestCompressionThreshold() {
+    return requestCompressionThreshold;
+  }
+
+  public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+    this.requestCompressionThreshold = requestCompressionThreshold;
+  }
+
+  /**
+   * The number of threads performing asynchronous requests of the connector.
+   */
+  public int getAsyncThreads() {
+    return asyncThreads;
+  }
+
+  public void setAsyncThreads(int asyncThreads) {
+    this.asyncThreads = asyncThreads;
+  }
+
+  /**
+   * The number of asynchronous requests which may wait for a thread, further requests are rejected.
+   */
+  public int getAsyncQueueCapacity() {
+    return asyncQueueCapacity;
+  }
+
+  public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+    this.asyncQueueCapacity = asyncQueueCapacity;
+  }
+
+  /**
+   * The number of consecutive failed requests to an endpoint which open its circuit breaker, 0 disables it.
+   */
+  public int getCircuitBreakerFailureThreshold() {
+    return circuitBreakerFailureThreshold;
+  }
+
+  public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+    this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+  }
+
+  /**
+   * The time an open circuit breaker rejects requests before it lets a probe request through.
+   */
+  public int getCircuitBreakerOpenDuration() {
+    return circuitBreakerOpenDuration;
+  }
+
+  public void setCircuitBreakerOpenDuration(int circuitBreakerOpenDuration) {
+    this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+  }
+
+  /**
+   * The maximum number of requests in flight per endpoint, 0 disables the limit.
+   * The actual limit is lowered while requests are slow or fail.
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * The latency from which a request lowers the concurrency limit of its endpoint.
+   */
+  public int getConcurrencyLatencyThreshold() {
+    return concurrencyLatencyThreshold;
+  }
+
+  public void setConcurrencyLatencyThreshold(int concurrencyLatencyThreshold) {
+    this.concurrencyLatencyThreshold = concurrencyLatencyThreshold;
+  }
+
+  /**
+   * The time a request waits for a slot of the concurrency limit before it is rejected.
+   */
+  public int getConcurrencyWaitTimeout() {
+    return concurrencyWaitTimeout;
+  }
+
+  public void setConcurrencyWaitTimeout(int concurrencyWaitTimeout) {
+    this.concurrencyWaitTimeout = concurrencyWaitTimeout;
+  }
+
+  /**
+   * Creates the transport selected by {@link #getTransport()}.
+   */
+  @NonNull
+  public HeadlessTransport createTransport() {
+    if (TRANSPORT_SIMPLE.equals(transport)) {
+      return new SimpleHeadlessTransport(this);
+    }
+    if (!TRANSPORT_POOLED.equals(transport)) {
+      throw new IllegalArgumentException("Unknown headless transport '" + transport + "'");
+    }
+    return new PooledHeadlessTransport(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    HeadlessTransportSettings that = (HeadlessTransportSettings) o;
+    return Objects.equals(transport, that.transport) &&
+            connectTimeout == that.connectTimeout &&
+            readTimeout == that.readTimeout &&
+            connectionRequestTimeout == that.connectionRequestTimeout &&
+            maxConnections == that.maxConnections &&
+            maxConnectionsPerRoute == that.maxConnectionsPerRoute &&
+            idleConnectionTimeout == that.idleConnectionTimeout &&
+            coalescingTimeout == that.coalescingTimeout &&
+            conditionalRequestCacheSize == that.conditionalRequestCacheSize &&
+            compression == that.compression &&
+            requestCompressionThreshold == that.requestCompressionThreshold &&
+            asyncThreads == that.asyncThreads &&
+            asyncQueueCapacity == that.asyncQueueCapacity &&
+            circuitBreakerFailureThreshold == that.circuitBreakerFailureThreshold &&
+            circuitBreakerOpenDuration == that.circuitBreakerOpenDuration &&
+            maxConcurrentRequests == that.maxConcurrentRequests &&
+            concurrencyLatencyThreshold == that.concurrencyLatencyThreshold &&
+            concurrencyWaitTimeout == that.concurrencyWaitTimeout;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(transport,
+            connectTimeout,
+            readTimeout,
+            connectionRequestTimeout,
+            maxConnections,
+            maxConnectionsPerRoute,
+            idleConnectionTimeout,
+            coalescingTimeout,
+            conditionalRequestCacheSize,
+            compression,
+            requestCompressionThreshold,
+            asyncThreads,
+            asyncQueueCapacity,
+            circuitBreakerFailureThreshold,
+            circuitBreakerOpenDuration,
+            maxConcurrentRequests,
+            concurrencyLatencyThreshold,
+            concurrencyWaitTimeout);
+  }
+}
@@ -0,0 +1,21 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Map;
+
+/**
+ * A GraphQL request which registers its query as automatic persisted query under the query's hash.
+ */
+class PersistedGraphQLRequest extends GraphQLRequest {
+  private final Map<String, Object> extensions;
+
+  PersistedGraphQLRequest(@NonNull GraphQLRequest request, @NonNull String hash) {
+    super(request.getQuery(), request.getVariables());
+    this.extensions = PersistedQueries.extensions(hash);
+  }
+
+  public Map<String, Object> getExtensions() {
+    return extensions;
+  }
+}
@@ -0,0 +1,98 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Support for automatic persisted queries.
+ * <p>
+ * A persisted query is sent as GET request with the SHA-256 hash of the query text instead of the query,
+ * so that HTTP caches in front of the headless server can cache the response. If the server does not know
+ * the hash yet, the query is sent once more as POST request together with its hash, which registers it.
+ */
+final class PersistedQueries {
+  private static final String NOT_FOUND_MESSAGE = "PersistedQueryNotFound";
+  private static final String NOT_FOUND_CODE = "PERSISTED_QUERY_NOT_FOUND";
+
+  private static final ConcurrentMap<String, String> HASHES = new ConcurrentHashMap<>();
+
+  private PersistedQueries() {
+  }
+
+  /**
+   * Returns the hex encoded SHA-256 hash of the query text.
+   */
+  @NonNull
+  static String hash(@NonNull String query) {
+    return HASHES.computeIfAbsent(query, PersistedQueries::sha256);
+  }
+
+  @NonNull
+  static Map<String, Object> extensions(@NonNull String hash) {
+    return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+  }
+
+  /**
+   * Returns the GET URI which executes the request by the hash of its query.
+   */
+  @NonNull
+  static URI uri(@NonNull URI graphQlUri, @NonNull GraphQLRequest request, @NonNull ObjectMapper objectMapper) {
+    try {
+      String variables = objectMapper.writeValueAsString(request.getVariables());
+      String extensions = objectMapper.writeValueAsString(extensions(hash(request.getQuery())));
+      return UriComponentsBuilder.fromUri(graphQlUri)
+              .queryParam("variables", "{variables}")
+              .queryParam("extensions", "{extensions}")
+              .encode()
+              .buildAndExpand(variables, extensions)
+              .toUri();
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Failed to serialize persisted query request: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns whether the server answered that it does not know the query hash.
+   */
+  static boolean isNotFound(Object response) {
+    if (!(response instanceof GraphQLResponseDocument)) {
+      return false;
+    }
+    List<GraphQLErrorDocument> errors = ((GraphQLResponseDocument) response).getErrors();
+    if (errors == null) {
+      return false;
+    }
+    for (GraphQLErrorDocument error : errors) {
+      Object code = error.getExtensions() == null ? null : error.getExtensions().get("code");
+      if (NOT_FOUND_MESSAGE.equals(error.getMessage()) || NOT_FOUND_CODE.equals(code)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @NonNull
+  private static String sha256(@NonNull String query) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+}
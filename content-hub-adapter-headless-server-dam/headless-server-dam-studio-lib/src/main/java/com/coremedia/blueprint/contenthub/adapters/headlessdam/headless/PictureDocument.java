@@ -1,21 +1,46 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
+
 import java.util.List;
 
 /**
  *
  */
 public class PictureDocument {
-  private String uriTemplate;
+  private String uriTemplatePrefix;
+  private String uriTemplateSuffix;
   private List<CropDocument> crops;
   private BlobDocument data;
 
+  /**
+   * Returns the shared prefix of the URI template.
+   */
+  String getUriTemplatePrefix() {
+    return uriTemplatePrefix;
+  }
+
   public String getUriTemplate() {
-    return uriTemplate;
+    if (uriTemplateSuffix == null) {
+      return uriTemplatePrefix;
+    }
+    return uriTemplatePrefix + uriTemplateSuffix;
   }
 
+  /**
+   * Stores the URI template as a shared prefix, which is the same for all pictures, and an individual suffix.
+   * The prefix ends before the first path segment made only of digits, which is the asset id, or before the first
+   * placeholder, e.g. "/caas/v1/media/" of "/caas/v1/media/4/data/{cropName}/{width}".
+   */
   public void setUriTemplate(String uriTemplate) {
-    this.uriTemplate = uriTemplate;
+    int split = uriTemplate == null ? -1 : prefixLength(uriTemplate);
+    if (split <= 0) {
+      this.uriTemplatePrefix = uriTemplate;
+      this.uriTemplateSuffix = null;
+      return;
+    }
+    this.uriTemplatePrefix = DocumentPool.uriTemplatePrefix(uriTemplate.substring(0, split));
+    this.uriTemplateSuffix = uriTemplate.substring(split);
   }
 
   public List<CropDocument> getCrops() {
@@ -23,7 +48,7 @@ public class PictureDocument {
   }
 
   public void setCrops(List<CropDocument> crops) {
-    this.crops = crops;
+    this.crops = DocumentPool.crops(crops);
   }
 
   public BlobDocument getData() {
@@ -34,12 +59,39 @@ public class PictureDocument {
     this.data = data;
   }
 
+  /**
+   * Returns the URL of the first crop in its minimal width, or null if the picture has no crops or URI template.
+   */
+  @Nullable
   public String getDefaultImageUrl(String headlessServerUrl) {
+    if (crops == null || crops.isEmpty() || crops.get(0) == null) {
+      return null;
+    }
     CropDocument cropDocument = crops.get(0);
-    String variant = cropDocument.getName();
-    int size = cropDocument.getMinWidth();
+    return getImageUrl(headlessServerUrl, cropDocument.getName(), cropDocument.getMinWidth());
+  }
 
-    String url = uriTemplate.replace("{cropName}", variant);
+  /**
+   * Returns the URL of the rendition which fills a box of the given size with the fewest pixels,
+   * or null if the picture has no crops or URI template.
+   *
+   * @see RenditionSelector
+   */
+  @Nullable
+  public String getImageUrl(String headlessServerUrl, int boxWidth, int boxHeight) {
+    RenditionSelector.Rendition rendition = RenditionSelector.select(crops, boxWidth, boxHeight);
+    if (rendition == null) {
+      return null;
+    }
+    return getImageUrl(headlessServerUrl, rendition.getCropName(), rendition.getWidth());
+  }
+
+  @Nullable
+  private String getImageUrl(String headlessServerUrl, String variant, int size) {
+    if (uriTemplatePrefix == null || variant == null) {
+      return null;
+    }
+    String url = getUriTemplate().replace("{cropName}", variant);
     url = url.replace("{width}", String.valueOf(size));
 
     if (headlessServerUrl.endsWith("/")) {
@@ -48,4 +100,20 @@ public class PictureDocument {
 
     return headlessServerUrl + url;
   }
+
+  private static int prefixLength(String uriTemplate) {
+    int segmentStart = 0;
+    while (segmentStart < uriTemplate.length()) {
+      int segmentEnd = uriTemplate.indexOf('/', segmentStart);
+      if (segmentEnd < 0) {
+        segmentEnd = uriTemplate.length();
+      }
+      String segment = uriTemplate.substring(segmentStart, segmentEnd);
+      if (!segment.isEmpty() && (segment.chars().allMatch(Character::isDigit) || segment.indexOf('{') >= 0)) {
+        return segmentStart;
+      }
+      segmentStart = segmentEnd + 1;
+    }
+    return uriTemplate.lastIndexOf('/') + 1;
+  }
 }
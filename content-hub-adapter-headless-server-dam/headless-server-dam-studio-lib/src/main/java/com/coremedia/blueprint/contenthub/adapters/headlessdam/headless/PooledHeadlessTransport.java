@@ -0,0 +1,77 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport based on a pooling Apache HTTP client.
+ * <p>
+ * Connections are kept alive and shared between requests, so TLS sessions are negotiated once per
+ * pooled connection instead of once per request. Idle connections are evicted in the background.
+ */
+class PooledHeadlessTransport implements HeadlessTransport {
+  private static final Logger LOG = LoggerFactory.getLogger(PooledHeadlessTransport.class);
+
+  private final CloseableHttpClient httpClient;
+  private final HttpComponentsClientHttpRequestFactory requestFactory;
+
+  PooledHeadlessTransport(@NonNull HeadlessTransportSettings settings) {
+    Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", new SSLConnectionSocketFactory(TrustAllSsl.sslContext(), TrustAllSsl.PROMISCUOUS_VERIFIER))
+            .build();
+
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+    connectionManager.setMaxTotal(settings.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+
+    RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(settings.getConnectTimeout())
+            .setSocketTimeout(settings.getReadTimeout())
+            .setConnectionRequestTimeout(settings.getConnectionRequestTimeout())
+            .build();
+
+    httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(settings.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS)
+            // content encoding is negotiated by the connector, which also measures the bytes on the wire
+            .disableContentCompression()
+            .build();
+
+    requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+    // request bodies are serialized straight into the connection
+    requestFactory.setBufferRequestBody(false);
+  }
+
+  @NonNull
+  @Override
+  public ClientHttpRequestFactory requestFactory() {
+    return requestFactory;
+  }
+
+  @Override
+  public void close() {
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close headless HTTP client: {}", e.getMessage());
+    }
+  }
+}
@@ -3,7 +3,7 @@ package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
 /**
  *
  */
-public class QueryResponseDocument {
+public class QueryResponseDocument extends GraphQLResponseDocument {
   private ContentDocument data;
 
   public ContentDocument getData() {
@@ -0,0 +1,117 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forwards search results to another consumer and records them, so that they can be
+ * replayed to the consumers of coalesced requests.
+ * <p>
+ * Results are only kept while recording, which is either enabled up front or by {@link #share()}
+ * before the first result has arrived. Otherwise the consumer just forwards.
+ */
+class RecordingSearchResultConsumer implements SearchResultConsumer {
+  private static final SearchResultConsumer DISCARDING = new SearchResultConsumer() {
+    @Override
+    public void numFound(int numFound) {
+    }
+
+    @Override
+    public void accept(@NonNull CMTeaseableDocument document) {
+    }
+  };
+
+  private final SearchResultConsumer delegate;
+  private final List<CMTeaseableDocument> documents;
+  private int numFound;
+  private boolean recording;
+  private boolean received;
+  private boolean found;
+
+  /**
+   * @param recording whether the results are kept from the start
+   */
+  RecordingSearchResultConsumer(@NonNull SearchResultConsumer delegate, boolean recording) {
+    this(delegate, new ArrayList<>(), recording);
+  }
+
+  private RecordingSearchResultConsumer(@NonNull SearchResultConsumer delegate,
+                                        @NonNull List<CMTeaseableDocument> documents,
+                                        boolean recording) {
+    this.delegate = delegate;
+    this.documents = documents;
+    this.recording = recording;
+  }
+
+  @Override
+  public void numFound(int numFound) {
+    synchronized (this) {
+      this.numFound = numFound;
+      received = true;
+    }
+    delegate.numFound(numFound);
+  }
+
+  @Override
+  public void accept(@NonNull CMTeaseableDocument document) {
+    synchronized (this) {
+      if (recording) {
+        documents.add(document);
+      }
+      received = true;
+    }
+    delegate.accept(document);
+  }
+
+  /**
+   * Starts recording if no result has been forwarded yet, so that the results can be replayed in full
+   * to another consumer once the request has finished.
+   *
+   * @return false if results have been forwarded without being recorded
+   */
+  synchronized boolean share() {
+    if (received && !recording) {
+      return false;
+    }
+    recording = true;
+    return true;
+  }
+
+  /**
+   * Returns whether any result has been passed to the delegate.
+   */
+  synchronized boolean isReceived() {
+    return received;
+  }
+
+  boolean isFound() {
+    return found;
+  }
+
+  void setFound(boolean found) {
+    this.found = found;
+  }
+
+  /**
+   * Passes the recorded results to the consumer, only to be called once the request has finished.
+   */
+  void replay(@NonNull SearchResultConsumer consumer) {
+    consumer.numFound(numFound);
+    documents.forEach(consumer::accept);
+  }
+
+  /**
+   * Returns the recorded results without the delegate, to be kept beyond the request. The documents are
+   * shared with this consumer, so it must only be called once the results are complete.
+   */
+  @NonNull
+  RecordingSearchResultConsumer detached() {
+    RecordingSearchResultConsumer copy = new RecordingSearchResultConsumer(DISCARDING, documents, true);
+    copy.numFound = numFound;
+    copy.received = received;
+    copy.setFound(true);
+    return copy;
+  }
+}
@@ -0,0 +1,125 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Selects the crop and width of a picture which fill a target box with the fewest pixels.
+ * <p>
+ * Only the crops whose aspect ratio is closest to the box's are considered, so that the picture fills the box
+ * instead of being letterboxed, e.g. a square crop is used for a square thumbnail even if a narrow banner has fewer pixels.
+ * Of these, a rendition meets the box if it is displayed in the box without upscaling. Of the renditions meeting
+ * the box the one with the fewest pixels is selected, if no rendition meets it, the largest one.
+ * Crops without an aspect ratio are assumed to be square, widths are restricted to the crop's sizes if it has any.
+ */
+final class RenditionSelector {
+  /**
+   * Aspect ratios which differ by less than this factor are considered equal, e.g. 16:9 and 1.78:1.
+   */
+  private static final double RATIO_TOLERANCE = Math.log(1.05);
+
+  private RenditionSelector() {
+  }
+
+  @Nullable
+  static Rendition select(@Nullable List<CropDocument> crops, int boxWidth, int boxHeight) {
+    if (crops == null || boxWidth <= 0 || boxHeight <= 0) {
+      return null;
+    }
+    double boxRatio = (double) boxWidth / boxHeight;
+    double closest = Double.MAX_VALUE;
+    for (CropDocument crop : crops) {
+      if (crop != null && crop.getName() != null) {
+        closest = Math.min(closest, ratioDistance(crop, boxRatio));
+      }
+    }
+
+    Rendition best = null;
+    for (CropDocument crop : crops) {
+      if (crop == null || crop.getName() == null || ratioDistance(crop, boxRatio) > closest + RATIO_TOLERANCE) {
+        continue;
+      }
+      Rendition rendition = rendition(crop, boxWidth, boxHeight);
+      if (best == null || rendition.isBetterThan(best)) {
+        best = rendition;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns how much the aspect ratio of the crop differs from the box's, independent of which one is wider.
+   */
+  private static double ratioDistance(@NonNull CropDocument crop, double boxRatio) {
+    return Math.abs(Math.log(aspectRatio(crop) / boxRatio));
+  }
+
+  @NonNull
+  private static Rendition rendition(@NonNull CropDocument crop, int boxWidth, int boxHeight) {
+    double ratio = aspectRatio(crop);
+    int requiredWidth = (int) Math.ceil(Math.min(boxWidth, boxHeight * ratio));
+    int width = Math.max(requiredWidth, crop.getMinWidth());
+
+    List<DimensionDocument> sizes = crop.getSizes();
+    if (sizes != null && !sizes.isEmpty()) {
+      int smallestSufficient = Integer.MAX_VALUE;
+      int largest = 0;
+      for (DimensionDocument size : sizes) {
+        if (size == null) {
+          continue;
+        }
+        largest = Math.max(largest, size.getWidth());
+        if (size.getWidth() >= width) {
+          smallestSufficient = Math.min(smallestSufficient, size.getWidth());
+        }
+      }
+      if (largest > 0) {
+        width = smallestSufficient == Integer.MAX_VALUE ? largest : smallestSufficient;
+      }
+    }
+    return new Rendition(crop.getName(), width, width >= requiredWidth, (long) Math.ceil(width * (width / ratio)));
+  }
+
+  private static double aspectRatio(@NonNull CropDocument crop) {
+    DimensionDocument aspectRatio = crop.getAspectRatio();
+    if (aspectRatio == null || aspectRatio.getWidth() <= 0 || aspectRatio.getHeight() <= 0) {
+      return 1.0;
+    }
+    return (double) aspectRatio.getWidth() / aspectRatio.getHeight();
+  }
+
+  /**
+   * A crop name and width to fill into a picture's URI template.
+   */
+  static final class Rendition {
+    private final String cropName;
+    private final int width;
+    private final boolean sufficient;
+    private final long pixels;
+
+    private Rendition(String cropName, int width, boolean sufficient, long pixels) {
+      this.cropName = cropName;
+      this.width = width;
+      this.sufficient = sufficient;
+      this.pixels = pixels;
+    }
+
+    @NonNull
+    String getCropName() {
+      return cropName;
+    }
+
+    int getWidth() {
+      return width;
+    }
+
+    private boolean isBetterThan(@NonNull Rendition other) {
+      if (sufficient != other.sufficient) {
+        return sufficient;
+      }
+      return sufficient ? pixels < other.pixels : pixels > other.pixels;
+    }
+  }
+}
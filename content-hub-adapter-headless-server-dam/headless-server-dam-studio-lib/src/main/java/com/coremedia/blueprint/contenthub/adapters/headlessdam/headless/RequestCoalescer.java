@@ -0,0 +1,115 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical requests share a single execution.
+ * <p>
+ * The first caller for a key executes the request, callers arriving while it is in flight wait for
+ * its result, up to their own timeout. A failure is passed on to every waiting caller.
+ * The shared result object is handed out to all callers and must not be modified.
+ * <p>
+ * A request can decline followers, e.g. once it has started streaming a result it does not keep.
+ * A declined caller executes the request itself, without being coalesced.
+ */
+class RequestCoalescer {
+  private final ConcurrentMap<Object, InFlight> inFlight = new ConcurrentHashMap<>();
+  private final long followerTimeoutMillis;
+
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  RequestCoalescer(long followerTimeoutMillis) {
+    this.followerTimeoutMillis = followerTimeoutMillis;
+  }
+
+  <T> T execute(@NonNull Object key, @NonNull Supplier<T> request) {
+    return execute(key, request, () -> true);
+  }
+
+  /**
+   * Like {@link #execute(Object, Supplier)}, but a caller arriving while the request is in flight only waits
+   * for its result if <code>join</code> of the running request accepts it.
+   *
+   * @param join called for every caller arriving while this request is in flight
+   */
+  @SuppressWarnings("unchecked")
+  <T> T execute(@NonNull Object key, @NonNull Supplier<T> request, @NonNull BooleanSupplier join) {
+    InFlight current = new InFlight(join);
+    InFlight running = inFlight.putIfAbsent(key, current);
+    if (running != null) {
+      if (running.join.getAsBoolean()) {
+        coalesced.increment();
+        return (T) await(running.future);
+      }
+      executed.increment();
+      return request.get();
+    }
+
+    executed.increment();
+    try {
+      T result = request.get();
+      current.future.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      current.future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, current);
+    }
+  }
+
+  /**
+   * Returns the number of requests which have actually been executed.
+   */
+  long getExecutedCount() {
+    return executed.sum();
+  }
+
+  /**
+   * Returns the number of requests which have been answered by another in-flight request.
+   */
+  long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  private Object await(@NonNull CompletableFuture<Object> running) {
+    try {
+      return running.get(followerTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAccessException("Interrupted while waiting for in-flight headless request");
+    } catch (TimeoutException e) {
+      throw new ResourceAccessException("Timed out after " + followerTimeoutMillis + " ms waiting for in-flight headless request");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("In-flight headless request failed: " + cause.getMessage(), cause);
+    }
+  }
+
+  private static final class InFlight {
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+    final BooleanSupplier join;
+
+    InFlight(@NonNull BooleanSupplier join) {
+      this.join = join;
+    }
+  }
+}
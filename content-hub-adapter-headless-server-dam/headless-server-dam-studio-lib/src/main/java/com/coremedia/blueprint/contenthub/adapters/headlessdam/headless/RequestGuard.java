@@ -0,0 +1,85 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Protects an endpoint of the headless server with a {@link CircuitBreaker} and a {@link ConcurrencyLimit}.
+ * <p>
+ * While the breaker is open, requests fail immediately. Otherwise they wait for a slot of the concurrency
+ * limit, so that a slow server does not tie up every calling thread.
+ */
+class RequestGuard {
+  private final String name;
+  private final CircuitBreaker circuitBreaker;
+  private final ConcurrencyLimit concurrencyLimit;
+
+  RequestGuard(@NonNull String name, @NonNull HeadlessTransportSettings settings) {
+    this.name = name;
+    this.circuitBreaker = new CircuitBreaker(name, settings.getCircuitBreakerFailureThreshold(), settings.getCircuitBreakerOpenDuration());
+    this.concurrencyLimit = new ConcurrencyLimit(name, settings.getMaxConcurrentRequests(),
+            settings.getConcurrencyLatencyThreshold(), settings.getConcurrencyWaitTimeout());
+  }
+
+  /**
+   * Returns a permit to send a request, which must be released once the request has finished.
+   *
+   * @throws HeadlessServerUnavailableException if the breaker is open or no slot became free in time
+   */
+  @NonNull
+  Permit acquire() {
+    CircuitBreaker.Admission admission = circuitBreaker.tryAcquire();
+    if (admission == CircuitBreaker.Admission.REJECTED) {
+      throw new HeadlessServerUnavailableException("Circuit breaker of " + name + " is open");
+    }
+    boolean acquired = false;
+    try {
+      acquired = concurrencyLimit.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HeadlessServerUnavailableException("Interrupted while waiting for a request slot of " + name, e);
+    } finally {
+      if (!acquired) {
+        circuitBreaker.onCancel(admission);
+      }
+    }
+    if (!acquired) {
+      throw new HeadlessServerUnavailableException("Too many concurrent requests to " + name +
+              ", limit is " + concurrencyLimit.getLimit());
+    }
+    return new Permit(admission, System.nanoTime());
+  }
+
+  @NonNull
+  CircuitBreaker.State getState() {
+    return circuitBreaker.getState();
+  }
+
+  @Override
+  public String toString() {
+    return name + "[" + circuitBreaker + ", " + concurrencyLimit + "]";
+  }
+
+  class Permit {
+    private final CircuitBreaker.Admission admission;
+    private final long startNanos;
+
+    private Permit(CircuitBreaker.Admission admission, long startNanos) {
+      this.admission = admission;
+      this.startNanos = startNanos;
+    }
+
+    /**
+     * Releases the permit.
+     *
+     * @param failed whether the server failed to answer, i.e. with a server error or not in time
+     */
+    void release(boolean failed) {
+      concurrencyLimit.release(startNanos, System.nanoTime(), failed);
+      if (failed) {
+        circuitBreaker.onFailure(admission);
+      } else {
+        circuitBreaker.onSuccess(admission);
+      }
+    }
+  }
+}
@@ -1,47 +1,175 @@
 package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  *
  */
 public class SearchQuery {
-  private static final String TEMPLATE = "{\"query\" : \"query {\n" +
+  private static final String TEMPLATE = "query($query: String!, $offset: Int, $limit: Int, " +
+          "$docTypes: [String], $sortFields: [SortFieldWithOrder], $siteId: String) {\n" +
           "  content {\n" +
-          "    search(query: \\\"*\\\", offset: 0, limit: 1000, docTypes: [\\\"'type'\\\"], sortFields: [MODIFICATION_DATE_ASC], siteId: \\\"'siteId'\\\") {\n" +
+          "    search(query: $query, offset: $offset, limit: $limit, docTypes: $docTypes, sortFields: $sortFields, siteId: $siteId) {\n" +
           "     numFound,\n" +
           "     result {\n" +
           "       ... on CMTeasable {\n" +
-          "          creationDate, \n" +
-          "          name,           \n" +
-          "          title,           \n" +
-          "          type,           \n" +
-          "          link {id},         \n" +
-          "          picture {            \n" +
-          "            data { \n" +
-          "              size ,\n" +
-          "              contentType\n" +
-          "            },\n" +
-          "            uriTemplate,\n" +
-          "            crops {\n" +
-          "              name,\n" +
-          "              minWidth              \n" +
-          "            }          \n" +
-          "          }\n" +
+          "          'fields'\n" +
           "        }\n" +
           "      }\n" +
           "    }\n" +
           "  }\n" +
-          "}\" }";
+          "}";
+
+  /**
+   * The minified query texts per field selection.
+   */
+  private static final Map<Set<ContentField>, String> QUERIES = new ConcurrentHashMap<>();
+
+  /**
+   * Characters with a meaning in the query syntax of the search engine.
+   */
+  private static final String SYNTAX_CHARACTERS = "\\+-!():^[]\"{}~*?|&/";
+  private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT");
+
+  static {
+    query(ContentField.LISTING);
+  }
+
+  public static final String MATCH_ALL = "*";
+  public static final String MODIFICATION_DATE_ASC = "MODIFICATION_DATE_ASC";
+  public static final String MODIFICATION_DATE_DESC = "MODIFICATION_DATE_DESC";
+  public static final String CREATION_DATE_ASC = "CREATION_DATE_ASC";
+  public static final String CREATION_DATE_DESC = "CREATION_DATE_DESC";
 
   private String siteId;
-  private String type;
+  private String query;
+  private List<String> docTypes;
+  private List<String> filterQueries;
+  private List<String> sortFields;
+  private int offset;
+  private int limit;
+  private Set<ContentField> fields;
+
+  /**
+   * Creates a query for all documents of the given type, sorted by modification date.
+   */
+  public SearchQuery(String siteId, String type, int offset, int limit) {
+    this(siteId, MATCH_ALL, List.of(type), List.of(MODIFICATION_DATE_ASC), offset, limit);
+  }
+
+  /**
+   * Creates a query for documents matching the given query text.
+   *
+   * @param sortFields values of the headless server enum <code>SortFieldWithOrder</code>, e.g. "TITLE_ASC"
+   */
+  public SearchQuery(String siteId, String query, List<String> docTypes, List<String> sortFields, int offset, int limit) {
+    this(siteId, query, docTypes, sortFields, offset, limit, ContentField.LISTING);
+  }
 
-  public SearchQuery(String siteId, String type) {
+  /**
+   * Creates a query which returns only the given fields of the matching documents.
+   */
+  public SearchQuery(String siteId, String query, List<String> docTypes, List<String> sortFields, int offset, int limit,
+                     Set<ContentField> fields) {
+    this(siteId, query, docTypes, List.of(), sortFields, offset, limit, fields);
+  }
+
+  /**
+   * Creates a query which returns only the documents matching the query text and all filter queries.
+   * The search field of the headless server has no argument for filter queries, so they are ANDed onto
+   * the query text, see {@link #queryText(String, List)}.
+   */
+  public SearchQuery(String siteId, String query, List<String> docTypes, List<String> filterQueries, List<String> sortFields,
+                     int offset, int limit, Set<ContentField> fields) {
     this.siteId = siteId;
-    this.type = type;
+    this.query = query;
+    this.docTypes = docTypes;
+    this.filterQueries = filterQueries;
+    this.sortFields = sortFields;
+    this.offset = offset;
+    this.limit = limit;
+    this.fields = fields;
+  }
+
+  @NonNull
+  public GraphQLRequest toRequest() {
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("query", queryText(query, filterQueries));
+    variables.put("offset", offset);
+    variables.put("limit", limit);
+    variables.put("docTypes", docTypes);
+    variables.put("sortFields", sortFields);
+    variables.put("siteId", siteId);
+    return new GraphQLRequest(query(fields), variables);
+  }
+
+  /**
+   * Returns the query text ANDed with the filter queries, each in parentheses. A filter query excluding documents,
+   * like <code>-creationdate:[* TO NOW]</code>, is ANDed with NOT, as a clause of only negated terms matches nothing.
+   * Counting and listing the same documents must use the same query text.
+   */
+  @NonNull
+  public static String queryText(@NonNull String query, @NonNull List<String> filterQueries) {
+    if (filterQueries.isEmpty()) {
+      return query;
+    }
+    StringBuilder text = new StringBuilder("(").append(query).append(")");
+    for (String filterQuery : filterQueries) {
+      boolean negated = filterQuery.startsWith("-");
+      text.append(negated ? " AND NOT (" : " AND (").append(negated ? filterQuery.substring(1) : filterQuery).append(")");
+    }
+    return text.toString();
+  }
+
+  /**
+   * Escapes the query syntax in text entered by a user, so that all of its words are searched for literally.
+   * A <code>*</code> at the end of a word is kept, it searches for the word as a prefix.
+   */
+  @NonNull
+  public static String escape(@NonNull String text) {
+    StringBuilder escaped = new StringBuilder(text.length() + 16);
+    for (String word : text.trim().split("\\s+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      if (escaped.length() > 0) {
+        escaped.append(' ');
+      }
+      if (OPERATORS.contains(word)) {
+        escaped.append('"').append(word).append('"');
+        continue;
+      }
+      boolean prefix = word.length() > 1 && word.endsWith("*") && !word.endsWith("\\*");
+      String literal = prefix ? word.substring(0, word.length() - 1) : word;
+      for (int i = 0; i < literal.length(); i++) {
+        char c = literal.charAt(i);
+        if (SYNTAX_CHARACTERS.indexOf(c) >= 0) {
+          escaped.append('\\');
+        }
+        escaped.append(c);
+      }
+      if (prefix) {
+        escaped.append('*');
+      }
+    }
+    return escaped.toString();
   }
 
   @Override
   public String toString() {
-    return TEMPLATE.replaceAll("'siteId'", siteId).replaceAll("'type'", type);
+    return toRequest().toString();
+  }
+
+  @NonNull
+  private static String query(@NonNull Set<ContentField> fields) {
+    return QUERIES.computeIfAbsent(EnumSet.copyOf(fields),
+            key -> GraphQLRequest.minify(TEMPLATE.replace("'fields'", ContentField.selection(key))));
   }
 }
@@ -0,0 +1,19 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Receives the results of a search while the response is being read.
+ */
+public interface SearchResultConsumer {
+
+  /**
+   * Called with the total number of hits, usually before the first result.
+   */
+  void numFound(int numFound);
+
+  /**
+   * Called for every result of the requested page, in order.
+   */
+  void accept(@NonNull CMTeaseableDocument document);
+}
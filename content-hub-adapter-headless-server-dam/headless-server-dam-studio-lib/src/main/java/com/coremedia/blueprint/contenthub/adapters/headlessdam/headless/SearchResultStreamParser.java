@@ -0,0 +1,102 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a search response token by token and hands every element of <code>data.content.search.result</code>
+ * to a {@link SearchResultConsumer}, so that the complete response is never held in memory.
+ * Only the GraphQL errors of the response are returned.
+ */
+class SearchResultStreamParser implements ResponseExtractor<GraphQLResponseDocument> {
+  private static final String[] SEARCH_PATH = {"data", "content", "search"};
+
+  private final ObjectMapper objectMapper;
+  private final SearchResultConsumer consumer;
+
+  SearchResultStreamParser(@NonNull ObjectMapper objectMapper, @NonNull SearchResultConsumer consumer) {
+    this.objectMapper = objectMapper;
+    this.consumer = consumer;
+  }
+
+  @Override
+  @NonNull
+  public GraphQLResponseDocument extractData(@NonNull ClientHttpResponse response) throws IOException {
+    GraphQLResponseDocument document = new GraphQLResponseDocument();
+    try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Expected a JSON object as search response");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if (SEARCH_PATH[0].equals(field)) {
+          readPath(parser, 1);
+        } else if ("errors".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+          document.setErrors(Arrays.asList(objectMapper.readValue(parser, GraphQLErrorDocument[].class)));
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return document;
+  }
+
+  /**
+   * Descends into the object of the current token along {@link #SEARCH_PATH}, skipping all other fields.
+   */
+  private void readPath(@NonNull JsonParser parser, int depth) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      if (!SEARCH_PATH[depth].equals(field)) {
+        parser.skipChildren();
+      } else if (depth == SEARCH_PATH.length - 1) {
+        readSearch(parser);
+      } else {
+        readPath(parser, depth + 1);
+      }
+    }
+  }
+
+  private void readSearch(@NonNull JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("numFound".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+        consumer.numFound(parser.getIntValue());
+      } else if ("result".equals(field) && value == JsonToken.START_ARRAY) {
+        readResults(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private void readResults(@NonNull JsonParser parser) throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token == JsonToken.START_OBJECT) {
+        consumer.accept(objectMapper.readValue(parser, CMTeaseableDocument.class));
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+}
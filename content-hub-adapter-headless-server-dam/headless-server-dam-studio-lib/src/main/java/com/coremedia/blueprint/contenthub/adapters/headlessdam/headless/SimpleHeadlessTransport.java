@@ -0,0 +1,46 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Transport based on {@link HttpURLConnection}, relying on the JDK keep-alive cache for connection reuse.
+ */
+class SimpleHeadlessTransport implements HeadlessTransport {
+  private final SimpleClientHttpRequestFactory requestFactory;
+
+  SimpleHeadlessTransport(@NonNull HeadlessTransportSettings settings) {
+    SSLContext sc = TrustAllSsl.sslContext();
+    requestFactory = new SimpleClientHttpRequestFactory() {
+      @Override
+      protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        if (connection instanceof HttpsURLConnection) {
+          ((HttpsURLConnection) connection).setSSLSocketFactory(sc.getSocketFactory());
+          ((HttpsURLConnection) connection).setHostnameVerifier(TrustAllSsl.PROMISCUOUS_VERIFIER);
+        }
+        super.prepareConnection(connection, httpMethod);
+      }
+    };
+    // request bodies are serialized straight into the connection
+    requestFactory.setBufferRequestBody(false);
+    requestFactory.setConnectTimeout(settings.getConnectTimeout());
+    requestFactory.setReadTimeout(settings.getReadTimeout());
+  }
+
+  @NonNull
+  @Override
+  public ClientHttpRequestFactory requestFactory() {
+    return requestFactory;
+  }
+
+  @Override
+  public void close() {
+    // connections are owned by the JDK keep-alive cache
+  }
+}
@@ -0,0 +1,46 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+
+/**
+ * SSL setup that accepts every certificate, so that test systems with self-signed certificates can be used.
+ */
+final class TrustAllSsl {
+  static final HostnameVerifier PROMISCUOUS_VERIFIER = (s, sslSession) -> true;
+
+  private TrustAllSsl() {
+  }
+
+  @NonNull
+  static SSLContext sslContext() {
+    // Create a trust manager that does not validate certificate chains
+    TrustManager[] trustAllCerts = new TrustManager[]{
+            new X509TrustManager() {
+              public X509Certificate[] getAcceptedIssuers() {
+                return null;
+              }
+
+              public void checkClientTrusted(X509Certificate[] certs, String authType) {
+              }
+
+              public void checkServerTrusted(X509Certificate[] certs, String authType) {
+              }
+            }
+    };
+    try {
+      SSLContext sc = SSLContext.getInstance("TLS");
+      sc.init(null, trustAllCerts, new SecureRandom());
+      return sc;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to initialize SSL context: " + e.getMessage(), e);
+    }
+  }
+}
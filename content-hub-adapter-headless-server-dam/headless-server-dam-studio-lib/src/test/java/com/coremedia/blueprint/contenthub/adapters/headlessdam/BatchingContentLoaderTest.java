@@ -0,0 +1,109 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnector;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessTransportSettings;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.StubHeadlessServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchingContentLoaderTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private StubHeadlessServer server;
+  private HeadlessServerConnector connector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // answers every aliased content with its id as name, except for ids starting with "missing"
+    server = new StubHeadlessServer(request -> {
+      JsonNode variables = objectMapper.readTree(request.body).get("variables");
+      StringBuilder contents = new StringBuilder();
+      for (Iterator<Map.Entry<String, JsonNode>> it = variables.fields(); it.hasNext(); ) {
+        Map.Entry<String, JsonNode> variable = it.next();
+        String id = variable.getValue().asText();
+        contents.append(contents.length() == 0 ? "" : ",").append('"').append(variable.getKey()).append("\":")
+                .append(id.startsWith("missing") ? "null" : "{\"name\":\"" + id + "\"}");
+      }
+      return StubHeadlessServer.Response.json("{\"data\":{\"content\":{" + contents + "}}}");
+    });
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings());
+  }
+
+  @AfterEach
+  void tearDown() {
+    connector.close();
+    server.close();
+  }
+
+  @Test
+  void concurrentLoadsShareOneRequest() throws Exception {
+    BatchingContentLoader loader = new BatchingContentLoader(connector, 50, 200);
+    ExecutorService executor = Executors.newFixedThreadPool(10);
+    try {
+      List<Future<CMTeaseableDocument>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        String id = "content:" + i;
+        futures.add(executor.submit(() -> loader.load(id, ContentField.ALL)));
+      }
+      for (int i = 0; i < 10; i++) {
+        assertEquals("content:" + i, futures.get(i).get().getName());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, server.getRequests().size());
+  }
+
+  @Test
+  void fullBatchIsSentBeforeTheWindowEnds() throws Exception {
+    BatchingContentLoader loader = new BatchingContentLoader(connector, 2, 10000);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<CMTeaseableDocument> first = executor.submit(() -> loader.load("content:1", ContentField.ALL));
+      Future<CMTeaseableDocument> second = executor.submit(() -> loader.load("content:2", ContentField.ALL));
+
+      assertEquals("content:1", first.get(5, TimeUnit.SECONDS).getName());
+      assertEquals("content:2", second.get(5, TimeUnit.SECONDS).getName());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void missingContentIsNull() {
+    BatchingContentLoader loader = new BatchingContentLoader(connector, 50, 0);
+
+    assertNull(loader.load("missing:1", ContentField.ALL));
+    assertEquals("content:1", loader.load("content:1", ContentField.ALL).getName());
+  }
+
+  @Test
+  void invalidBatchSizeIsRejected() {
+    List<String> ids = List.of("1", "2");
+    Set<ContentField> fields = EnumSet.of(ContentField.NAME);
+
+    assertThrows(IllegalArgumentException.class, () -> connector.getContents(ids, fields, 0));
+    assertThrows(IllegalArgumentException.class, () -> connector.getContentsAsync(ids, fields, -1, 0));
+    assertEquals(0, server.getRequests().size());
+  }
+}
@@ -0,0 +1,60 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessTransportSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionSettingsTest {
+
+  @Test
+  void defaultsApplyToMissingValues() {
+    ConnectionSettings settings = new ConnectionSettings(TestConfigurations.configuration("http://headless:41180", Map.of()), "dam");
+
+    assertEquals("http://headless:41180/", settings.getHeadlessServerUrl());
+    assertEquals(100, settings.getPageSize());
+    assertEquals(1000, settings.getItemCacheSize());
+    assertEquals(60000, settings.getItemCacheTimeToLive());
+    assertEquals("creationdate", settings.getPartitionDateField());
+    assertEquals(0, settings.getPartitionThreshold());
+    assertNull(settings.getSnapshotDirectory());
+    assertFalse(settings.isWarmUp());
+    assertEquals(0, settings.getImageCacheSize());
+    assertEquals(new HeadlessTransportSettings(), settings.getTransportSettings());
+  }
+
+  @Test
+  void configuredTransportValuesAreCopied() {
+    ConnectionSettings settings = new ConnectionSettings(TestConfigurations.configuration("http://headless:41180/", Map.of(
+            "transport", "simple",
+            "readTimeout", 1234,
+            "compression", false,
+            "concurrencyWaitTimeout", 42)), "dam");
+
+    HeadlessTransportSettings transportSettings = settings.getTransportSettings();
+    assertEquals("simple", transportSettings.getTransport());
+    assertEquals(1234, transportSettings.getReadTimeout());
+    assertFalse(transportSettings.isCompression());
+    assertEquals(42, transportSettings.getConcurrencyWaitTimeout());
+    assertEquals(new HeadlessTransportSettings().getConnectTimeout(), transportSettings.getConnectTimeout());
+  }
+
+  @Test
+  void invalidValuesAreRejected() {
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            new ConnectionSettings(TestConfigurations.configuration("http://headless:41180/", Map.of("pageSize", 0)), "dam"));
+    assertTrue(e.getMessage().contains("'dam'"));
+    assertThrows(IllegalArgumentException.class, () ->
+            new ConnectionSettings(TestConfigurations.configuration("http://headless:41180/", Map.of("partitionThreshold", -1)), "dam"));
+    assertThrows(IllegalArgumentException.class, () ->
+            new ConnectionSettings(TestConfigurations.configuration("http://headless:41180/", Map.of("batchSize", 0)), "dam"));
+    assertThrows(IllegalArgumentException.class, () ->
+            new ConnectionSettings(TestConfigurations.configuration("http://headless:41180/", Map.of("batchWindow", -1)), "dam"));
+  }
+}
@@ -0,0 +1,91 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchQuery;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DatePartitionsTest {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final List<String> filterQueries = new ArrayList<>();
+  private ZonedDateTime first;
+  private ZonedDateTime last;
+
+  private final DatePartitions.Searcher searcher = new DatePartitions.Searcher() {
+    @Override
+    public ZonedDateTime firstCreationDate(@NonNull String docType, @NonNull String filterQuery, @NonNull String sortField) {
+      filterQueries.add(filterQuery);
+      return SearchQuery.CREATION_DATE_ASC.equals(sortField) ? first : last;
+    }
+
+    @NonNull
+    @Override
+    public List<Integer> count(@NonNull String docType, @NonNull List<String> filterQueries) {
+      return Collections.nCopies(filterQueries.size(), 1);
+    }
+  };
+
+  private final DatePartitions partitions = new DatePartitions("creationdate", 10, searcher,
+          new ExpiringLruCache<>(10, 60000, false, executor));
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void dateRangeIsTakenFromDatedDocuments() {
+    first = date(2021);
+    last = date(2023);
+
+    assertEquals(List.of("2023", "2022", "2021"), names(partitions.years("pictures", "CMPicture")));
+    assertEquals(List.of("creationdate:[* TO *]", "creationdate:[* TO *]"), filterQueries);
+  }
+
+  @Test
+  void remainderMatchesUndatedAndOlderDocuments() {
+    first = date(2021);
+    last = date(2023);
+
+    assertEquals("-creationdate:[2021-01-01T00:00:00Z TO 2024-01-01T00:00:00Z}",
+            partitions.remainderQuery("pictures", "CMPicture"));
+  }
+
+  @Test
+  void documentsBeyondTheMaximumNumberOfYearsRemainInTheTypeFolder() {
+    first = date(1800);
+    last = date(2023);
+
+    List<DatePartitions.Partition> years = partitions.years("pictures", "CMPicture");
+
+    assertEquals(DatePartitions.MAX_YEARS, years.size());
+    assertEquals("-creationdate:[1924-01-01T00:00:00Z TO 2024-01-01T00:00:00Z}",
+            partitions.remainderQuery("pictures", "CMPicture"));
+  }
+
+  @Test
+  void allDocumentsRemainInTheTypeFolderWithoutDatedDocuments() {
+    assertEquals(List.of(), partitions.years("pictures", "CMPicture"));
+    assertNull(partitions.remainderQuery("pictures", "CMPicture"));
+  }
+
+  private static ZonedDateTime date(int year) {
+    return ZonedDateTime.of(year, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  }
+
+  private static List<String> names(List<DatePartitions.Partition> partitions) {
+    return partitions.stream().map(DatePartitions.Partition::getName).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,107 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.LinkDocument;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DocumentStoreTest {
+  private final List<Set<ContentField>> fetches = new ArrayList<>();
+  private CMTeaseableDocument server = document("Server Name", "Server teaser");
+
+  private final DocumentStore store = new DocumentStore(new ExpiringLruCache<>(10, 60000, false, Runnable::run),
+          (id, fields) -> {
+            fetches.add(fields);
+            return server;
+          });
+
+  @Test
+  void unknownDocumentIsLoadedWithAllFields() {
+    CMTeaseableDocument document = store.get("1", ContentField.LISTING);
+
+    assertSame(server, document);
+    assertEquals(List.of(ContentField.ALL), fetches);
+  }
+
+  @Test
+  void seededFieldsAreNotFetched() {
+    CMTeaseableDocument listed = document("Listed Name", null);
+    store.seed("1", listed, ContentField.LISTING);
+
+    assertSame(listed, store.get("1", ContentField.LISTING));
+    assertEquals(List.of(), fetches);
+  }
+
+  @Test
+  void onlyMissingFieldsAreFetchedAndMerged() {
+    CMTeaseableDocument listed = document("Listed Name", null);
+    store.seed("1", listed, ContentField.LISTING);
+
+    CMTeaseableDocument document = store.get("1", ContentField.ALL);
+
+    assertEquals(List.of(EnumSet.of(ContentField.TEASER_TEXT, ContentField.REMOTE_LINK)), fetches);
+    assertEquals("Listed Name", document.getName());
+    assertEquals("Server teaser", document.getTeaserText());
+    // the seeded document is not modified, the merge creates a new one
+    assertNull(listed.getTeaserText());
+  }
+
+  @Test
+  void mergedFieldsAreNotFetchedAgain() {
+    store.seed("1", document("Listed Name", null), ContentField.LISTING);
+    CMTeaseableDocument merged = store.get("1", ContentField.ALL);
+
+    assertSame(merged, store.get("1", ContentField.ALL));
+    assertEquals(1, fetches.size());
+  }
+
+  @Test
+  void seedingKeepsTheFieldsKnownBefore() {
+    store.seed("1", document("Old Name", "Old teaser"), ContentField.ALL);
+
+    store.seed("1", document("New Name", null), ContentField.LISTING);
+    CMTeaseableDocument document = store.get("1", ContentField.ALL);
+
+    assertEquals("New Name", document.getName());
+    assertEquals("Old teaser", document.getTeaserText());
+    assertEquals(List.of(), fetches);
+  }
+
+  @Test
+  void storedDocumentIsReturnedIfMissingFieldsCannotBeFetched() {
+    CMTeaseableDocument listed = document("Listed Name", null);
+    store.seed("1", listed, ContentField.LISTING);
+    server = null;
+
+    assertSame(listed, store.get("1", ContentField.ALL));
+  }
+
+  @Test
+  void documentNotFoundOnTheServerIsNull() {
+    server = null;
+
+    assertNull(store.get("1", ContentField.LISTING));
+  }
+
+  @NonNull
+  private static CMTeaseableDocument document(String name, String teaserText) {
+    LinkDocument link = new LinkDocument();
+    link.setId("1");
+    CMTeaseableDocument document = new CMTeaseableDocument();
+    document.setLink(link);
+    document.setType("CMPicture");
+    document.setName(name);
+    document.setTeaserText(teaserText);
+    return document;
+  }
+}
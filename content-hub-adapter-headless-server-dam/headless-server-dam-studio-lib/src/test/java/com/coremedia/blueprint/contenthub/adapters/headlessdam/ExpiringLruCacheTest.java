@@ -0,0 +1,87 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpiringLruCacheTest {
+  private final List<Runnable> refreshes = new ArrayList<>();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void evictsLeastRecentlyUsedEntry() {
+    ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, 60000, false, refreshes::add);
+    cache.get("a", this::load);
+    cache.get("b", this::load);
+    cache.get("a", this::load);
+
+    cache.get("c", this::load);
+
+    assertEquals("a:1", cache.getIfPresent("a"));
+    assertNull(cache.getIfPresent("b"));
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  void reloadsExpiredEntryInCallingThread() throws InterruptedException {
+    ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 20, false, refreshes::add);
+    assertEquals("a:1", cache.get("a", this::load));
+
+    Thread.sleep(40);
+
+    assertEquals("a:2", cache.get("a", this::load));
+    assertEquals(2, cache.getMissCount());
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  void servesStaleEntryWhileOneRefreshRuns() throws InterruptedException {
+    ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 20, true, refreshes::add);
+    cache.get("a", this::load);
+    Thread.sleep(40);
+
+    assertEquals("a:1", cache.get("a", this::load));
+    assertEquals("a:1", cache.get("a", this::load));
+    assertEquals(1, refreshes.size(), "only one refresh per expired entry");
+    assertEquals(1, loads.get());
+
+    refreshes.get(0).run();
+
+    assertEquals("a:2", cache.get("a", this::load));
+    assertEquals(2, cache.getStaleHitCount());
+  }
+
+  @Test
+  void failedRefreshKeepsStaleEntryAndAllowsAnotherRefresh() throws InterruptedException {
+    ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 20, true, refreshes::add);
+    cache.get("a", this::load);
+    Thread.sleep(40);
+
+    cache.get("a", key -> {
+      throw new IllegalStateException("unavailable");
+    });
+    refreshes.get(0).run();
+
+    assertEquals("a:1", cache.get("a", this::load));
+    assertEquals(2, refreshes.size());
+  }
+
+  @Test
+  void doesNotCacheNull() {
+    ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 60000, false, refreshes::add);
+
+    assertNull(cache.get("a", key -> null));
+
+    assertEquals(0, cache.size());
+  }
+
+  private String load(String key) {
+    return key + ":" + loads.incrementAndGet();
+  }
+}
@@ -0,0 +1,102 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FolderCountsTest {
+  private static final List<String> DOC_TYPES = List.of("CMPicture", "CMVideo");
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final CountDownLatch counting = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Test
+  void countsAreKeptUntilTheyExpire() {
+    FolderCounts counts = new FolderCounts(DOC_TYPES, docTypes -> {
+      requests.incrementAndGet();
+      return Map.of("CMPicture", 3, "CMVideo", 0);
+    }, 60000);
+
+    assertEquals(3, counts.get().get("CMPicture"));
+    assertEquals(0, counts.get().get("CMVideo"));
+    assertEquals(3, counts.getIfPresent("CMPicture"));
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  void concurrentCallersShareOneRefresh() throws Exception {
+    FolderCounts counts = new FolderCounts(DOC_TYPES, docTypes -> {
+      requests.incrementAndGet();
+      counting.countDown();
+      await(release);
+      return Map.of("CMPicture", 3, "CMVideo", 1);
+    }, 60000);
+
+    List<Map<String, Integer>> results = getConcurrently(counts);
+
+    assertEquals(1, requests.get());
+    for (Map<String, Integer> result : results) {
+      assertEquals(3, result.get("CMPicture"));
+    }
+  }
+
+  @Test
+  void failedRefreshIsNotRepeatedForWaitingCallers() throws Exception {
+    FolderCounts counts = new FolderCounts(DOC_TYPES, docTypes -> {
+      requests.incrementAndGet();
+      counting.countDown();
+      await(release);
+      throw new IllegalStateException("unavailable");
+    }, 60000);
+
+    List<Map<String, Integer>> results = getConcurrently(counts);
+
+    assertEquals(1, requests.get());
+    assertTrue(results.stream().allMatch(result -> result == null));
+    assertNull(counts.get());
+    assertEquals(2, requests.get());
+  }
+
+  private List<Map<String, Integer>> getConcurrently(FolderCounts counts) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Map<String, Integer>>> futures = new ArrayList<>();
+      futures.add(executor.submit(counts::get));
+      assertTrue(counting.await(5, TimeUnit.SECONDS));
+      for (int i = 0; i < 3; i++) {
+        futures.add(executor.submit(counts::get));
+      }
+      // the other callers are waiting for the running refresh
+      Thread.sleep(100);
+      release.countDown();
+      List<Map<String, Integer>> results = new ArrayList<>();
+      for (Future<Map<String, Integer>> future : futures) {
+        results.add(future.get(5, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
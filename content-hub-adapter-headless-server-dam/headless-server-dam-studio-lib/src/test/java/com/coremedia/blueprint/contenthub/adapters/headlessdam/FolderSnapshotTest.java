@@ -0,0 +1,279 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.ContentField;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.LinkDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.SearchQuery;
+import com.coremedia.contenthub.api.ContentHubObjectId;
+import com.coremedia.contenthub.api.Item;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FolderSnapshotTest {
+  private static final ZonedDateTime START = ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private final List<CMTeaseableDocument> folder = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicInteger searches = new AtomicInteger();
+  private final List<String> idListings = Collections.synchronizedList(new ArrayList<>());
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private volatile CountDownLatch searchStarted;
+  private volatile CountDownLatch searchReleased;
+
+  private final FolderSnapshot.Searcher searcher = (sortField, fields, offset, limit, consumer) -> {
+    searches.incrementAndGet();
+    if (!fields.contains(ContentField.NAME)) {
+      idListings.add(Thread.currentThread().getName() + ":" + limit);
+    }
+    CountDownLatch released = searchReleased;
+    if (released != null) {
+      searchStarted.countDown();
+      await(released);
+    }
+    Comparator<CMTeaseableDocument> order = Comparator.comparing(CMTeaseableDocument::getModificationDate,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+    List<CMTeaseableDocument> sorted;
+    synchronized (folder) {
+      sorted = folder.stream()
+              .sorted(SearchQuery.MODIFICATION_DATE_DESC.equals(sortField) ? order.reversed() : order)
+              .collect(Collectors.toList());
+    }
+    consumer.numFound(sorted.size());
+    sorted.stream().skip(offset).limit(limit).forEach(consumer::accept);
+  };
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void firstSyncRunsInTheBackground() throws Exception {
+    addDocuments(250, START);
+    FolderSnapshot snapshot = snapshot();
+
+    assertNull(snapshot.getItems(60000));
+
+    awaitFresh(snapshot);
+    assertEquals(250, snapshot.getItems(60000).size());
+    assertEquals(3, searches.get());
+  }
+
+  @Test
+  void previousListingIsServedWhileSyncing() throws Exception {
+    addDocuments(10, START);
+    FolderSnapshot snapshot = snapshot();
+    List<Item> previous = snapshot.loadItems(60000);
+    addDocuments(1, START.plusDays(1));
+
+    searchStarted = new CountDownLatch(1);
+    searchReleased = new CountDownLatch(1);
+    Future<?> sync = executor.submit(snapshot::sync);
+    assertTrue(searchStarted.await(5, TimeUnit.SECONDS));
+
+    // neither readers nor freshness checks wait for the running sync
+    assertEquals(previous, executor.submit(() -> snapshot.getItems(-1)).get(1, TimeUnit.SECONDS));
+    assertTrue(executor.submit(() -> snapshot.isFresh(60000)).get(1, TimeUnit.SECONDS));
+
+    searchReleased.countDown();
+    sync.get(5, TimeUnit.SECONDS);
+    assertEquals(11, snapshot.getItems(60000).size());
+  }
+
+  @Test
+  void freshnessIsCheckedWithoutWaitingForBackgroundSyncs() throws Exception {
+    addDocuments(10, START);
+    FolderSnapshot snapshot = snapshot();
+    snapshot.sync();
+    searches.set(0);
+
+    searchStarted = new CountDownLatch(1);
+    searchReleased = new CountDownLatch(1);
+    for (int i = 0; i < 20; i++) {
+      // like a search on a stale snapshot
+      assertFalse(snapshot.isFresh(-1));
+      snapshot.syncInBackground();
+    }
+    assertTrue(searchStarted.await(5, TimeUnit.SECONDS));
+    assertTrue(executor.submit(() -> snapshot.isFresh(60000)).get(1, TimeUnit.SECONDS));
+    snapshot.syncInBackground();
+
+    searchReleased.countDown();
+    awaitSearches(1);
+    Thread.sleep(50);
+    assertEquals(1, searches.get(), "background syncs of a snapshot must not pile up");
+  }
+
+  @Test
+  void restoredSnapshotIsServedWhileRevalidating() throws Exception {
+    addDocuments(10, START);
+    List<CMTeaseableDocument> saved = new ArrayList<>(folder);
+    addDocuments(1, START.plusDays(1));
+    List<Integer> savedSizes = Collections.synchronizedList(new ArrayList<>());
+    FolderSnapshot snapshot = snapshot();
+    snapshot.setPersistence(new FolderSnapshot.Persistence() {
+      @Override
+      public FolderSnapshot.Saved load() {
+        return new FolderSnapshot.Saved(saved, System.currentTimeMillis() - 120000);
+      }
+
+      @Override
+      public void save(@NonNull Collection<CMTeaseableDocument> documents) {
+        savedSizes.add(documents.size());
+      }
+    });
+    searchStarted = new CountDownLatch(1);
+    searchReleased = new CountDownLatch(1);
+
+    assertEquals(10, snapshot.getItems(60000).size());
+    assertTrue(searchStarted.await(5, TimeUnit.SECONDS));
+
+    // the revalidation neither blocks readers nor makes the restored snapshot fresh
+    for (int i = 0; i < 3; i++) {
+      assertEquals(10, executor.submit(() -> snapshot.getItems(60000)).get(1, TimeUnit.SECONDS).size());
+      assertFalse(executor.submit(() -> snapshot.isFresh(60000)).get(1, TimeUnit.SECONDS));
+    }
+
+    searchReleased.countDown();
+    awaitFresh(snapshot);
+    assertEquals(11, snapshot.getItems(60000).size());
+    assertEquals(List.of(11), savedSizes);
+  }
+
+  @Test
+  void listenersAreNotifiedOutsideTheLock() throws Exception {
+    addDocuments(5, START);
+    FolderSnapshot snapshot = snapshot();
+    CountDownLatch notified = new CountDownLatch(1);
+    CountDownLatch released = new CountDownLatch(1);
+    snapshot.addListener(new FolderSnapshot.Listener() {
+      @Override
+      public void updated(@NonNull CMTeaseableDocument document) {
+        notified.countDown();
+        await(released);
+      }
+
+      @Override
+      public void removed(@NonNull String id) {
+      }
+    });
+
+    Future<?> sync = executor.submit(snapshot::sync);
+    assertTrue(notified.await(5, TimeUnit.SECONDS));
+
+    addDocuments(1, START.plusDays(1));
+    assertEquals(6, executor.submit(() -> snapshot.getItems(-1)).get(1, TimeUnit.SECONDS).size());
+
+    released.countDown();
+    sync.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void deletionsAreFoundInTheBackground() throws Exception {
+    addDocuments(250, START);
+    FolderSnapshot snapshot = snapshot();
+    snapshot.sync();
+    folder.remove(0);
+
+    // the stale snapshot is synchronized on the reader's thread, but the ids are not listed there
+    assertEquals(250, snapshot.getItems(-1).size());
+    for (int i = 0; i < 500 && snapshot.getItems(60000).size() != 249; i++) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(249, snapshot.getItems(60000).size());
+    assertEquals(1, idListings.size());
+    assertFalse(idListings.get(0).startsWith(Thread.currentThread().getName() + ":"), idListings.toString());
+    assertTrue(idListings.get(0).endsWith(":1000"), idListings.toString());
+  }
+
+  @Test
+  void documentsWithoutModificationDateAreTrackedById() {
+    addDocuments(3, null);
+    addDocuments(2, START);
+    List<String> updated = new ArrayList<>();
+    FolderSnapshot snapshot = snapshot();
+    snapshot.addListener(new FolderSnapshot.Listener() {
+      @Override
+      public void updated(@NonNull CMTeaseableDocument document) {
+        updated.add(document.getLink().getId());
+      }
+
+      @Override
+      public void removed(@NonNull String id) {
+      }
+    });
+    snapshot.sync();
+    updated.clear();
+
+    snapshot.sync();
+    snapshot.sync();
+
+    // only the documents at the high-water mark are transferred again, and they are unchanged
+    assertEquals(List.of(), updated);
+    assertEquals(5, snapshot.getItems(60000).size());
+  }
+
+  private FolderSnapshot snapshot() {
+    return new FolderSnapshot("CMPicture", searcher, ContentField.LISTING, FolderSnapshotTest::item, 100, executor);
+  }
+
+  private void addDocuments(int count, ZonedDateTime modificationDate) {
+    int start = folder.size();
+    for (int i = start; i < start + count; i++) {
+      LinkDocument link = new LinkDocument();
+      link.setId(String.valueOf(i));
+      CMTeaseableDocument document = new CMTeaseableDocument();
+      document.setName("asset " + i);
+      document.setType("CMPicture");
+      document.setLink(link);
+      document.setModificationDate(modificationDate == null ? null : modificationDate.plusSeconds(i));
+      folder.add(document);
+    }
+  }
+
+  private static void awaitFresh(FolderSnapshot snapshot) throws InterruptedException {
+    for (int i = 0; i < 500 && !snapshot.isFresh(60000); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(snapshot.isFresh(60000));
+  }
+
+  private void awaitSearches(int count) throws InterruptedException {
+    for (int i = 0; i < 500 && searches.get() < count; i++) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Item item(CMTeaseableDocument document) {
+    return new HeadlessDAMItem(document, new ContentHubObjectId("dam", document.getLink().getId()), "http://localhost/", null);
+  }
+}
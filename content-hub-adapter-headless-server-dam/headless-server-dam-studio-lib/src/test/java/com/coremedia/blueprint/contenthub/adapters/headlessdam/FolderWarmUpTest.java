@@ -0,0 +1,41 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.contenthub.api.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FolderWarmUpTest {
+
+  @Test
+  void runLoadsAllFolders() {
+    List<String> loaded = Collections.synchronizedList(new ArrayList<>());
+    List<Item> items = new ArrayList<>();
+    FolderWarmUp warmUp = new FolderWarmUp("dam", List.of("audio", "video"), folderId -> {
+      loaded.add(folderId);
+      return items;
+    }, 60000, Runnable::run);
+
+    warmUp.run();
+
+    assertEquals(List.of("audio", "video"), loaded);
+    assertSame(items, warmUp.get("audio"));
+    assertNull(warmUp.get("pictures"));
+  }
+
+  @Test
+  void expiredListingsAreNotReturned() throws Exception {
+    FolderWarmUp warmUp = new FolderWarmUp("dam", List.of("audio"), folderId -> new ArrayList<>(), 10, Runnable::run);
+    warmUp.put("audio", new ArrayList<>());
+
+    Thread.sleep(30);
+
+    assertNull(warmUp.get("audio"));
+  }
+}
@@ -0,0 +1,57 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnectorRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.coremedia.blueprint.contenthub.adapters.headlessdam.TestConfigurations.configuration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeadlessDAMContentHubAdapterFactoryTest {
+  private static final String URL = "http://localhost:41180/";
+
+  private final HeadlessServerConnectorRegistry registry = new HeadlessServerConnectorRegistry();
+  private final HeadlessDAMContentHubAdapterFactory factory = new HeadlessDAMContentHubAdapterFactory(registry);
+
+  @AfterEach
+  void tearDown() {
+    factory.close();
+    registry.close();
+  }
+
+  @Test
+  void recreatedAdapterReleasesItsConnector() {
+    factory.createAdapter(configuration(URL, Map.of()), "dam");
+    factory.createAdapter(configuration(URL, Map.of()), "dam");
+
+    assertEquals(1, registry.getReferenceCount(URL));
+  }
+
+  @Test
+  void recreatedAdapterLeavesOneImageCacheDirectory(@TempDir Path directory) throws Exception {
+    Map<String, Object> values = Map.of("imageCacheSize", 1, "imageCacheDirectory", directory.toString());
+    factory.createAdapter(configuration(URL, values), "dam");
+    factory.createAdapter(configuration(URL, values), "dam");
+
+    try (Stream<Path> caches = Files.list(directory.resolve(ImageCache.directoryName("dam")))) {
+      assertEquals(1, caches.count());
+    }
+  }
+
+  @Test
+  void closingTheFactoryReleasesAllConnectors() {
+    factory.createAdapter(configuration(URL, Map.of()), "dam");
+    factory.createAdapter(configuration(URL, Map.of()), "other");
+    assertEquals(2, registry.getReferenceCount(URL));
+
+    factory.close();
+
+    assertEquals(0, registry.getReferenceCount(URL));
+  }
+}
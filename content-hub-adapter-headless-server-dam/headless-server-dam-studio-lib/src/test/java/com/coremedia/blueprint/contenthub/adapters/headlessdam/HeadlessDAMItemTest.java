@@ -0,0 +1,111 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnector;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessTransportSettings;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.StubHeadlessServer;
+import com.coremedia.contenthub.api.ContentHubObjectId;
+import com.coremedia.contenthub.api.preview.DetailsSection;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadlessDAMItemTest {
+  private static final List<String> CLASSIFIERS = List.of("thumbnail", "preview", "unknown");
+
+  private final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  @TempDir
+  Path directory;
+
+  private StubHeadlessServer server;
+  private HeadlessServerConnector connector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubHeadlessServer(request -> new StubHeadlessServer.Response(200, "image".getBytes(StandardCharsets.UTF_8))
+            .header("Content-Type", "image/jpeg"));
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings());
+  }
+
+  @AfterEach
+  void tearDown() {
+    connector.close();
+    server.close();
+  }
+
+  @Test
+  void itemWithoutPictureHasNoBlobs() throws Exception {
+    HeadlessDAMItem item = item("{\"name\":\"Video\",\"type\":\"CMVideo\"}");
+
+    for (String classifier : CLASSIFIERS) {
+      assertNull(item.getBlob(classifier), classifier);
+    }
+    assertTrue(server.getRequests().isEmpty());
+  }
+
+  @Test
+  void pictureWithoutUriTemplateHasNoBlobs() throws Exception {
+    HeadlessDAMItem item = item("{\"name\":\"Picture\",\"type\":\"CMPicture\",\"picture\":{\"crops\":[" +
+            "{\"name\":\"landscape_ratio4x3\",\"minWidth\":200,\"aspectRatio\":{\"width\":4,\"height\":3}," +
+            "\"sizes\":[{\"width\":800,\"height\":600}]}]}}");
+
+    for (String classifier : CLASSIFIERS) {
+      assertNull(item.getBlob(classifier), classifier);
+    }
+    assertTrue(server.getRequests().isEmpty());
+  }
+
+  @Test
+  void pictureWithoutCropsHasNoBlobs() throws Exception {
+    HeadlessDAMItem item = item("{\"name\":\"Picture\",\"type\":\"CMPicture\",\"picture\":" +
+            "{\"uriTemplate\":\"/caas/v1/media/1/data/{cropName}/{width}\",\"crops\":[]}}");
+
+    for (String classifier : CLASSIFIERS) {
+      assertNull(item.getBlob(classifier), classifier);
+    }
+    assertTrue(server.getRequests().isEmpty());
+  }
+
+  @Test
+  void detailsWithoutPictureAreBuiltOnceWithoutRequests() throws Exception {
+    HeadlessDAMItem item = item("{\"name\":\"Video\",\"type\":\"CMVideo\",\"link\":{\"id\":\"1\"}}");
+
+    List<DetailsSection> details = item.getDetails();
+
+    assertEquals(2, details.size());
+    assertSame(details, item.getDetails());
+    assertTrue(server.getRequests().isEmpty());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  void descriptionIsTheTitle() throws Exception {
+    assertEquals("Title", item("{\"name\":\"Video\",\"title\":\"Title\",\"type\":\"CMVideo\"}").getDescription());
+    assertNull(item("{\"name\":\"Video\",\"type\":\"CMVideo\"}").getDescription());
+  }
+
+  @NonNull
+  private HeadlessDAMItem item(@NonNull String json) throws Exception {
+    CMTeaseableDocument content = objectMapper.readValue(json, CMTeaseableDocument.class);
+    return new HeadlessDAMItem(content, new ContentHubObjectId("dam", "1"), server.getUrl(),
+            new ImageCache(directory, 1024, 60000, connector));
+  }
+}
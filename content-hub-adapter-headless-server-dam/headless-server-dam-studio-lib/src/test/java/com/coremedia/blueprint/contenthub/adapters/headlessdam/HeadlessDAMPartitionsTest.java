@@ -0,0 +1,79 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnectorRegistry;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.StubHeadlessServer;
+import com.coremedia.contenthub.api.ContentHubObjectId;
+import com.coremedia.contenthub.api.Folder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.coremedia.blueprint.contenthub.adapters.headlessdam.TestConfigurations.configuration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadlessDAMPartitionsTest {
+  private static final String EMPTY_RESULT = "{\"data\":{\"content\":{\"search\":{\"numFound\":0,\"result\":[]}}}}";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HeadlessServerConnectorRegistry registry = new HeadlessServerConnectorRegistry();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final Set<String> countedQueries = ConcurrentHashMap.newKeySet();
+  private final Set<String> listedQueries = ConcurrentHashMap.newKeySet();
+  private StubHeadlessServer server;
+  private HeadlessDAMContentHubAdapter adapter;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // every counted search finds 5 documents, every listing finds none
+    server = new StubHeadlessServer(request -> {
+      JsonNode variables = objectMapper.readTree(request.body).get("variables");
+      if (!variables.has("q0")) {
+        listedQueries.add(variables.get("query").asText());
+        return StubHeadlessServer.Response.json(EMPTY_RESULT);
+      }
+      StringBuilder counts = new StringBuilder();
+      for (Iterator<String> names = variables.fieldNames(); names.hasNext(); ) {
+        String name = names.next();
+        if (name.startsWith("q")) {
+          countedQueries.add(variables.get(name).asText());
+          counts.append(counts.length() == 0 ? "" : ",").append("\"t").append(name.substring(1)).append("\":{\"numFound\":5}");
+        }
+      }
+      return StubHeadlessServer.Response.json("{\"data\":{\"content\":{" + counts + "}}}");
+    });
+    adapter = new HeadlessDAMContentHubAdapter(configuration(server.getUrl(), Map.of("partitionThreshold", 1)), "dam",
+            registry, executor, new ThreadPoolTaskScheduler());
+  }
+
+  @AfterEach
+  void tearDown() {
+    adapter.close();
+    registry.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  @Test
+  void partitionIsListedWithTheQueryItWasCountedWith() {
+    Folder month = adapter.getFolder(null, new ContentHubObjectId("dam", "pictures/2023-05"));
+
+    assertEquals(List.of(), adapter.getItems(null, month));
+
+    assertEquals(1, listedQueries.size());
+    String listed = listedQueries.iterator().next();
+    assertTrue(listed.contains("creationdate:[2023-05-01T00:00:00Z TO 2023-06-01T00:00:00Z}"), listed);
+    assertTrue(countedQueries.contains(listed), countedQueries.toString());
+  }
+}
@@ -0,0 +1,75 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnectorRegistry;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.StubHeadlessServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.coremedia.blueprint.contenthub.adapters.headlessdam.TestConfigurations.configuration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class HeadlessDAMSearchTest {
+  private static final String EMPTY_RESULT = "{\"data\":{\"content\":{\"search\":{\"numFound\":0,\"result\":[]}}}}";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HeadlessServerConnectorRegistry registry = new HeadlessServerConnectorRegistry();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private StubHeadlessServer server;
+  private HeadlessDAMContentHubAdapter adapter;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubHeadlessServer(request -> StubHeadlessServer.Response.json(EMPTY_RESULT));
+    adapter = new HeadlessDAMContentHubAdapter(configuration(server.getUrl(), Map.of()), "dam", registry, executor,
+            new ThreadPoolTaskScheduler());
+  }
+
+  @AfterEach
+  void tearDown() {
+    adapter.close();
+    registry.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  @Test
+  void userSyntaxIsEscapedAndFiltersAreAndedOntoIt() throws Exception {
+    adapter.search("title:x OR *", null, null, List.of("isDeleted:false"), null, 10);
+
+    JsonNode variables = variables();
+    assertEquals("(title\\:x \"OR\" \\*) AND (isDeleted:false)", variables.get("query").asText());
+    assertFalse(variables.has("filterQueries"));
+  }
+
+  @Test
+  void latestChangesComeFirstByDefault() throws Exception {
+    adapter.search("car", null, null, List.of(), null, 10);
+
+    JsonNode variables = variables();
+    assertEquals("MODIFICATION_DATE_DESC", variables.get("sortFields").get(0).asText());
+    assertFalse(variables.has("filterQueries"));
+  }
+
+  @Test
+  void blankQueryMatchesAll() throws Exception {
+    adapter.search("  ", null, null, null, null, 10);
+
+    assertEquals("*", variables().get("query").asText());
+  }
+
+  private JsonNode variables() throws Exception {
+    List<StubHeadlessServer.Request> requests = server.getRequests();
+    assertEquals(1, requests.size());
+    return objectMapper.readTree(requests.get(0).body).get("variables");
+  }
+}
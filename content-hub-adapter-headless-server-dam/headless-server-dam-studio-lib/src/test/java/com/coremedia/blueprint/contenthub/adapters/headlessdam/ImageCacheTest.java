@@ -0,0 +1,157 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessServerConnector;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.HeadlessTransportSettings;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.StubHeadlessServer;
+import com.coremedia.contenthub.api.ContentHubBlob;
+import com.coremedia.contenthub.api.ContentHubDefaultBlob;
+import com.coremedia.contenthub.api.ContentHubObjectId;
+import com.coremedia.contenthub.api.preview.DetailsSection;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageCacheTest {
+  private static final byte[] IMAGE = "image".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir
+  Path directory;
+
+  private final AtomicBoolean unavailable = new AtomicBoolean();
+  private StubHeadlessServer server;
+  private HeadlessServerConnector connector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubHeadlessServer(request -> unavailable.get() ? StubHeadlessServer.Response.status(503) :
+            new StubHeadlessServer.Response(200, IMAGE).header("Content-Type", "image/jpeg").header("ETag", "\"1\""));
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings());
+  }
+
+  @AfterEach
+  void tearDown() {
+    connector.close();
+    server.close();
+  }
+
+  @Test
+  void imagesAreDownloadedOnce() throws Exception {
+    ImageCache cache = new ImageCache(directory, 1024, 60000, connector);
+
+    String url = server.getUrl() + "image/1";
+    assertEquals(IMAGE.length, cache.get(url).getSize());
+    try (InputStream in = cache.open(url)) {
+      assertArrayEquals(IMAGE, in.readAllBytes());
+    }
+
+    assertEquals(1, server.getRequests().size());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  void purgeDeletesFilesOfPreviousRuns() throws Exception {
+    Path leftover = Files.write(directory.resolve("leftover"), IMAGE);
+    ImageCache cache = new ImageCache(directory, 1024, 60000, connector);
+    cache.get(server.getUrl() + "image/1");
+
+    cache.purge();
+
+    assertFalse(Files.exists(leftover));
+    try (InputStream in = cache.open(server.getUrl() + "image/1")) {
+      assertArrayEquals(IMAGE, in.readAllBytes());
+    }
+    assertEquals(1, server.getRequests().size());
+  }
+
+  @Test
+  void connectionReusesItsDirectory() throws Exception {
+    Path connectionDirectory = directory.resolve("headless-dam-images-a_b");
+    Path leftover = Files.write(Files.createDirectories(connectionDirectory).resolve("leftover"), IMAGE);
+
+    ImageCache cache = ImageCache.forConnection(directory, "a/b", 1024, 60000, connector);
+    cache.get(server.getUrl() + "image/1");
+
+    assertFalse(Files.exists(leftover));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(List.of(connectionDirectory), files.collect(Collectors.toList()));
+    }
+    try (Stream<Path> files = Files.walk(connectionDirectory)) {
+      assertEquals(1, files.filter(Files::isRegularFile).count());
+    }
+  }
+
+  @Test
+  void replacingCacheKeepsItsFiles() throws Exception {
+    String url = server.getUrl() + "image/1";
+    ImageCache previous = ImageCache.forConnection(directory, "dam", 1024, 60000, connector);
+    previous.get(url);
+
+    previous.clear();
+    ImageCache cache = ImageCache.forConnection(directory, "dam", 1024, 60000, connector);
+    cache.get(url);
+
+    assertThrows(IllegalStateException.class, () -> previous.get(url));
+    try (InputStream in = cache.open(url)) {
+      assertArrayEquals(IMAGE, in.readAllBytes());
+    }
+    assertEquals(2, server.getRequests().size());
+  }
+
+  @Test
+  void failedDownloadIsRetriedByTheItem() throws Exception {
+    HeadlessDAMItem item = pictureItem();
+
+    unavailable.set(true);
+    ContentHubBlob fallback = item.getBlob("preview");
+    unavailable.set(false);
+    ContentHubBlob cached = item.getBlob("preview");
+
+    assertFalse(fallback instanceof ContentHubDefaultBlob);
+    assertTrue(cached instanceof ContentHubDefaultBlob);
+    assertSame(cached, item.getBlob("preview"));
+    assertEquals(2, server.getRequests().size());
+  }
+
+  @Test
+  void detailsDoNotDownloadThePreview() throws Exception {
+    HeadlessDAMItem item = pictureItem();
+    unavailable.set(true);
+
+    List<DetailsSection> details = item.getDetails();
+
+    assertSame(details, item.getDetails());
+    assertTrue(server.getRequests().isEmpty());
+  }
+
+  @NonNull
+  private HeadlessDAMItem pictureItem() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    CMTeaseableDocument content = objectMapper.readValue("{\"name\":\"Picture\",\"type\":\"CMPicture\",\"picture\":" +
+            "{\"uriTemplate\":\"/caas/v1/media/1/data/{cropName}/{width}\",\"crops\":[{\"name\":\"landscape_ratio4x3\"," +
+            "\"minWidth\":200,\"aspectRatio\":{\"width\":4,\"height\":3},\"sizes\":[{\"width\":800,\"height\":600}]}]}}",
+            CMTeaseableDocument.class);
+    return new HeadlessDAMItem(content, new ContentHubObjectId("dam", "1"), server.getUrl(),
+            new ImageCache(directory, 1024, 60000, connector));
+  }
+}
@@ -0,0 +1,157 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.LinkDocument;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalSearchIndexTest {
+  private static final ZonedDateTime START = ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final List<String> ALL_TYPES = List.of("CMPicture", "CMVideo");
+  private static final List<String> BY_ID = List.of();
+
+  private final LocalSearchIndex index = new LocalSearchIndex();
+
+  @BeforeEach
+  void setUp() {
+    index.updated(document("1", "CMPicture", "red-car.jpg", "Red Car", "A car parked in the city", 3));
+    index.updated(document("2", "CMPicture", "blue-cab.jpg", "Blue Cab", null, 1));
+    index.updated(document("3", "CMVideo", "car-race.mp4", null, "Cars racing", 2));
+    index.updated(document("10", "CMPicture", "city.jpg", "City", "Streets at night", 4));
+  }
+
+  @Test
+  void everyWordMustMatch() {
+    assertEquals(List.of("1"), search("red car", ALL_TYPES, BY_ID));
+    assertEquals(List.of(), search("red cab", ALL_TYPES, BY_ID));
+  }
+
+  @Test
+  void wordsOfNameTitleAndTeaserTextMatchIgnoringCase() {
+    assertEquals(List.of("1"), search("RED", ALL_TYPES, BY_ID));
+    assertEquals(List.of("1", "10"), search("city", ALL_TYPES, BY_ID));
+    assertEquals(List.of("3"), search("racing", ALL_TYPES, BY_ID));
+  }
+
+  @Test
+  void lastWordMatchesAsPrefix() {
+    assertEquals(List.of("1", "2", "3"), search("ca", ALL_TYPES, BY_ID));
+    assertEquals(List.of("1"), search("parked ci", ALL_TYPES, BY_ID));
+  }
+
+  @Test
+  void otherWordsMatchAsPrefixOnlyWithAsterisk() {
+    assertEquals(List.of(), search("ca blue", ALL_TYPES, BY_ID));
+    assertEquals(List.of("2"), search("ca* blue", ALL_TYPES, BY_ID));
+  }
+
+  @Test
+  void asteriskAloneMatchesAllDocuments() {
+    assertEquals(List.of("1", "2", "3", "10"), search("*", ALL_TYPES, BY_ID));
+    assertEquals(List.of("1", "2", "3", "10"), search("  ", ALL_TYPES, BY_ID));
+    assertEquals(List.of("1", "3"), search("car *", ALL_TYPES, BY_ID));
+  }
+
+  @Test
+  void searchSyntaxIsLeftToTheServer() {
+    for (String query : List.of("title:car", "\"red car\"", "red AND car", "car OR cab", "NOT car", "-car", "+car",
+            "(car)", "car~", "car^2", "[a TO b]")) {
+      assertNull(index.search(query, ALL_TYPES, BY_ID, 10), query);
+    }
+    assertEquals(11, index.getUnsupportedQueryCount());
+    assertEquals(0, index.getQueryCount());
+  }
+
+  @Test
+  void wordsContainingOperatorsAreNoSearchSyntax() {
+    assertEquals(List.of(), search("android", ALL_TYPES, BY_ID));
+    assertEquals(List.of("1"), search("red-car", ALL_TYPES, BY_ID));
+  }
+
+  @Test
+  void unknownSortFieldIsLeftToTheServer() {
+    assertNull(index.search("car", ALL_TYPES, List.of("SCORE_DESC"), 10));
+    assertEquals(1, index.getUnsupportedQueryCount());
+  }
+
+  @Test
+  void resultsAreSorted() {
+    assertEquals(List.of("2", "3", "1", "10"), search("*", ALL_TYPES, List.of("MODIFICATION_DATE_ASC")));
+    assertEquals(List.of("10", "1", "3", "2"), search("*", ALL_TYPES, List.of("MODIFICATION_DATE_DESC")));
+    assertEquals(List.of("2", "3", "10", "1"), search("*", ALL_TYPES, List.of("NAME_ASC")));
+    // a document without title is sorted by its name
+    assertEquals(List.of("1", "10", "3", "2"), search("*", ALL_TYPES, List.of("TITLE_DESC")));
+    assertEquals(List.of("1", "2", "10", "3"), search("*", ALL_TYPES, List.of("DOC_TYPE_ASC")));
+  }
+
+  @Test
+  void numericIdsAreSortedByValue() {
+    assertEquals(List.of("1", "2", "3", "10"), search("*", ALL_TYPES, List.of("ID_ASC")));
+    assertEquals(List.of("10", "3", "2", "1"), search("*", ALL_TYPES, List.of("ID_DESC")));
+  }
+
+  @Test
+  void resultsAreFilteredByType() {
+    assertEquals(List.of("1", "2"), search("ca", List.of("CMPicture"), BY_ID));
+    assertEquals(List.of("3"), search("ca", List.of("CMVideo"), BY_ID));
+    assertEquals(List.of(), search("ca", List.of("CMDownload"), BY_ID));
+  }
+
+  @Test
+  void resultsAreLimitedAfterSorting() {
+    List<String> ids = index.search("*", ALL_TYPES, List.of("MODIFICATION_DATE_DESC"), 2).stream()
+            .map(document -> document.getLink().getId())
+            .collect(Collectors.toList());
+
+    assertEquals(List.of("10", "1"), ids);
+  }
+
+  @Test
+  void updatedDocumentIsFoundByItsNewWordsOnly() {
+    index.updated(document("2", "CMPicture", "green-cab.jpg", "Green Cab", null, 5));
+
+    assertEquals(List.of(), search("blue", ALL_TYPES, BY_ID));
+    assertEquals(List.of("2"), search("green", ALL_TYPES, BY_ID));
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  void removedDocumentIsNotFound() {
+    index.removed("3");
+
+    assertEquals(List.of("1", "2"), search("ca", ALL_TYPES, BY_ID));
+    assertEquals(List.of(), search("racing", ALL_TYPES, BY_ID));
+    assertEquals(3, index.size());
+  }
+
+  @NonNull
+  private List<String> search(@NonNull String query, @NonNull List<String> docTypes, @NonNull List<String> sortFields) {
+    return index.search(query, docTypes, sortFields, 10).stream()
+            .map(document -> document.getLink().getId())
+            .collect(Collectors.toList());
+  }
+
+  @NonNull
+  private static CMTeaseableDocument document(String id, String type, String name, String title, String teaserText,
+                                              int modifiedDays) {
+    LinkDocument link = new LinkDocument();
+    link.setId(id);
+    CMTeaseableDocument document = new CMTeaseableDocument();
+    document.setLink(link);
+    document.setType(type);
+    document.setName(name);
+    document.setTitle(title);
+    document.setTeaserText(teaserText);
+    document.setModificationDate(START.plusDays(modifiedDays));
+    return document;
+  }
+}
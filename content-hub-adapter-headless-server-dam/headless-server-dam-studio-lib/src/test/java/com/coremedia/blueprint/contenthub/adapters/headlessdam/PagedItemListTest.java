@@ -0,0 +1,96 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.CMTeaseableDocument;
+import com.coremedia.blueprint.contenthub.adapters.headlessdam.headless.LinkDocument;
+import com.coremedia.contenthub.api.ContentHubObjectId;
+import com.coremedia.contenthub.api.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PagedItemListTest {
+  private final List<CMTeaseableDocument> folder = new ArrayList<>();
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private final PagedItemList.PageLoader pageLoader = (offset, limit, consumer) -> {
+    requests.incrementAndGet();
+    consumer.numFound(folder.size());
+    for (int i = offset; i < Math.min(offset + limit, folder.size()); i++) {
+      consumer.accept(folder.get(i));
+    }
+  };
+
+  @Test
+  void sizeIsTakenFromTheFirstPage() {
+    addDocuments(250);
+
+    PagedItemList items = new PagedItemList(pageLoader, PagedItemListTest::item, 100);
+
+    assertEquals(250, items.size());
+    assertEquals(1, requests.get());
+    assertEquals("asset 249", items.get(249).getName());
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  void shrinkingFolderFailsIndexedAccessAndIterationAlike() {
+    addDocuments(250);
+    PagedItemList items = new PagedItemList(pageLoader, PagedItemListTest::item, 100);
+
+    folder.subList(150, 250).clear();
+
+    assertEquals(250, items.size());
+    assertEquals("asset 149", items.get(149).getName());
+    assertThrows(ConcurrentModificationException.class, () -> items.get(200));
+    assertThrows(ConcurrentModificationException.class, () -> {
+      for (Item item : items) {
+        assertNotNull(item);
+      }
+    });
+    assertThrows(ConcurrentModificationException.class, () -> new ArrayList<>(items));
+    assertThrows(ConcurrentModificationException.class, items::toArray);
+  }
+
+  @Test
+  void growingFolderKeepsTheSnapshotSize() {
+    addDocuments(150);
+    PagedItemList items = new PagedItemList(pageLoader, PagedItemListTest::item, 100);
+
+    addDocuments(100);
+
+    assertEquals(150, items.size());
+    assertEquals(150, new ArrayList<>(items).size());
+  }
+
+  @Test
+  void indexBeyondTheSnapshotSizeFails() {
+    addDocuments(10);
+    PagedItemList items = new PagedItemList(pageLoader, PagedItemListTest::item, 100);
+
+    assertThrows(IndexOutOfBoundsException.class, () -> items.get(10));
+  }
+
+  private void addDocuments(int count) {
+    int start = folder.size();
+    for (int i = start; i < start + count; i++) {
+      LinkDocument link = new LinkDocument();
+      link.setId(String.valueOf(i));
+      CMTeaseableDocument document = new CMTeaseableDocument();
+      document.setName("asset " + i);
+      document.setType("CMPicture");
+      document.setLink(link);
+      folder.add(document);
+    }
+  }
+
+  private static Item item(CMTeaseableDocument document) {
+    return new HeadlessDAMItem(document, new ContentHubObjectId("dam", document.getLink().getId()), "http://localhost/", null);
+  }
+}
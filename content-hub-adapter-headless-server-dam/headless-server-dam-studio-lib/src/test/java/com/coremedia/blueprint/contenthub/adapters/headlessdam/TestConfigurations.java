@@ -0,0 +1,34 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates connection settings for tests. Values are given by property name, e.g. "pageSize", all others are null.
+ */
+final class TestConfigurations {
+  private TestConfigurations() {
+  }
+
+  static HeadlessDAMContentHubConfiguration configuration(String headlessServerUrl, Map<String, Object> values) {
+    Map<String, Object> properties = new HashMap<>(values);
+    properties.put("headlessServerUrl", headlessServerUrl);
+    properties.putIfAbsent("siteId", "site");
+    return (HeadlessDAMContentHubConfiguration) Proxy.newProxyInstance(HeadlessDAMContentHubConfiguration.class.getClassLoader(),
+            new Class<?>[]{HeadlessDAMContentHubConfiguration.class},
+            (proxy, method, args) -> {
+              String name = method.getName();
+              if (name.startsWith("get")) {
+                return properties.get(Character.toLowerCase(name.charAt(3)) + name.substring(4));
+              }
+              if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+              }
+              if ("equals".equals(name)) {
+                return proxy == args[0];
+              }
+              return properties.toString();
+            });
+  }
+}
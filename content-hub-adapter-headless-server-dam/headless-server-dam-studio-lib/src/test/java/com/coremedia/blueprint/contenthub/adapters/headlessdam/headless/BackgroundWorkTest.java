@@ -0,0 +1,112 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackgroundWorkTest {
+  private final CountDownLatch release = new CountDownLatch(1);
+  private HeadlessServerConnector connector;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    connector.close();
+  }
+
+  @Test
+  void backgroundWorkLeavesRoomForInteractiveWork() throws Exception {
+    connector = connector(4, 1);
+
+    CompletableFuture<String> first = connector.supplyInBackground(this::block, 0);
+    CompletableFuture<String> second = connector.supplyInBackground(this::block, 0);
+    CompletableFuture<String> rejected = connector.supplyInBackground(this::block, 0);
+
+    assertFalse(first.isDone());
+    assertFalse(second.isDone());
+    assertRejected(rejected);
+    assertEquals("interactive", connector.supplyAsync(() -> "interactive", 0).get(5, TimeUnit.SECONDS));
+
+    release.countDown();
+    assertEquals("done", first.get(5, TimeUnit.SECONDS));
+    assertEquals("done", second.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void backgroundWorkIsCancelledAfterItsDeadline() throws Exception {
+    connector = connector(2, 1);
+
+    CompletableFuture<String> slow = connector.supplyInBackground(this::block, 50);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TimeoutException.class, e.getCause());
+    assertEquals("next", awaitAccepted(() -> "next"));
+  }
+
+  @Test
+  void queuedBackgroundWorkReleasesItsPermitWhenCancelled() throws Exception {
+    connector = connector(1, 2);
+    CompletableFuture<String> interactive = connector.supplyAsync(this::block, 0);
+
+    CompletableFuture<String> queued = connector.supplyInBackground(() -> "never", 50);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TimeoutException.class, e.getCause());
+    release.countDown();
+    assertEquals("done", interactive.get(5, TimeUnit.SECONDS));
+    assertEquals("next", awaitAccepted(() -> "next"));
+  }
+
+  private HeadlessServerConnector connector(int asyncThreads, int asyncQueueCapacity) {
+    HeadlessTransportSettings settings = new HeadlessTransportSettings();
+    settings.setAsyncThreads(asyncThreads);
+    settings.setAsyncQueueCapacity(asyncQueueCapacity);
+    return new HeadlessServerConnector("http://localhost:1/", settings);
+  }
+
+  private String block() {
+    try {
+      release.await();
+      return "done";
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "interrupted";
+    }
+  }
+
+  /**
+   * The permit of cancelled work is released once its thread has been interrupted.
+   */
+  private String awaitAccepted(Supplier<String> work) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (true) {
+      CompletableFuture<String> future = connector.supplyInBackground(work, 0);
+      try {
+        return future.get(5, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertTrue(System.currentTimeMillis() < deadline, "the permit has not been released");
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  private static void assertRejected(CompletableFuture<?> future) {
+    assertTrue(future.isCompletedExceptionally());
+    ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+  }
+}
@@ -0,0 +1,145 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+  private static final long OPEN_MILLIS = 50;
+
+  private final CircuitBreaker breaker = new CircuitBreaker("test", 3, OPEN_MILLIS);
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    fail(2);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+    breaker.onSuccess(breaker.tryAcquire());
+    fail(2);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+    fail(1);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertEquals(CircuitBreaker.Admission.REJECTED, breaker.tryAcquire());
+  }
+
+  @Test
+  void letsASingleProbeThroughAfterTheOpenDuration() throws Exception {
+    fail(3);
+    Thread.sleep(OPEN_MILLIS + 10);
+
+    CircuitBreaker.Admission probe = breaker.tryAcquire();
+    assertEquals(CircuitBreaker.Admission.PROBE, probe);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertEquals(CircuitBreaker.Admission.REJECTED, breaker.tryAcquire());
+
+    breaker.onSuccess(probe);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertEquals(CircuitBreaker.Admission.REQUEST, breaker.tryAcquire());
+  }
+
+  @Test
+  void failedProbeOpensTheBreakerAgain() throws Exception {
+    fail(3);
+    Thread.sleep(OPEN_MILLIS + 10);
+
+    breaker.onFailure(breaker.tryAcquire());
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertEquals(CircuitBreaker.Admission.REJECTED, breaker.tryAcquire());
+  }
+
+  @Test
+  void cancelledProbeLetsTheNextRequestProbe() throws Exception {
+    fail(3);
+    Thread.sleep(OPEN_MILLIS + 10);
+
+    breaker.onCancel(breaker.tryAcquire());
+
+    assertEquals(CircuitBreaker.Admission.PROBE, breaker.tryAcquire());
+  }
+
+  @Test
+  void requestsSentBeforeTheBreakerOpenedDoNotCloseIt() throws Exception {
+    CircuitBreaker.Admission stale = breaker.tryAcquire();
+    CircuitBreaker.Admission staleFailure = breaker.tryAcquire();
+    fail(3);
+
+    breaker.onSuccess(stale);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    Thread.sleep(OPEN_MILLIS + 10);
+    CircuitBreaker.Admission probe = breaker.tryAcquire();
+    breaker.onFailure(staleFailure);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertEquals(CircuitBreaker.Admission.REJECTED, breaker.tryAcquire());
+
+    breaker.onSuccess(probe);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void thresholdZeroNeverOpens() {
+    CircuitBreaker disabled = new CircuitBreaker("test", 0, OPEN_MILLIS);
+    for (int i = 0; i < 10; i++) {
+      disabled.onFailure(disabled.tryAcquire());
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, disabled.getState());
+  }
+
+  @Test
+  void unreadableResponsesOpenTheBreakerOfTheConnector() throws Exception {
+    try (StubHeadlessServer server = new StubHeadlessServer(request -> new StubHeadlessServer.Response(200,
+            "{\"data\":".getBytes(StandardCharsets.UTF_8)).header("Content-Type", "application/json"))) {
+      HeadlessServerConnector connector = connector(server);
+      try {
+        for (int i = 0; i < 2; i++) {
+          String id = "content:" + i;
+          RuntimeException e = assertThrows(RuntimeException.class, () -> connector.getContent(id));
+          assertFalse(e instanceof HeadlessServerException, e.toString());
+        }
+
+        assertThrows(HeadlessServerUnavailableException.class, () -> connector.getContent("content:2"));
+        assertEquals(2, server.getRequests().size());
+      } finally {
+        connector.close();
+      }
+    }
+  }
+
+  @Test
+  void clientErrorsDoNotOpenTheBreakerOfTheConnector() throws Exception {
+    try (StubHeadlessServer server = new StubHeadlessServer(request -> StubHeadlessServer.Response.status(400))) {
+      HeadlessServerConnector connector = connector(server);
+      try {
+        for (int i = 0; i < 3; i++) {
+          String id = "content:" + i;
+          HeadlessServerException e = assertThrows(HeadlessServerException.class, () -> connector.getContent(id));
+          assertFalse(e instanceof HeadlessServerUnavailableException, e.toString());
+        }
+
+        assertEquals(3, server.getRequests().size());
+      } finally {
+        connector.close();
+      }
+    }
+  }
+
+  private static HeadlessServerConnector connector(StubHeadlessServer server) {
+    HeadlessTransportSettings settings = new HeadlessTransportSettings();
+    settings.setCircuitBreakerFailureThreshold(2);
+    settings.setCircuitBreakerOpenDuration(60000);
+    return new HeadlessServerConnector(server.getUrl(), settings);
+  }
+
+  private void fail(int count) {
+    for (int i = 0; i < count; i++) {
+      breaker.onFailure(breaker.tryAcquire());
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitTest {
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ConcurrencyLimit limit = new ConcurrencyLimit("test", 8, 100, 50);
+
+  @Test
+  void requestsBeyondTheLimitAreRejectedAfterWaiting() throws Exception {
+    acquire(8);
+
+    long start = System.nanoTime();
+    assertFalse(limit.acquire());
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  void waitingRequestGetsAReleasedSlot() throws Exception {
+    acquire(8);
+    long start = System.nanoTime();
+
+    CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+      try {
+        return limit.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    });
+    limit.release(start, start + FAST, false);
+
+    assertTrue(waiting.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void slowRequestsDecreaseTheLimitOncePerRoundTrip() throws Exception {
+    acquire(3);
+    long start = System.nanoTime();
+
+    limit.release(start, start + SLOW, false);
+    limit.release(start, start + SLOW, false);
+    assertEquals(6, limit.getLimit());
+
+    // a request sent after the decrease decreases the limit again
+    limit.release(start + 2 * SLOW, start + 3 * SLOW, true);
+    assertEquals(4, limit.getLimit());
+  }
+
+  @Test
+  void fastRequestsGrowTheLimitBackWhileItIsUsed() throws Exception {
+    acquire(1);
+    long start = System.nanoTime();
+    limit.release(start, start + SLOW, true);
+    assertEquals(6, limit.getLimit());
+
+    // a single request in flight does not use the limit
+    acquire(1);
+    limit.release(start, start + FAST, false);
+    assertEquals(6, limit.getLimit());
+
+    for (int i = 0; i < 20; i++) {
+      acquire(4);
+      for (int j = 0; j < 4; j++) {
+        limit.release(start, start + FAST, false);
+      }
+    }
+    assertEquals(8, limit.getLimit());
+  }
+
+  @Test
+  void maxLimitZeroDisablesTheLimit() throws Exception {
+    ConcurrencyLimit disabled = new ConcurrencyLimit("test", 0, 100, 0);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(disabled.acquire());
+    }
+
+    assertEquals(Integer.MAX_VALUE, disabled.getLimit());
+  }
+
+  private void acquire(int count) throws InterruptedException {
+    for (int i = 0; i < count; i++) {
+      assertTrue(limit.acquire());
+    }
+  }
+}
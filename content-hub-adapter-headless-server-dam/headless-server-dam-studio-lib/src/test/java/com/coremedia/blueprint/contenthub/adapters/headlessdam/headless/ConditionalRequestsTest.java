@@ -0,0 +1,101 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalRequestsTest {
+  private static final String ETAG = "\"v1\"";
+  private static final String RESULTS = "{\"data\":{\"content\":{\"search\":{\"numFound\":2,\"result\":[" +
+          "{\"name\":\"a\"},{\"name\":\"b\"}]}}}}";
+
+  private StubHeadlessServer server;
+  private HeadlessServerConnector connector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // answers like a server implementing RFC 9110: preconditions on a POST fail, a GET is revalidated
+    server = new StubHeadlessServer(request -> {
+      boolean conditional = request.header("If-None-Match") != null || request.header("If-Modified-Since") != null;
+      if (conditional && "POST".equals(request.method)) {
+        return StubHeadlessServer.Response.status(412);
+      }
+      if (ETAG.equals(request.header("If-None-Match"))) {
+        return StubHeadlessServer.Response.status(304).header("ETag", ETAG);
+      }
+      return StubHeadlessServer.Response.json(RESULTS).header("ETag", ETAG);
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (connector != null) {
+      connector.close();
+    }
+    server.close();
+  }
+
+  @Test
+  void repeatedSearchIsPostedWithoutValidators() {
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings());
+
+    assertEquals(List.of("a", "b"), search());
+    assertEquals(List.of("a", "b"), search());
+
+    assertEquals(2, server.getRequests().size());
+    for (StubHeadlessServer.Request request : server.getRequests()) {
+      assertEquals("POST", request.method);
+      assertNull(request.header("If-None-Match"));
+      assertNull(request.header("If-Modified-Since"));
+    }
+  }
+
+  @Test
+  void postedSearchResultsAreReplayedIfTheServerIsUnavailable() {
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings());
+    assertEquals(List.of("a", "b"), search());
+
+    server.setHandler(request -> StubHeadlessServer.Response.status(503));
+
+    assertEquals(List.of("a", "b"), search());
+    assertEquals(1, connector.getFallbackResponseCount());
+  }
+
+  @Test
+  void persistedQueryIsRevalidated() {
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings()).withPersistedQueries(true);
+
+    assertEquals(List.of("a", "b"), search());
+    assertEquals(List.of("a", "b"), search());
+
+    List<StubHeadlessServer.Request> requests = server.getRequests();
+    assertEquals(2, requests.size());
+    assertTrue(requests.stream().allMatch(request -> "GET".equals(request.method)));
+    assertEquals(ETAG, requests.get(1).header("If-None-Match"));
+    assertEquals(1, connector.getNotModifiedRequestCount());
+  }
+
+  @NonNull
+  private List<String> search() {
+    List<String> names = new ArrayList<>();
+    connector.search(new SearchQuery("site", "CMPicture", 0, 10), new SearchResultConsumer() {
+      @Override
+      public void numFound(int total) {
+      }
+
+      @Override
+      public void accept(@NonNull CMTeaseableDocument document) {
+        names.add(document.getName());
+      }
+    });
+    return names;
+  }
+}
@@ -0,0 +1,282 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentEncodingRequestFactoryTest {
+  private static final String BODY = "{\"data\":{\"content\":{\"search\":{\"numFound\":0,\"result\":[]}}}}";
+  private static final URI URI = java.net.URI.create("http://headless/graphql");
+
+  @Test
+  void inflatesZlibWrappedData() throws IOException {
+    assertEquals(BODY, inflate(deflate(BODY, false)));
+  }
+
+  @Test
+  void inflatesRawDeflateData() throws IOException {
+    assertEquals(BODY, inflate(deflate(BODY, true)));
+  }
+
+  @Test
+  void inflatesRawDeflateDataStartingLikeAZlibHeader() throws IOException {
+    // a stored block of 8 bytes followed by an empty final block, the first byte has the deflate method's low bits
+    byte[] raw = {0x08, 0x08, 0x00, (byte) 0xf7, (byte) 0xff, 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 0x03, 0x00};
+    assertEquals("abcdefgh", inflate(raw));
+  }
+
+  @Test
+  void inflatesEmptyData() throws IOException {
+    assertEquals("", inflate(deflate("", true)));
+  }
+
+  @Test
+  void requestBodyIsWrittenToTheTransportWhileItIsSerialized() throws IOException {
+    TransportRequest transportRequest = new TransportRequest();
+    ClientHttpRequest request = new ContentEncodingRequestFactory((uri, method) -> transportRequest, true, 0)
+            .createRequest(URI, HttpMethod.POST);
+
+    request.getBody().write(bytes(BODY));
+
+    assertEquals(BODY, transportRequest.body.toString(StandardCharsets.UTF_8));
+    assertEquals("gzip, deflate", transportRequest.headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+    request.execute().close();
+  }
+
+  @Test
+  void largeRequestBodyIsSentGzipEncoded() throws IOException {
+    TransportRequest transportRequest = new TransportRequest();
+    ClientHttpRequest request = new ContentEncodingRequestFactory((uri, method) -> transportRequest, true, 16)
+            .createRequest(URI, HttpMethod.POST);
+
+    request.getBody().write(bytes(BODY));
+    assertEquals(0, transportRequest.body.size());
+    request.execute().close();
+
+    assertEquals("gzip", transportRequest.headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(transportRequest.body.size(), transportRequest.headers.getContentLength());
+    assertEquals(BODY, gunzip(transportRequest.body.toByteArray()));
+  }
+
+  @Test
+  void smallRequestBodyIsSentAsItIs() throws IOException {
+    TransportRequest transportRequest = new TransportRequest();
+    ClientHttpRequest request = new ContentEncodingRequestFactory((uri, method) -> transportRequest, true, 1024)
+            .createRequest(URI, HttpMethod.POST);
+
+    request.getBody().write(bytes(BODY));
+    request.execute().close();
+
+    assertNull(transportRequest.headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(BODY, transportRequest.body.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void streamingTransportWritesTheBody() throws IOException {
+    assertEquals(BODY, new String(sendToStreamingTransport(0), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void streamingTransportWritesTheGzipEncodedBody() throws IOException {
+    assertEquals(BODY, gunzip(sendToStreamingTransport(16)));
+  }
+
+  @Test
+  void compressedResponsesAreDecodedByThePooledTransport() throws Exception {
+    assertCompressedResponseIsDecoded(HeadlessTransportSettings.TRANSPORT_POOLED);
+  }
+
+  @Test
+  void compressedResponsesAreDecodedByTheSimpleTransport() throws Exception {
+    assertCompressedResponseIsDecoded(HeadlessTransportSettings.TRANSPORT_SIMPLE);
+  }
+
+  private static byte[] sendToStreamingTransport(int requestCompressionThreshold) throws IOException {
+    StreamingTransportRequest transportRequest = new StreamingTransportRequest();
+    ClientHttpRequest request = new ContentEncodingRequestFactory((uri, method) -> transportRequest, true, requestCompressionThreshold)
+            .createRequest(URI, HttpMethod.POST);
+
+    ((StreamingHttpOutputMessage) request).setBody(out -> out.write(bytes(BODY)));
+    request.execute().close();
+    return transportRequest.body.toByteArray();
+  }
+
+  private static void assertCompressedResponseIsDecoded(String transport) throws Exception {
+    String content = "{\"data\":{\"content\":{\"content\":{\"name\":\"Picture\",\"type\":\"CMPicture\"}}}}";
+    try (StubHeadlessServer server = new StubHeadlessServer(request -> request.header("Accept-Encoding").contains("gzip")
+            ? new StubHeadlessServer.Response(200, gzip(content)).header("Content-Type", "application/json").header("Content-Encoding", "gzip")
+            : StubHeadlessServer.Response.json(content))) {
+      HeadlessTransportSettings settings = new HeadlessTransportSettings();
+      settings.setTransport(transport);
+      HeadlessServerConnector connector = new HeadlessServerConnector(server.getUrl(), settings);
+      try {
+        CMContentDocument document = connector.getContent("content:1");
+
+        assertNotNull(document);
+        assertEquals("Picture", document.getContent().getName());
+        assertEquals(content.length(), connector.getDecodedBytes());
+        assertEquals(gzip(content).length, connector.getWireBytes());
+        assertEquals(1, server.getRequests().size());
+        assertTrue(server.getRequests().get(0).body.contains("content:1"));
+      } finally {
+        connector.close();
+      }
+    }
+  }
+
+  private static String inflate(byte[] data) throws IOException {
+    try (InputStream in = ContentEncodingRequestFactory.inflate(new ByteArrayInputStream(data))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static byte[] deflate(String text, boolean raw) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DeflaterOutputStream deflater = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+      deflater.write(bytes(text));
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] gzip(String text) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes(text));
+    }
+    return out.toByteArray();
+  }
+
+  private static String gunzip(byte[] data) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A request of a transport which records its headers and body.
+   */
+  private static class TransportRequest implements ClientHttpRequest {
+    final HttpHeaders headers = new HttpHeaders();
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @NonNull
+    @Override
+    public String getMethodValue() {
+      return HttpMethod.POST.name();
+    }
+
+    @NonNull
+    @Override
+    public URI getURI() {
+      return URI;
+    }
+
+    @NonNull
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @NonNull
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpResponse execute() {
+      return new ClientHttpResponse() {
+        @NonNull
+        @Override
+        public HttpStatus getStatusCode() {
+          return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+          return HttpStatus.OK.value();
+        }
+
+        @NonNull
+        @Override
+        public String getStatusText() {
+          return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @NonNull
+        @Override
+        public InputStream getBody() {
+          return InputStream.nullInputStream();
+        }
+
+        @NonNull
+        @Override
+        public HttpHeaders getHeaders() {
+          return new HttpHeaders();
+        }
+      };
+    }
+  }
+
+  /**
+   * A request of a transport which writes the body itself when it is executed.
+   */
+  private static class StreamingTransportRequest extends TransportRequest implements StreamingHttpOutputMessage {
+    private Body streamingBody;
+
+    @Override
+    public void setBody(@NonNull Body body) {
+      streamingBody = body;
+    }
+
+    @NonNull
+    @Override
+    public OutputStream getBody() {
+      throw new UnsupportedOperationException("getBody not supported");
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpResponse execute() {
+      try {
+        if (streamingBody != null) {
+          streamingBody.writeTo(body);
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      return super.execute();
+    }
+  }
+}
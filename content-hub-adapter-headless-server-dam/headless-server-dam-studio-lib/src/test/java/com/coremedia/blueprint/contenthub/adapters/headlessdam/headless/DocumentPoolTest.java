@@ -0,0 +1,99 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentPoolTest {
+  private static final String PICTURE = "{\"uriTemplate\":\"/caas/v1/media/%s/data/{cropName}/{width}\",\"crops\":[" +
+          "{\"name\":\"portrait_ratio3x4\",\"minWidth\":240,\"aspectRatio\":{\"width\":3,\"height\":4}," +
+          "\"sizes\":[{\"width\":240,\"height\":320},{\"width\":480,\"height\":640}]},null]}";
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  @Test
+  void equalCropsAreShared() throws Exception {
+    PictureDocument first = objectMapper.readValue(String.format(PICTURE, 1), PictureDocument.class);
+    PictureDocument second = objectMapper.readValue(String.format(PICTURE, 2), PictureDocument.class);
+
+    assertSame(first.getCrops(), second.getCrops());
+    assertEquals(1, first.getCrops().size());
+    CropDocument crop = first.getCrops().get(0);
+    assertEquals("portrait_ratio3x4", crop.getName());
+    assertEquals(240, crop.getMinWidth());
+    assertEquals(new DimensionDocument(3, 4), crop.getAspectRatio());
+    assertEquals(List.of(new DimensionDocument(240, 320), new DimensionDocument(480, 640)), crop.getSizes());
+  }
+
+  @Test
+  void sharedCropsCannotBeModified() throws Exception {
+    PictureDocument picture = objectMapper.readValue(String.format(PICTURE, 3), PictureDocument.class);
+    CropDocument crop = picture.getCrops().get(0);
+
+    assertThrows(UnsupportedOperationException.class, () -> picture.getCrops().clear());
+    assertThrows(UnsupportedOperationException.class, () -> crop.getSizes().clear());
+    assertTrue(Arrays.stream(CropDocument.class.getMethods()).noneMatch(DocumentPoolTest::isSetter));
+    assertTrue(Arrays.stream(DimensionDocument.class.getMethods()).noneMatch(DocumentPoolTest::isSetter));
+  }
+
+  @Test
+  void uriTemplatePrefixIsShared() throws Exception {
+    PictureDocument first = objectMapper.readValue(String.format(PICTURE, 4), PictureDocument.class);
+    PictureDocument second = objectMapper.readValue(String.format(PICTURE, 5), PictureDocument.class);
+
+    assertEquals("/caas/v1/media/4/data/{cropName}/{width}", first.getUriTemplate());
+    assertEquals("/caas/v1/media/5/data/{cropName}/{width}", second.getUriTemplate());
+    assertEquals("/caas/v1/media/", first.getUriTemplatePrefix());
+    assertSame(first.getUriTemplatePrefix(), second.getUriTemplatePrefix());
+  }
+
+  @Test
+  void uriTemplateIsSplitBeforeTheAssetIdOrTheFirstPlaceholder() {
+    assertEquals("/caas/v1/media/", prefix("/caas/v1/media/1234/data/{cropName}/{width}"));
+    assertEquals("/blob/", prefix("/blob/{cropName}/{width}"));
+    assertEquals("/caas/v1/media/", prefix("/caas/v1/media/"));
+  }
+
+  @Test
+  void listedPicturesTakeLessHeapThanUnsharedCopies() throws Exception {
+    List<PictureDocument> pictures = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      pictures.add(objectMapper.readValue(String.format(PICTURE, 1000 + i), PictureDocument.class));
+    }
+
+    // without sharing, every picture holds its own crops, strings and template, as the documents did before
+    long unshared = 0;
+    for (PictureDocument picture : pictures) {
+      unshared += HeapFootprint.of(picture);
+    }
+    long shared = HeapFootprint.of(pictures);
+
+    long perItemBefore = unshared / pictures.size();
+    long perItemAfter = shared / pictures.size();
+    assertTrue(perItemAfter * 3 < perItemBefore,
+            "expected less than a third of " + perItemBefore + " bytes per picture, got " + perItemAfter);
+  }
+
+  private static String prefix(String uriTemplate) {
+    PictureDocument picture = new PictureDocument();
+    picture.setUriTemplate(uriTemplate);
+    assertEquals(uriTemplate, picture.getUriTemplate());
+    return picture.getUriTemplatePrefix();
+  }
+
+  private static boolean isSetter(Method method) {
+    return Modifier.isPublic(method.getModifiers()) && method.getName().startsWith("set");
+  }
+}
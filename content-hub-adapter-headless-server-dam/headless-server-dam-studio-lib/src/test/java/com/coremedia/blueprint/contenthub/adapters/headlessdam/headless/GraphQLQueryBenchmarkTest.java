@@ -0,0 +1,127 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the time and the heap allocated per search request payload of the GraphQL query builders with the
+ * former regex templates. Only runs with <code>-Dbenchmark=true</code>.
+ * <p>
+ * Allocations are measured per thread by the HotSpot {@link com.sun.management.ThreadMXBean}, as a JMH setup
+ * is not part of the build.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GraphQLQueryBenchmarkTest {
+  private static final int WARM_UP_ITERATIONS = 50_000;
+  private static final int ITERATIONS = 200_000;
+
+  private static final String TEMPLATE = "{\"query\" : \"query {\n" +
+          "  content {\n" +
+          "    search(query: \\\"'query'\\\", offset: 'offset', limit: 'limit', docTypes: ['docTypes'], sortFields: ['sortFields'], siteId: \\\"'siteId'\\\") {\n" +
+          "     numFound,\n" +
+          "     result {\n" +
+          "       ... on CMTeasable {\n" +
+          "          creationDate, \n" +
+          "          name,           \n" +
+          "          title,           \n" +
+          "          type,           \n" +
+          "          link {id},         \n" +
+          "          picture {            \n" +
+          "            data { \n" +
+          "              size ,\n" +
+          "              contentType\n" +
+          "            },\n" +
+          "            uriTemplate,\n" +
+          "            crops {\n" +
+          "              name,\n" +
+          "              minWidth              \n" +
+          "            }          \n" +
+          "          }\n" +
+          "        }\n" +
+          "      }\n" +
+          "    }\n" +
+          "  }\n" +
+          "}\" }";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private final OutputStream sink = new OutputStream() {
+    @Override
+    public void write(int b) {
+      written++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      written += len;
+    }
+  };
+  private long written;
+
+  @Test
+  void compareWithTemplates() throws Exception {
+    Operation template = () -> {
+      byte[] payload = templatePayload("site", "red car", List.of("CMPicture", "CMVideo"), List.of("MODIFICATION_DATE_DESC"), 0, 50);
+      sink.write(payload, 0, payload.length);
+    };
+    Operation builder = () -> objectMapper.writeValue(sink, new SearchQuery("site", "red car", List.of("CMPicture", "CMVideo"),
+            List.of("MODIFICATION_DATE_DESC"), 0, 50).toRequest());
+
+    measure("template", template, WARM_UP_ITERATIONS);
+    measure("builder", builder, WARM_UP_ITERATIONS);
+    String templateResult = measure("template", template, ITERATIONS);
+    String builderResult = measure("builder", builder, ITERATIONS);
+
+    System.out.println(templateResult);
+    System.out.println(builderResult);
+    assertTrue(written > 0);
+  }
+
+  private String measure(String name, Operation operation, int iterations) throws IOException {
+    long threadId = Thread.currentThread().getId();
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      operation.run();
+    }
+    long nanos = System.nanoTime() - start;
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    return String.format("%-8s %8.0f ns/op %8d bytes/op", name, (double) nanos / iterations, allocated / iterations);
+  }
+
+  /**
+   * The search payload as it was built before the query builders: the template with its placeholders replaced,
+   * and the newlines replaced by the connector.
+   */
+  private static byte[] templatePayload(String siteId, String query, List<String> docTypes, List<String> sortFields,
+                                        int offset, int limit) {
+    String docTypeList = docTypes.stream().map(t -> "\\\"" + escape(t) + "\\\"").collect(Collectors.joining(", "));
+    String payload = TEMPLATE.replace("'siteId'", escape(siteId))
+            .replace("'docTypes'", docTypeList)
+            .replace("'sortFields'", String.join(", ", sortFields))
+            .replace("'offset'", String.valueOf(offset))
+            .replace("'limit'", String.valueOf(limit))
+            .replace("'query'", escape(query));
+    return payload.replaceAll("\n", " ").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String escape(String value) {
+    String graphQl = value.replace("\\", "\\\\").replace("\"", "\\\"");
+    return graphQl.replace("\\", "\\\\").replace("\"", "\\\"").replaceAll("\\s", " ");
+  }
+
+  @FunctionalInterface
+  private interface Operation {
+    void run() throws IOException;
+  }
+}
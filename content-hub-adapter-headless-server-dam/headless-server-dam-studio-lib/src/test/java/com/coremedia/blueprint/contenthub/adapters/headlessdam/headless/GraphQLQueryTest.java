@@ -0,0 +1,75 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphQLQueryTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void minifyRemovesInsignificantWhitespace() {
+    assertEquals("query($id:String!){content{content(id:$id){name,title}}}",
+            GraphQLRequest.minify("query($id: String!) {\n  content {\n    content(id: $id) {\n      name, title\n    }\n  }\n}"));
+  }
+
+  @Test
+  void queryTextIsSharedBetweenRequests() {
+    GraphQLRequest first = new ContentQuery("1").toRequest();
+    GraphQLRequest second = new ContentQuery("2").toRequest();
+
+    assertSame(first.getQuery(), second.getQuery());
+    assertFalse(first.getQuery().contains("\n"));
+  }
+
+  @Test
+  void valuesArePassedAsVariablesVerbatim() throws Exception {
+    String id = "coremedia:///cap/content/$1\\2\"";
+    GraphQLRequest request = new ContentQuery(id, Set.of(ContentField.NAME)).toRequest();
+
+    JsonNode payload = objectMapper.readTree(objectMapper.writeValueAsString(request));
+
+    assertEquals(id, payload.get("variables").get("id").asText());
+    assertFalse(payload.get("query").asText().contains(id));
+    assertTrue(payload.get("query").asText().contains("name"));
+  }
+
+  @Test
+  void batchQuerySelectsEveryIdWithItsAlias() {
+    GraphQLRequest request = new BatchContentQuery(List.of("10", "20"), Set.of(ContentField.NAME)).toRequest();
+
+    assertEquals(Map.of("c0", "10", "c1", "20"), request.getVariables());
+    assertTrue(request.getQuery().startsWith("query($c0:String!,$c1:String!){content{"), request.getQuery());
+    assertTrue(request.getQuery().contains("c0:content(id:$c0)"), request.getQuery());
+    assertTrue(request.getQuery().contains("c1:content(id:$c1)"), request.getQuery());
+  }
+
+  @Test
+  void countQueryRequestsNoDocuments() {
+    GraphQLRequest request = new CountQuery("site", List.of("CMPicture", "CMVideo")).toRequest();
+
+    assertEquals(List.of("CMPicture"), request.getVariables().get("t0"));
+    assertEquals(SearchQuery.MATCH_ALL, request.getVariables().get("q1"));
+    assertTrue(request.getQuery().contains("limit:0"), request.getQuery());
+    assertFalse(request.getQuery().contains("result"), request.getQuery());
+  }
+
+  @Test
+  void searchQuerySelectsOnlyTheGivenFields() {
+    GraphQLRequest request = new SearchQuery("site", "car", List.of("CMPicture"), List.of("TITLE_ASC"), 20, 10,
+            Set.of(ContentField.NAME)).toRequest();
+
+    assertEquals(20, request.getVariables().get("offset"));
+    assertEquals(10, request.getVariables().get("limit"));
+    assertTrue(request.getQuery().contains("... on CMTeasable{name}"), request.getQuery());
+  }
+}
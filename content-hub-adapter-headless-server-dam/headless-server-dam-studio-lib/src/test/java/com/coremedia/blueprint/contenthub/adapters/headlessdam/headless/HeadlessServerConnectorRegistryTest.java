@@ -0,0 +1,53 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HeadlessServerConnectorRegistryTest {
+  private static final String URL = "http://localhost:41180/";
+
+  private final HeadlessServerConnectorRegistry registry = new HeadlessServerConnectorRegistry();
+
+  @AfterEach
+  void tearDown() {
+    registry.close();
+  }
+
+  @Test
+  void equalSettingsShareOneConnector() {
+    HeadlessServerConnector first = registry.acquire(URL, new HeadlessTransportSettings());
+    HeadlessServerConnector second = registry.acquire(URL, new HeadlessTransportSettings());
+
+    assertSame(first, second);
+    assertEquals(2, registry.getReferenceCount(URL));
+  }
+
+  @Test
+  void differentSettingsGetConnectorsOfTheirOwn() {
+    HeadlessTransportSettings slow = new HeadlessTransportSettings();
+    slow.setReadTimeout(120000);
+
+    HeadlessServerConnector first = registry.acquire(URL, new HeadlessTransportSettings());
+    HeadlessServerConnector second = registry.acquire(URL, slow);
+
+    assertNotSame(first, second);
+    assertSame(second, registry.acquire(URL, slow));
+  }
+
+  @Test
+  void lastReleaseRemovesTheConnector() {
+    HeadlessServerConnector first = registry.acquire(URL, new HeadlessTransportSettings());
+    registry.acquire(URL, new HeadlessTransportSettings());
+
+    registry.release(first);
+    assertEquals(1, registry.getReferenceCount(URL));
+    registry.release(first);
+    assertEquals(0, registry.getReferenceCount(URL));
+
+    assertNotSame(first, registry.acquire(URL, new HeadlessTransportSettings()));
+  }
+}
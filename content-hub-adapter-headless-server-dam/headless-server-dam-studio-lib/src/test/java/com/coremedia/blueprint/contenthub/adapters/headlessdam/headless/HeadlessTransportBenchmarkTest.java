@@ -0,0 +1,129 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the latency and throughput of the transports against a local stub server, with several editors
+ * loading contents concurrently. Only runs with <code>-Dbenchmark=true</code>.
+ * <p>
+ * The stub server speaks plain HTTP on the loopback interface, so the measured gain of the pooled transport
+ * is the saved connection setup only. TLS handshakes to a remote Headless Server make it larger.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HeadlessTransportBenchmarkTest {
+  private static final String CONTENT = "{\"data\":{\"content\":{\"content\":{\"name\":\"Picture\",\"type\":\"CMPicture\"}}}}";
+  private static final int EDITORS = 8;
+  private static final int WARM_UP_REQUESTS = 50;
+  private static final int REQUESTS = 500;
+  private static final int SERVER_MILLIS = 2;
+
+  private StubHeadlessServer server;
+  private final ExecutorService editors = Executors.newFixedThreadPool(EDITORS);
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubHeadlessServer(request -> {
+      Thread.sleep(SERVER_MILLIS);
+      return StubHeadlessServer.Response.json(CONTENT);
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    editors.shutdownNow();
+    server.close();
+  }
+
+  @Test
+  void compareTransports() throws Exception {
+    Result simple = run(HeadlessTransportSettings.TRANSPORT_SIMPLE);
+    Result pooled = run(HeadlessTransportSettings.TRANSPORT_POOLED);
+
+    System.out.println(simple);
+    System.out.println(pooled);
+  }
+
+  private Result run(String transport) throws Exception {
+    HeadlessTransportSettings settings = new HeadlessTransportSettings();
+    settings.setTransport(transport);
+    settings.setMaxConnectionsPerRoute(EDITORS);
+    settings.setMaxConcurrentRequests(EDITORS);
+    HeadlessServerConnector connector = new HeadlessServerConnector(server.getUrl(), settings);
+    try {
+      load(connector, "warm-up:", WARM_UP_REQUESTS);
+      int requestsBefore = server.getRequests().size();
+
+      long start = System.nanoTime();
+      long[] latencies = load(connector, "content:", REQUESTS);
+      long elapsed = System.nanoTime() - start;
+
+      List<StubHeadlessServer.Request> requests = server.getRequests();
+      long connections = requests.subList(requestsBefore, requests.size()).stream()
+              .mapToInt(request -> request.remotePort)
+              .distinct()
+              .count();
+      return new Result(transport, latencies, elapsed, connections);
+    } finally {
+      connector.close();
+    }
+  }
+
+  /**
+   * Loads distinct contents on all editor threads, so that no request is coalesced.
+   *
+   * @return the latency of every request in nanoseconds
+   */
+  private long[] load(HeadlessServerConnector connector, String idPrefix, int count) throws Exception {
+    List<Future<Long>> futures = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String id = idPrefix + i;
+      futures.add(editors.submit(() -> {
+        long start = System.nanoTime();
+        assertNotNull(connector.getContent(id));
+        return System.nanoTime() - start;
+      }));
+    }
+    long[] latencies = new long[count];
+    for (int i = 0; i < count; i++) {
+      latencies[i] = futures.get(i).get(30, TimeUnit.SECONDS);
+    }
+    return latencies;
+  }
+
+  private static final class Result {
+    private final String transport;
+    private final long[] latencies;
+    private final long elapsedNanos;
+    private final long connections;
+
+    private Result(String transport, long[] latencies, long elapsedNanos, long connections) {
+      this.transport = transport;
+      this.latencies = latencies.clone();
+      Arrays.sort(this.latencies);
+      this.elapsedNanos = elapsedNanos;
+      this.connections = connections;
+    }
+
+    @Override
+    public String toString() {
+      double meanMillis = Arrays.stream(latencies).average().orElse(0) / 1e6;
+      double p99Millis = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1e6;
+      double throughput = latencies.length / (elapsedNanos / 1e9);
+      return String.format("%-7s %d requests: %8.1f requests/s, mean %6.2f ms, p99 %6.2f ms, %d connections",
+              transport, latencies.length, throughput, meanMillis, p99Millis, connections);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the heap retained by an object graph, counting every reachable object once.
+ * <p>
+ * Sizes follow a 64 bit JVM with compressed references: a 12 byte header, 4 bytes per reference and the size of
+ * each primitive field, padded to 8 bytes. JDK collections and strings are measured through their public API,
+ * as their fields cannot be accessed.
+ */
+final class HeapFootprint {
+  private static final int HEADER = 12;
+  private static final int REFERENCE = 4;
+
+  private HeapFootprint() {
+  }
+
+  static long of(Object root) {
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> pending = new ArrayDeque<>();
+    pending.push(root);
+    long bytes = 0;
+    while (!pending.isEmpty()) {
+      Object object = pending.pop();
+      if (!visited.add(object)) {
+        continue;
+      }
+      bytes += shallowSize(object, pending);
+    }
+    return bytes;
+  }
+
+  private static long shallowSize(Object object, Deque<Object> pending) {
+    if (object instanceof String) {
+      // the string and its byte array
+      return pad(HEADER + 8) + pad(16 + ((String) object).length());
+    }
+    if (object instanceof Collection) {
+      Collection<?> collection = (Collection<?>) object;
+      collection.forEach(element -> push(pending, element));
+      return pad(HEADER + 8) + pad(16 + (long) REFERENCE * collection.size());
+    }
+    if (object instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        push(pending, entry.getKey());
+        push(pending, entry.getValue());
+      }
+      return pad(HEADER + 24) + pad(16 + (long) REFERENCE * map.size()) + map.size() * pad(HEADER + 3L * REFERENCE + 4);
+    }
+    if (object.getClass().getName().startsWith("java.")) {
+      return pad(HEADER + 12);
+    }
+    long size = HEADER;
+    for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        if (field.getType().isPrimitive()) {
+          size += field.getType() == long.class || field.getType() == double.class ? 8 : 4;
+          continue;
+        }
+        size += REFERENCE;
+        field.setAccessible(true);
+        try {
+          push(pending, field.get(object));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+    return pad(size);
+  }
+
+  private static void push(Deque<Object> pending, Object object) {
+    if (object != null) {
+      pending.push(object);
+    }
+  }
+
+  private static long pad(long size) {
+    return (size + 7) / 8 * 8;
+  }
+}
@@ -0,0 +1,100 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class PersistedQueriesTest {
+  private static final String CONTENT = "{\"data\":{\"content\":{\"content\":{\"name\":\"Picture\"}}}}";
+  private static final String NOT_FOUND = "{\"errors\":[{\"message\":\"PersistedQueryNotFound\"," +
+          "\"extensions\":{\"code\":\"PERSISTED_QUERY_NOT_FOUND\"}}]}";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Set<String> registeredHashes = ConcurrentHashMap.newKeySet();
+  private StubHeadlessServer server;
+  private HeadlessServerConnector connector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // a GraphQL server with automatic persisted queries, which only registers a query under its actual hash
+    server = new StubHeadlessServer(request -> {
+      if ("GET".equals(request.method)) {
+        String extensions = UriComponentsBuilder.fromUri(request.uri).build().getQueryParams().getFirst("extensions");
+        JsonNode hash = objectMapper.readTree(URLDecoder.decode(extensions, StandardCharsets.UTF_8))
+                .get("persistedQuery").get("sha256Hash");
+        return StubHeadlessServer.Response.json(registeredHashes.contains(hash.asText()) ? CONTENT : NOT_FOUND);
+      }
+      JsonNode body = objectMapper.readTree(request.body);
+      if (body.has("extensions")) {
+        String hash = body.get("extensions").get("persistedQuery").get("sha256Hash").asText();
+        if (hash.equals(PersistedQueries.hash(body.get("query").asText()))) {
+          registeredHashes.add(hash);
+        }
+      }
+      return StubHeadlessServer.Response.json(CONTENT);
+    });
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings()).withPersistedQueries(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    connector.close();
+    server.close();
+  }
+
+  @Test
+  void unknownQueryIsRegisteredAndThenSentAsGet() {
+    assertNotNull(connector.getContent("content:1"));
+    assertNotNull(connector.getContent("content:2"));
+
+    List<StubHeadlessServer.Request> requests = server.getRequests();
+    assertEquals(List.of("GET", "POST", "GET"), methods(requests));
+    assertEquals(1, registeredHashes.size());
+  }
+
+  @Test
+  void getRequestCarriesVariablesButNoQueryText() {
+    registeredHashes.add(PersistedQueries.hash(new ContentQuery("content:1").toRequest().getQuery()));
+
+    assertEquals("Picture", connector.getContent("content:1").getContent().getName());
+
+    StubHeadlessServer.Request request = server.getRequests().get(0);
+    String query = URLDecoder.decode(request.uri.getRawQuery(), StandardCharsets.UTF_8);
+    assertEquals("GET", request.method);
+    assertFalse(query.contains("query="), query);
+    assertFalse(query.contains("CMTeasable"), query);
+    assertEquals(1, server.getRequests().size());
+  }
+
+  @Test
+  void disabledModeSendsPost() {
+    HeadlessServerConnector posting = connector.withPersistedQueries(false);
+
+    assertNotNull(posting.getContent("content:1"));
+
+    assertEquals(List.of("POST"), methods(server.getRequests()));
+  }
+
+  @Test
+  void hashIsHexEncodedSha256() {
+    assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", PersistedQueries.hash("abc"));
+  }
+
+  private static List<String> methods(List<StubHeadlessServer.Request> requests) {
+    return requests.stream().map(request -> request.method).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,98 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledHeadlessTransportTest {
+  private static final String CONTENT = "{\"data\":{\"content\":{\"content\":{\"name\":\"Picture\",\"type\":\"CMPicture\"}}}}";
+
+  private StubHeadlessServer server;
+  private HeadlessServerConnector connector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubHeadlessServer(request -> StubHeadlessServer.Response.json(CONTENT));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (connector != null) {
+      connector.close();
+    }
+    server.close();
+  }
+
+  @Test
+  void sequentialRequestsShareOneConnection() {
+    connector = new HeadlessServerConnector(server.getUrl(), new HeadlessTransportSettings());
+
+    for (int i = 0; i < 20; i++) {
+      CMContentDocument content = connector.getContent("content:" + i);
+      assertNotNull(content);
+      assertEquals("Picture", content.getContent().getName());
+    }
+
+    assertEquals(20, server.getRequests().size());
+    assertEquals(1, remotePorts().size(), "requests should reuse the kept-alive connection");
+  }
+
+  @Test
+  void concurrentRequestsAreLimitedPerRoute() throws Exception {
+    server.setHandler(request -> {
+      Thread.sleep(50);
+      return StubHeadlessServer.Response.json(CONTENT);
+    });
+    HeadlessTransportSettings settings = new HeadlessTransportSettings();
+    settings.setMaxConnectionsPerRoute(2);
+    settings.setMaxConcurrentRequests(0);
+    connector = new HeadlessServerConnector(server.getUrl(), settings);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<CMContentDocument>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        String id = "content:" + i;
+        futures.add(executor.submit(() -> connector.getContent(id)));
+      }
+      for (Future<CMContentDocument> future : futures) {
+        assertNotNull(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(16, server.getRequests().size());
+    assertTrue(remotePorts().size() <= 2, "expected at most 2 connections, got " + remotePorts().size());
+  }
+
+  @Test
+  void readTimeoutFailsAsUnavailable() {
+    server.setHandler(request -> {
+      Thread.sleep(1000);
+      return StubHeadlessServer.Response.json(CONTENT);
+    });
+    HeadlessTransportSettings settings = new HeadlessTransportSettings();
+    settings.setReadTimeout(100);
+    connector = new HeadlessServerConnector(server.getUrl(), settings);
+
+    assertThrows(HeadlessServerUnavailableException.class, () -> connector.getContent("content:1"));
+  }
+
+  private Set<Integer> remotePorts() {
+    return server.getRequests().stream().map(request -> request.remotePort).collect(Collectors.toSet());
+  }
+}
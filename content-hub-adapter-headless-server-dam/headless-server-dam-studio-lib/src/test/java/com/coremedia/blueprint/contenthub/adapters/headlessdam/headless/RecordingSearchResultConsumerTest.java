@@ -0,0 +1,85 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordingSearchResultConsumerTest {
+  private final List<String> forwarded = new ArrayList<>();
+
+  @Test
+  void resultsAreOnlyForwardedIfNotRecording() {
+    RecordingSearchResultConsumer recorder = new RecordingSearchResultConsumer(collecting(forwarded), false);
+
+    receive(recorder, "a", "b");
+
+    assertEquals(List.of("a", "b"), forwarded);
+    assertEquals(List.of(), replayed(recorder));
+  }
+
+  @Test
+  void sharingBeforeTheFirstResultRecordsAllResults() {
+    RecordingSearchResultConsumer recorder = new RecordingSearchResultConsumer(collecting(forwarded), false);
+
+    assertTrue(recorder.share());
+    receive(recorder, "a", "b");
+
+    assertEquals(List.of("a", "b"), forwarded);
+    assertEquals(List.of("a", "b"), replayed(recorder));
+  }
+
+  @Test
+  void sharingIsDeclinedOnceResultsHaveBeenForwarded() {
+    RecordingSearchResultConsumer recorder = new RecordingSearchResultConsumer(collecting(forwarded), false);
+
+    receive(recorder, "a");
+
+    assertFalse(recorder.share());
+  }
+
+  @Test
+  void recordingConsumerCanAlwaysBeShared() {
+    RecordingSearchResultConsumer recorder = new RecordingSearchResultConsumer(collecting(forwarded), true);
+
+    receive(recorder, "a");
+
+    assertTrue(recorder.share());
+    assertEquals(List.of("a"), replayed(recorder.detached()));
+  }
+
+  private static void receive(@NonNull RecordingSearchResultConsumer recorder, @NonNull String... names) {
+    recorder.numFound(names.length);
+    for (String name : names) {
+      CMTeaseableDocument document = new CMTeaseableDocument();
+      document.setName(name);
+      recorder.accept(document);
+    }
+  }
+
+  @NonNull
+  private static List<String> replayed(@NonNull RecordingSearchResultConsumer recorder) {
+    List<String> names = new ArrayList<>();
+    recorder.replay(collecting(names));
+    return names;
+  }
+
+  @NonNull
+  private static SearchResultConsumer collecting(@NonNull List<String> names) {
+    return new SearchResultConsumer() {
+      @Override
+      public void numFound(int numFound) {
+      }
+
+      @Override
+      public void accept(@NonNull CMTeaseableDocument document) {
+        names.add(document.getName());
+      }
+    };
+  }
+}
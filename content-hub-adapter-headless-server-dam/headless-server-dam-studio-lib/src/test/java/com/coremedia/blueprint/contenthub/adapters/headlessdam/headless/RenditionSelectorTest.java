@@ -0,0 +1,61 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RenditionSelectorTest {
+  private static final CropDocument BANNER = crop("banner_ratio3x1", 3, 1, 120, 240, 480, 960);
+  private static final CropDocument SQUARE = crop("portrait_ratio1x1", 1, 1, 240, 480, 960);
+  private static final CropDocument LANDSCAPE = crop("landscape_ratio4x3", 4, 3, 400, 800, 1600);
+  private static final CropDocument WIDE = crop("landscape_ratio16x9", 16, 9, 400, 800, 1600);
+
+  @Test
+  void cropMatchingTheBoxWinsOverFewerPixels() {
+    RenditionSelector.Rendition rendition = RenditionSelector.select(List.of(BANNER, LANDSCAPE, SQUARE), 240, 240);
+
+    assertEquals("portrait_ratio1x1", rendition.getCropName());
+    assertEquals(240, rendition.getWidth());
+  }
+
+  @Test
+  void smallestSufficientSizeOfTheMatchingCrop() {
+    RenditionSelector.Rendition rendition = RenditionSelector.select(List.of(SQUARE, WIDE, LANDSCAPE), 800, 600);
+
+    assertEquals("landscape_ratio4x3", rendition.getCropName());
+    assertEquals(800, rendition.getWidth());
+  }
+
+  @Test
+  void closestRatioIfNoCropMatches() {
+    RenditionSelector.Rendition rendition = RenditionSelector.select(List.of(BANNER, WIDE), 240, 240);
+
+    assertEquals("landscape_ratio16x9", rendition.getCropName());
+    assertEquals(400, rendition.getWidth());
+  }
+
+  @Test
+  void largestSizeIfNoneIsSufficient() {
+    RenditionSelector.Rendition rendition = RenditionSelector.select(List.of(SQUARE), 2000, 2000);
+
+    assertEquals(960, rendition.getWidth());
+  }
+
+  @Test
+  void noRenditionWithoutNamedCrops() {
+    assertNull(RenditionSelector.select(null, 240, 240));
+    assertNull(RenditionSelector.select(List.of(new CropDocument(null, 0, null, null)), 240, 240));
+  }
+
+  private static CropDocument crop(String name, int ratioWidth, int ratioHeight, int... widths) {
+    List<DimensionDocument> sizes = new ArrayList<>();
+    for (int width : widths) {
+      sizes.add(new DimensionDocument(width, width * ratioHeight / ratioWidth));
+    }
+    return new CropDocument(name, widths[0], new DimensionDocument(ratioWidth, ratioHeight), sizes);
+  }
+}
@@ -0,0 +1,133 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final AtomicInteger executions = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentIdenticalRequestsShareOneExecution() throws Exception {
+    RequestCoalescer coalescer = new RequestCoalescer(5000);
+    Object result = new Object();
+
+    List<Future<Object>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> coalescer.execute("key", () -> blockingRequest(result))));
+    }
+    awaitWaitingCallers(coalescer, 7);
+    release.countDown();
+
+    for (Future<Object> future : futures) {
+      assertSame(result, future.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, executions.get());
+    assertEquals(1, coalescer.getExecutedCount());
+    assertEquals(7, coalescer.getCoalescedCount());
+  }
+
+  @Test
+  void differentKeysAreNotCoalesced() {
+    RequestCoalescer coalescer = new RequestCoalescer(5000);
+
+    coalescer.execute("a", executions::incrementAndGet);
+    coalescer.execute("b", executions::incrementAndGet);
+    coalescer.execute("a", executions::incrementAndGet);
+
+    assertEquals(3, executions.get());
+    assertEquals(0, coalescer.getCoalescedCount());
+  }
+
+  @Test
+  void failureIsPassedToWaitingCallers() throws Exception {
+    RequestCoalescer coalescer = new RequestCoalescer(5000);
+    Future<Object> leader = executor.submit(() -> coalescer.execute("key", () -> {
+      blockingRequest(null);
+      throw new HeadlessServerUnavailableException("down");
+    }));
+    awaitExecution();
+    Future<Object> follower = executor.submit(() -> coalescer.execute("key", () -> "unexpected"));
+    awaitWaitingCallers(coalescer, 1);
+
+    release.countDown();
+
+    ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+    ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(HeadlessServerUnavailableException.class, leaderFailure.getCause());
+    assertSame(leaderFailure.getCause(), followerFailure.getCause());
+  }
+
+  @Test
+  void declinedCallerExecutesTheRequestItself() throws Exception {
+    RequestCoalescer coalescer = new RequestCoalescer(5000);
+    Object result = new Object();
+    Future<Object> leader = executor.submit(() -> coalescer.execute("key", () -> blockingRequest(result), () -> false));
+    awaitExecution();
+
+    Object own = new Object();
+    assertSame(own, coalescer.execute("key", () -> own));
+    release.countDown();
+
+    assertSame(result, leader.get(5, TimeUnit.SECONDS));
+    assertEquals(2, coalescer.getExecutedCount());
+    assertEquals(0, coalescer.getCoalescedCount());
+  }
+
+  @Test
+  void followerGivesUpAfterItsTimeout() throws Exception {
+    RequestCoalescer coalescer = new RequestCoalescer(50);
+    executor.submit(() -> coalescer.execute("key", () -> blockingRequest(null)));
+    awaitExecution();
+
+    assertThrows(ResourceAccessException.class, () -> coalescer.execute("key", () -> "unexpected"));
+  }
+
+  private Object blockingRequest(Object result) {
+    executions.incrementAndGet();
+    try {
+      assertTrue(release.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return result;
+  }
+
+  private void awaitExecution() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (executions.get() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static void awaitWaitingCallers(RequestCoalescer coalescer, int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (coalescer.getCoalescedCount() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+}
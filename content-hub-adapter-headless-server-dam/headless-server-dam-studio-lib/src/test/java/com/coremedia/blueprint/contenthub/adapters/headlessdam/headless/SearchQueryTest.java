@@ -0,0 +1,77 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchQueryTest {
+  /**
+   * The arguments of the search field in the schema of the CMCC 10 headless server.
+   */
+  private static final Set<String> SEARCH_ARGUMENTS = Set.of("query", "offset", "limit", "docTypes", "sortFields", "siteId");
+
+  @Test
+  void escapesSearchSyntax() {
+    assertEquals("title\\:secret", SearchQuery.escape("title:secret"));
+    assertEquals("\\(a \"OR\" b\\)", SearchQuery.escape("(a OR b)"));
+    assertEquals("\\-draft \\\"quoted\\\"", SearchQuery.escape("-draft \"quoted\""));
+    assertEquals("back\\\\slash", SearchQuery.escape("back\\slash"));
+  }
+
+  @Test
+  void keepsTrailingWildcardAsPrefixSearch() {
+    assertEquals("moun*", SearchQuery.escape("moun*"));
+    assertEquals("a\\*b", SearchQuery.escape("a*b"));
+    assertEquals("\\*", SearchQuery.escape("*"));
+  }
+
+  @Test
+  void collapsesWhitespace() {
+    assertEquals("red car", SearchQuery.escape("  red \t car "));
+    assertEquals("", SearchQuery.escape("   "));
+  }
+
+  @Test
+  void andsFilterQueriesOntoTheQueryText() {
+    GraphQLRequest request = new SearchQuery("site", "car", List.of("CMPicture"), List.of("creationdate:[* TO NOW]"),
+            List.of(SearchQuery.MODIFICATION_DATE_DESC), 0, 10, ContentField.LISTING).toRequest();
+
+    assertEquals("(car) AND (creationdate:[* TO NOW])", request.getVariables().get("query"));
+    assertFalse(request.getVariables().containsKey("filterQueries"));
+  }
+
+  @Test
+  void andsExcludingFilterQueriesWithNot() {
+    assertEquals("(*) AND NOT (creationdate:[* TO NOW]) AND (isDeleted:false)",
+            SearchQuery.queryText(SearchQuery.MATCH_ALL, List.of("-creationdate:[* TO NOW]", "isDeleted:false")));
+    assertEquals("car", SearchQuery.queryText("car", List.of()));
+  }
+
+  @Test
+  void usesOnlyArgumentsOfTheHeadlessServerSchema() {
+    GraphQLRequest search = new SearchQuery("site", "car", List.of("CMPicture"), List.of("creationdate:[* TO NOW]"),
+            List.of(SearchQuery.MODIFICATION_DATE_DESC), 0, 10, ContentField.LISTING).toRequest();
+    GraphQLRequest count = new CountQuery("site", List.of("CMPicture"), List.of("creationdate:[* TO NOW]")).toRequest();
+
+    assertTrue(SEARCH_ARGUMENTS.containsAll(searchArguments(search.getQuery())), search.getQuery());
+    assertTrue(SEARCH_ARGUMENTS.containsAll(searchArguments(count.getQuery())), count.getQuery());
+  }
+
+  private static Set<String> searchArguments(String query) {
+    Matcher search = Pattern.compile("search\\(([^)]*)\\)").matcher(query);
+    assertTrue(search.find(), query);
+    Set<String> arguments = new HashSet<>();
+    for (String argument : search.group(1).split(",")) {
+      arguments.add(argument.substring(0, argument.indexOf(':')).trim());
+    }
+    return arguments;
+  }
+}
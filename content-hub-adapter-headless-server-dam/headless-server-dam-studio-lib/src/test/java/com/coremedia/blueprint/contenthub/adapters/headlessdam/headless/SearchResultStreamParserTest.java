@@ -0,0 +1,135 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchResultStreamParserTest {
+  private final ObjectMapper objectMapper = new ObjectMapper()
+          .registerModule(new JavaTimeModule())
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final List<String> names = new ArrayList<>();
+  private final int[] numFound = {-1};
+
+  private final SearchResultConsumer consumer = new SearchResultConsumer() {
+    @Override
+    public void numFound(int total) {
+      numFound[0] = total;
+    }
+
+    @Override
+    public void accept(@NonNull CMTeaseableDocument document) {
+      names.add(document.getName());
+    }
+  };
+
+  @Test
+  void passesResultsInOrder() throws IOException {
+    GraphQLResponseDocument document = parse("{\"data\":{\"content\":{\"search\":{\"numFound\":3,\"result\":[" +
+            "{\"name\":\"a\",\"creationDate\":\"2021-03-04T05:06:07Z\"},{\"name\":\"b\"},{\"name\":\"c\"}]}}}}");
+
+    assertEquals(3, numFound[0]);
+    assertEquals(List.of("a", "b", "c"), names);
+    assertNull(document.getErrors());
+  }
+
+  @Test
+  void skipsUnknownFieldsAtEveryLevel() throws IOException {
+    parse("{\"extensions\":{\"tracing\":{\"x\":[1,2,{\"y\":null}]}}," +
+            "\"data\":{\"other\":[{}],\"content\":{\"site\":{\"id\":1},\"search\":{\"result\":[{\"name\":\"a\",\"unknown\":{\"z\":1}},null,3]," +
+            "\"facets\":[],\"numFound\":1}}}}");
+
+    assertEquals(List.of("a"), names);
+    assertEquals(1, numFound[0]);
+  }
+
+  @Test
+  void returnsErrorsOnly() throws IOException {
+    GraphQLResponseDocument document = parse("{\"errors\":[{\"message\":\"boom\",\"extensions\":{\"code\":\"X\"}}]," +
+            "\"data\":{\"content\":{\"search\":null}}}");
+
+    assertEquals(1, document.getErrors().size());
+    assertEquals("boom", document.getErrors().get(0).getMessage());
+    assertEquals(List.of(), names);
+  }
+
+  @Test
+  void rejectsResponseWhichIsNoObject() {
+    assertThrows(JsonParseException.class, () -> parse("[]"));
+  }
+
+  @Test
+  void passesResultsWhileTheResponseIsRead() {
+    InputStream head = stream("{\"data\":{\"content\":{\"search\":{\"numFound\":2,\"result\":[{\"name\":\"a\"},");
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("connection reset");
+      }
+    };
+
+    assertThrows(IOException.class, () -> new SearchResultStreamParser(objectMapper, consumer)
+            .extractData(response(new SequenceInputStream(head, failing))));
+
+    assertEquals(List.of("a"), names);
+  }
+
+  private GraphQLResponseDocument parse(String json) throws IOException {
+    return new SearchResultStreamParser(objectMapper, consumer).extractData(response(stream(json)));
+  }
+
+  private static InputStream stream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static ClientHttpResponse response(InputStream body) {
+    return new ClientHttpResponse() {
+      @Override
+      public HttpStatus getStatusCode() {
+        return HttpStatus.OK;
+      }
+
+      @Override
+      public int getRawStatusCode() {
+        return 200;
+      }
+
+      @Override
+      public String getStatusText() {
+        return "OK";
+      }
+
+      @Override
+      public void close() {
+      }
+
+      @Override
+      public InputStream getBody() {
+        return body;
+      }
+
+      @Override
+      public HttpHeaders getHeaders() {
+        return new HttpHeaders();
+      }
+    };
+  }
+}
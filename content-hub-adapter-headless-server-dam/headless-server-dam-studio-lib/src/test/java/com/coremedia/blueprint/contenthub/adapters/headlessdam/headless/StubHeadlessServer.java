@@ -0,0 +1,137 @@
+package com.coremedia.blueprint.contenthub.adapters.headlessdam.headless;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local HTTP server standing in for the headless server. Every request is recorded and answered by a handler.
+ */
+public class StubHeadlessServer implements AutoCloseable {
+
+  static {
+    // the JDK server writes headers and body separately, with Nagle's algorithm every response would wait for a delayed ACK
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  public interface Handler {
+    Response handle(Request request) throws Exception;
+  }
+
+  public static class Request {
+    public final String method;
+    public final URI uri;
+    public final Headers headers;
+    public final String body;
+    public final int remotePort;
+
+    private Request(HttpExchange exchange, String body) {
+      this.method = exchange.getRequestMethod();
+      this.uri = exchange.getRequestURI();
+      this.headers = exchange.getRequestHeaders();
+      this.body = body;
+      this.remotePort = exchange.getRemoteAddress().getPort();
+    }
+
+    public String header(String name) {
+      return headers.getFirst(name);
+    }
+  }
+
+  public static class Response {
+    public final int status;
+    public final byte[] body;
+    public final Map<String, String> headers = new LinkedHashMap<>();
+
+    public Response(int status, byte[] body) {
+      this.status = status;
+      this.body = body;
+    }
+
+    public static Response json(String json) {
+      return new Response(200, json.getBytes(StandardCharsets.UTF_8)).header("Content-Type", "application/json");
+    }
+
+    public static Response status(int status) {
+      return new Response(status, new byte[0]);
+    }
+
+    public Response header(String name, String value) {
+      headers.put(name, value);
+      return this;
+    }
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+  private volatile Handler handler;
+
+  public StubHeadlessServer(Handler handler) throws IOException {
+    this.handler = handler;
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  /**
+   * Returns the base URL, as configured for a connection.
+   */
+  public String getUrl() {
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+  }
+
+  public void setHandler(Handler handler) {
+    this.handler = handler;
+  }
+
+  public List<Request> getRequests() {
+    synchronized (requests) {
+      return new ArrayList<>(requests);
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      Request request = new Request(exchange, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+      requests.add(request);
+      Response response;
+      try {
+        response = handler.handle(request);
+      } catch (Exception e) {
+        response = Response.status(500);
+      }
+      response.headers.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+      boolean empty = response.body.length == 0;
+      exchange.sendResponseHeaders(response.status, empty ? -1 : response.body.length);
+      if (!empty) {
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(response.body);
+        }
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}